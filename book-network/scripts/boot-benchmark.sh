@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Compares the default and the optimized build: time from JVM launch to the first successful
+# GET /books response, and the resident set size at that moment.
+#
+# usage: EMAIL=... PASSWORD=... scripts/boot-benchmark.sh [runs]
+#
+# Needs an activated account and both builds:
+#   ./mvnw package -DskipTests && cp target/book-network-0.0.1-SNAPSHOT.jar target/default.jar
+#   ./mvnw package -DskipTests -Poptimized
+set -euo pipefail
+
+runs=${1:-5}
+port=${PORT:-8088}
+books_url="http://localhost:$port/api/v1/books"
+dir=$(cd "$(dirname "$0")/.." && pwd)
+
+default_cmd=(java -jar "$dir/target/default.jar")
+optimized_cmd=(java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar application.jar)
+
+now_millis() {
+  echo $(($(date +%s%N) / 1000000))
+}
+
+# Starts the command, polls /books until it answers 200 and prints "<millis> <rss kB>".
+measure() {
+  local workdir=$1
+  shift
+  local start pid status
+  start=$(now_millis)
+  (cd "$workdir" && exec "$@" --server.port="$port" >/dev/null 2>&1) &
+  pid=$!
+  until status=$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$books_url") \
+      && [ "$status" = 200 ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited before answering" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  echo "$(($(now_millis) - start)) $(ps -o rss= -p "$pid" | tr -d ' ')"
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+report() {
+  local label=$1
+  shift
+  local times=() rss=() result
+  for _ in $(seq "$runs"); do
+    result=$(measure "$@")
+    times+=("${result% *}")
+    rss+=("${result#* }")
+  done
+  printf '%-10s first /books: median %6d ms  (runs: %s)\n' "$label" \
+    "$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(((runs + 1) / 2))p")" "${times[*]}"
+  printf '%-10s RSS:          median %6d kB  (runs: %s)\n' "$label" \
+    "$(printf '%s\n' "${rss[@]}" | sort -n | sed -n "$(((runs + 1) / 2))p")" "${rss[*]}"
+}
+
+# Tokens are stateless, so one obtained from a first boot stays valid for every run.
+(cd "$dir" && exec "${default_cmd[@]}" --server.port="$port" >/dev/null 2>&1) &
+pid=$!
+until token=$(curl -sf -H 'Content-Type: application/json' \
+    -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" \
+    "http://localhost:$port/api/v1/auth/authenticate" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p') \
+    && [ -n "$token" ]; do
+  sleep 0.5
+done
+kill "$pid"
+wait "$pid" 2>/dev/null || true
+
+report default "$dir" "${default_cmd[@]}"
+report optimized "$dir/target/optimized" "${optimized_cmd[@]}"
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# Compares a catalog page requested with a minimal field set against the full response: payload
+# size and request latency, measured with curl against a running application.
+#
+# usage: EMAIL=... PASSWORD=... scripts/catalog-fields-benchmark.sh [requests] [page size]
+set -euo pipefail
+
+requests=${1:-200}
+size=${2:-50}
+base_url="http://localhost:${PORT:-8088}/api/v1"
+minimal_fields=${MINIMAL_FIELDS:-title,authorName}
+
+token=$(curl -sf -H 'Content-Type: application/json' \
+  -d "{\"email\":\"$EMAIL\",\"password\":\"$PASSWORD\"}" \
+  "$base_url/auth/authenticate" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+
+# Prints "<bytes> <p50 ms> <p95 ms>" over the requests, after a short warm-up.
+measure() {
+  local url=$1 samples
+  for _ in $(seq 20); do
+    curl -s -o /dev/null -H "Authorization: Bearer $token" "$url"
+  done
+  samples=$(for _ in $(seq "$requests"); do
+    curl -s -o /dev/null -w '%{size_download} %{time_total}\n' \
+      -H "Authorization: Bearer $token" "$url"
+  done)
+  awk '{ print $2 * 1000 }' <<<"$samples" | sort -n | awk -v bytes="$(head -1 <<<"$samples" | cut -d' ' -f1)" '
+    { t[NR] = $1 }
+    END { printf "%d %.1f %.1f\n", bytes, t[int((NR + 1) * 0.5)], t[int(NR * 0.95)] }'
+}
+
+report() {
+  local label=$1 result
+  result=$(measure "$2")
+  read -r bytes p50 p95 <<<"$result"
+  printf '%-8s %8d bytes  p50 %6s ms  p95 %6s ms\n' "$label" "$bytes" "$p50" "$p95"
+}
+
+report full "$base_url/books?size=$size"
+report minimal "$base_url/books?size=$size&fields=$minimal_fields"
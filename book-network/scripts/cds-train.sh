@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Unpacks the executable jar into a plain class path layout and records a class data sharing (CDS)
+# archive from a training run that stops right after the application context has refreshed.
+#
+# usage: scripts/cds-train.sh <executable jar> <output directory>
+#
+# The training run does not connect to the database. Start the result with:
+#   java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar application.jar
+set -euo pipefail
+
+jar_file=$(realpath "$1")
+out=$2
+
+rm -rf "$out"
+mkdir -p "$out/unpacked" "$out/lib"
+cd "$out"
+(cd unpacked && jar --extract --file "$jar_file")
+
+# CDS only archives classes loaded from jars, so the application classes are repackaged and the
+# dependencies are referenced from the manifest in the order of the original class path index.
+class_path=""
+while read -r entry; do
+  lib=$(basename "$entry")
+  mv "unpacked/BOOT-INF/lib/$lib" lib/
+  class_path="$class_path lib/$lib"
+done < <(sed -n 's/^- "\(.*\)"$/\1/p' unpacked/BOOT-INF/classpath.idx)
+
+main_class=$(sed -n 's/^Start-Class: \(.*\)\r$/\1/p' unpacked/META-INF/MANIFEST.MF)
+{
+  echo "Main-Class: $main_class"
+  echo "Class-Path:$class_path" | fold -w 70 | sed '2,$s/^/ /'
+} > manifest.txt
+jar --create --file application.jar --manifest manifest.txt -C unpacked/BOOT-INF/classes .
+rm -rf unpacked manifest.txt
+
+java -XX:ArchiveClassesAtExit=application.jsa \
+  -Dspring.aot.enabled=true \
+  -Dspring.context.exit=onRefresh \
+  -jar application.jar \
+  --spring.flyway.enabled=false \
+  --spring.jpa.hibernate.ddl-auto=none \
+  --spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false
@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+# Recomputes every user's dashboard counters (user_stats) from the books, borrow history and
+# feedback, then exits. Uses the same configuration as the application; run it while writes are
+# quiet, since changes committed during the rebuild may be counted twice.
+#
+# usage: scripts/rebuild-user-stats.sh [extra application arguments...]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+jar=$(ls target/book-network-*.jar | grep -v '\.original$' | head -1)
+
+exec java -jar "$jar" --server.port=0 --rebuild-user-stats "$@"
@@ -0,0 +1,68 @@
+package com.ayed.booknetwork.admission;
+
+import static com.ayed.booknetwork.handler.BusinessErrorCodes.OVERLOADED;
+
+import com.ayed.booknetwork.handler.ExceptionResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects browse requests with 503 when the {@link AdmissionController} sheds them. Runs first in
+ * the security chain, so a shed request costs no token check or user lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+  private final AdmissionController admissionController;
+  private final AdmissionProperties properties;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+    if (!properties.enabled()) {
+      return true;
+    }
+    String method = request.getMethod();
+    if (!"GET".equals(method) && !"HEAD".equals(method)) {
+      return true;
+    }
+    String path = request.getServletPath();
+    return properties.browsePathPrefixes().stream().noneMatch(path::startsWith);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NotNull HttpServletRequest request,
+      @NotNull HttpServletResponse response,
+      @NotNull FilterChain filterChain)
+      throws ServletException, IOException {
+    if (admissionController.tryAdmit() != AdmissionController.Decision.ADMITTED) {
+      response.setStatus(OVERLOADED.getHttpStatus().value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      objectMapper.writeValue(
+          response.getOutputStream(),
+          ExceptionResponse.builder()
+              .businessErrorCode(OVERLOADED.getCode())
+              .businessErrorDescription(OVERLOADED.getDescription())
+              .build());
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      admissionController.complete(System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package com.ayed.booknetwork.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides whether a browse request may run. Browse requests are shed outright while threads queue
+ * for a database connection, and otherwise held to an {@link AimdLimit} that shrinks when
+ * connection waits or browse latency exceed their targets. Auth and write requests never go through
+ * here, so the connections browse traffic no longer takes stay available to them.
+ *
+ * <p>Pool signals come from the HikariCP meters, summed over all pools. Sheds are counted in {@code
+ * admission.shed}, tagged with the reason.
+ */
+@Service
+public class AdmissionController {
+  private static final Logger logger = LoggerFactory.getLogger(AdmissionController.class);
+
+  public enum Decision {
+    ADMITTED,
+    SHED_SATURATED,
+    SHED_LIMIT
+  }
+
+  private final AdmissionProperties properties;
+  private final MeterRegistry meterRegistry;
+  private final AimdLimit limit;
+  private final Counter shedSaturated;
+  private final Counter shedLimit;
+  private final LongAdder latencyNanos = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+
+  private volatile boolean saturated;
+  private double lastAcquireMillis;
+  private long lastAcquireCount;
+
+  public AdmissionController(AdmissionProperties properties, MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.meterRegistry = meterRegistry;
+    this.limit =
+        new AimdLimit(
+            properties.initialLimit(),
+            properties.minLimit(),
+            properties.maxLimit(),
+            properties.backoffRatio());
+    this.shedSaturated = shedCounter("saturated");
+    this.shedLimit = shedCounter("limit");
+    Gauge.builder("admission.limit", limit, AimdLimit::getLimit)
+        .description("Concurrent browse requests currently allowed")
+        .register(meterRegistry);
+    Gauge.builder("admission.in-flight", limit, AimdLimit::getInFlight)
+        .description("Browse requests currently running")
+        .register(meterRegistry);
+  }
+
+  public Decision tryAdmit() {
+    if (saturated) {
+      shedSaturated.increment();
+      return Decision.SHED_SATURATED;
+    }
+    if (!limit.tryAcquire()) {
+      shedLimit.increment();
+      return Decision.SHED_LIMIT;
+    }
+    return Decision.ADMITTED;
+  }
+
+  /** Must follow every {@link Decision#ADMITTED}. */
+  public void complete(long elapsedNanos) {
+    limit.release();
+    latencyNanos.add(elapsedNanos);
+    completed.increment();
+  }
+
+  @Scheduled(fixedDelayString = "${application.admission.window-millis:250}")
+  public void evaluate() {
+    double pending = sumGauges("hikaricp.connections.pending");
+    double acquireMillis = 0;
+    long acquireCount = 0;
+    for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+      acquireMillis += timer.totalTime(TimeUnit.MILLISECONDS);
+      acquireCount += timer.count();
+    }
+    long acquires = acquireCount - lastAcquireCount;
+    double acquireWaitMillis = acquires > 0 ? (acquireMillis - lastAcquireMillis) / acquires : 0;
+    lastAcquireMillis = acquireMillis;
+    lastAcquireCount = acquireCount;
+    long requests = completed.sumThenReset();
+    long latencyMillis =
+        requests > 0 ? TimeUnit.NANOSECONDS.toMillis(latencyNanos.sumThenReset() / requests) : 0;
+
+    boolean nowSaturated = pending > properties.maxPendingConnections();
+    boolean overloaded =
+        nowSaturated
+            || acquireWaitMillis > properties.maxAcquireWaitMillis()
+            || latencyMillis > properties.targetLatencyMillis();
+    limit.adjust(overloaded);
+    if (nowSaturated != saturated) {
+      logger.warn(
+          nowSaturated
+              ? "Connection pool saturated ({} threads waiting), shedding browse requests"
+              : "Connection pool recovered ({} threads waiting), admitting browse requests",
+          (long) pending);
+    }
+    saturated = nowSaturated;
+  }
+
+  private double sumGauges(String name) {
+    return meterRegistry.find(name).gauges().stream().mapToDouble(Gauge::value).sum();
+  }
+
+  private Counter shedCounter(String reason) {
+    return Counter.builder("admission.shed")
+        .description("Browse requests rejected with 503")
+        .tag("reason", reason)
+        .register(meterRegistry);
+  }
+}
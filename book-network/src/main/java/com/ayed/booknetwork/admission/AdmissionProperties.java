@@ -0,0 +1,24 @@
+package com.ayed.booknetwork.admission;
+
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Admission control of low-priority ({@code GET} requests under {@code browsePathPrefixes})
+ * traffic. Every {@code windowMillis} the connection pools and the browse latency are checked
+ * against the thresholds: an overloaded window cuts the browse concurrency limit by {@code
+ * backoffRatio}, a healthy one that used the whole limit raises it by one.
+ */
+@ConfigurationProperties(prefix = "application.admission")
+public record AdmissionProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("/books") List<String> browsePathPrefixes,
+    @DefaultValue("250") long windowMillis,
+    @DefaultValue("20") int initialLimit,
+    @DefaultValue("2") int minLimit,
+    @DefaultValue("200") int maxLimit,
+    @DefaultValue("0.75") double backoffRatio,
+    @DefaultValue("300") long targetLatencyMillis,
+    @DefaultValue("50") long maxAcquireWaitMillis,
+    @DefaultValue("5") int maxPendingConnections) {}
@@ -0,0 +1,58 @@
+package com.ayed.booknetwork.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit with additive increase and multiplicative decrease. It only grows after a
+ * window in which demand reached it, so an idle node does not drift to the maximum.
+ */
+class AimdLimit {
+  private final int minLimit;
+  private final int maxLimit;
+  private final double backoffRatio;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private volatile int limit;
+
+  AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        peakInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    inFlight.decrementAndGet();
+  }
+
+  /** Ends a window, backing off if it was overloaded. */
+  void adjust(boolean overloaded) {
+    int peak = peakInFlight.getAndSet(inFlight.get());
+    if (overloaded) {
+      limit = Math.max(minLimit, (int) (limit * backoffRatio));
+    } else if (peak >= limit) {
+      limit = Math.min(maxLimit, limit + 1);
+    }
+  }
+
+  int getLimit() {
+    return limit;
+  }
+
+  int getInFlight() {
+    return inFlight.get();
+  }
+}
@@ -8,8 +8,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -66,4 +68,35 @@ public class AuthenticationController {
   public void confirm(@RequestParam String token) throws MessagingException {
     authenticationService.activateAccount(token);
   }
+
+  /**
+   * Revokes the token used for this request.
+   *
+   * @param authorization the Authorization header carrying the bearer token
+   * @return ResponseEntity with HTTP status 204 (No Content)
+   */
+  @Operation(summary = "Log out", description = "Revokes the token used for this request.")
+  @ApiResponse(responseCode = "204", description = "Token revoked")
+  @PostMapping("/logout")
+  public ResponseEntity<Void> logout(
+      @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+    authenticationService.logout(authorization.substring(7));
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Revokes every token issued to the connected user so far, on all devices.
+   *
+   * @param connectedUser the authenticated user
+   * @return ResponseEntity with HTTP status 204 (No Content)
+   */
+  @Operation(
+      summary = "Log out everywhere",
+      description = "Revokes every token issued to the connected user so far.")
+  @ApiResponse(responseCode = "204", description = "Tokens revoked")
+  @PostMapping("/logout-all")
+  public ResponseEntity<Void> logoutEverywhere(Authentication connectedUser) {
+    authenticationService.logoutEverywhere(connectedUser);
+    return ResponseEntity.noContent().build();
+  }
 }
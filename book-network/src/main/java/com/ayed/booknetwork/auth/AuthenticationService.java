@@ -4,6 +4,7 @@ import com.ayed.booknetwork.email.EmailService;
 import com.ayed.booknetwork.email.EmailTemplateName;
 import com.ayed.booknetwork.role.RoleRepository;
 import com.ayed.booknetwork.security.JwtService;
+import com.ayed.booknetwork.security.TokenRevocationService;
 import com.ayed.booknetwork.user.Token;
 import com.ayed.booknetwork.user.TokenRepository;
 import com.ayed.booknetwork.user.User;
@@ -11,13 +12,16 @@ import com.ayed.booknetwork.user.UserRepository;
 import jakarta.mail.MessagingException;
 import jakarta.transaction.Transactional;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -29,9 +33,11 @@ public class AuthenticationService {
   private final PasswordEncoder passwordEncoder;
   private final UserRepository userRepository;
   private final TokenRepository tokenRepository;
-  private final EmailService emailService;
+  // Mail and templating are only needed on registration, so they are not created at startup.
+  private final ObjectProvider<EmailService> emailService;
   private final AuthenticationManager authenticationManager;
   private final JwtService jwtService;
+  private final TokenRevocationService tokenRevocationService;
 
   @Value("${application.mailing.frontend.activation-url}")
   private String activationUrl;
@@ -60,7 +66,7 @@ public class AuthenticationService {
   private void sendValidationEmail(User user) throws MessagingException {
     var newToken = generateAndSaveActivationToken(user);
     String EMAIL_SUBJECT = "account activation";
-    emailService.sendEmail(
+    emailService.getObject().sendEmail(
         user.getEmail(),
         user.getUsername(),
         EmailTemplateName.ACTIVATE_ACCOUNT,
@@ -105,6 +111,14 @@ public class AuthenticationService {
     return AuthenticationResponse.builder().token(jwtToken).build();
   }
 
+  public void logout(String jwt) {
+    tokenRevocationService.revokeToken(jwtService.extractAllClaims(jwt));
+  }
+
+  public void logoutEverywhere(Authentication connectedUser) {
+    tokenRevocationService.revokeAllBefore(connectedUser.getName(), Instant.now());
+  }
+
   // @Transactional
   public void activateAccount(String token) throws MessagingException {
     Token savedToken =
@@ -0,0 +1,45 @@
+package com.ayed.booknetwork.autocomplete;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("books")
+@RequiredArgsConstructor
+@Tag(name = "Book")
+public class AutocompleteController {
+
+  private final AutocompleteService autocompleteService;
+
+  /**
+   * Suggest titles and authors of shareable books starting with the given text.
+   *
+   * @param query The text typed so far; case, accents and punctuation are ignored.
+   * @param limit The maximum number of titles and of authors to return.
+   * @return ResponseEntity with HTTP status 200 (OK) and the suggestions, best rated first.
+   */
+  @Operation(summary = "Suggest book titles and authors")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Suggestions found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = AutocompleteResponse.class))
+      })
+  @GetMapping("autocomplete")
+  public ResponseEntity<AutocompleteResponse> suggest(
+      @RequestParam(name = "q") String query,
+      @RequestParam(name = "limit", defaultValue = "10", required = false) int limit) {
+    return ResponseEntity.ok(autocompleteService.suggest(query, limit));
+  }
+}
@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.autocomplete;
+
+import java.util.List;
+
+/** Suggestions for a prefix, best first. */
+public record AutocompleteResponse(
+    List<AutocompleteSuggestion> titles, List<AutocompleteSuggestion> authors) {}
@@ -0,0 +1,287 @@
+package com.ayed.booknetwork.autocomplete;
+
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.cache.InvalidationBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Suggests titles and authors of displayable books (shareable and not archived) starting with what
+ * the user typed, best rated first and then most borrowed.
+ *
+ * <p>Both indexes are rebuilt in the background at startup, periodically and once too many changes
+ * piled up on top of them. In between, book changes arrive through the {@link InvalidationBus} from
+ * every node and are applied in batches, so a new, archived or unshared book shows up in the
+ * suggestions within about a second.
+ */
+@Service
+@RequiredArgsConstructor
+public class AutocompleteService {
+  private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+  private static final String DISPLAYABLE_BOOKS =
+      """
+      SELECT b.id, b.title, b.author_name, b.average_rating, coalesce(s.borrow_count, 0)
+      FROM book b LEFT JOIN book_stats s ON s.book_id = b.id
+      WHERE NOT b.archived AND b.shareable
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final InvalidationBus invalidationBus;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.autocomplete.max-results:20}")
+  private int maxResults;
+
+  @Value("${application.autocomplete.scan-limit:1024}")
+  private int scanLimit;
+
+  @Value("${application.autocomplete.max-pending-changes:50000}")
+  private int maxPendingChanges;
+
+  @Value("${application.autocomplete.fetch-size:5000}")
+  private int fetchSize;
+
+  private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean requested = new AtomicBoolean();
+  private final AtomicBoolean rebuilding = new AtomicBoolean();
+  private volatile boolean started;
+  private SuggestionIndex titles;
+  private SuggestionIndex authors;
+  private TransactionTemplate readOnlyTransaction;
+  private ExecutorService rebuilder;
+
+  @PostConstruct
+  void init() {
+    titles = new SuggestionIndex(false, scanLimit, maxResults);
+    authors = new SuggestionIndex(true, scanLimit, maxResults);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    // Rebuilds take seconds on a large catalog, too long for the shared scheduler thread.
+    rebuilder =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "autocomplete-rebuild");
+              thread.setDaemon(true);
+              return thread;
+            });
+    invalidationBus.addListener(EntityChangedEvent.BOOK, this::onBookChanged);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    rebuilder.shutdownNow();
+  }
+
+  /** Returns up to {@code limit} titles and authors starting with the words of {@code query}. */
+  public AutocompleteResponse suggest(String query, int limit) {
+    String prefix = normalize(query);
+    if (prefix.isEmpty()) {
+      return new AutocompleteResponse(List.of(), List.of());
+    }
+    int size = Math.max(1, Math.min(limit, maxResults));
+    return new AutocompleteResponse(
+        titles.lookup(prefix, size).stream()
+            .map(s -> new AutocompleteSuggestion(s.text(), s.bookId()))
+            .toList(),
+        authors.lookup(prefix, size).stream()
+            .map(s -> new AutocompleteSuggestion(s.text(), null))
+            .toList());
+  }
+
+  // The invalidation listener asks for a rebuild when it first connects, usually before this.
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuildAtStartup() {
+    if (!requested.get() && !started) {
+      requestRebuild();
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${application.autocomplete.rebuild-interval-millis:3600000}",
+      initialDelayString = "${application.autocomplete.rebuild-interval-millis:3600000}")
+  public void requestRebuild() {
+    requested.set(true);
+    if (rebuilding.compareAndSet(false, true)) {
+      rebuilder.execute(this::rebuildWhileRequested);
+    }
+  }
+
+  /** Applies the book changes received since the last refresh. */
+  @Scheduled(fixedDelayString = "${application.autocomplete.refresh-millis:1000}")
+  public void refresh() {
+    if (changed.isEmpty()) {
+      return;
+    }
+    List<Long> ids = new ArrayList<>(changed);
+    changed.removeAll(ids);
+    Set<Long> displayable = new HashSet<>();
+    // Outside a read-only transaction, so on the primary: a lagging replica may miss the change.
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              Array idArray = connection.createArrayOf("bigint", ids.toArray());
+              try (PreparedStatement statement =
+                  connection.prepareStatement(DISPLAYABLE_BOOKS + " AND b.id = ANY (?)")) {
+                statement.setArray(1, idArray);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                  while (resultSet.next()) {
+                    displayable.add(resultSet.getLong(1));
+                    put(resultSet);
+                  }
+                }
+              }
+              return null;
+            });
+    for (Long id : ids) {
+      if (!displayable.contains(id)) {
+        titles.remove(id);
+        authors.remove(id);
+      }
+    }
+    if (titles.overlaySize() > maxPendingChanges) {
+      requestRebuild();
+    }
+  }
+
+  private void onBookChanged(String key) {
+    if (EntityChangedEvent.ALL.equals(key)) {
+      requestRebuild();
+      return;
+    }
+    try {
+      changed.add(Long.valueOf(key));
+    } catch (NumberFormatException e) {
+      logger.debug("Ignoring book invalidation with key {}", key);
+    }
+  }
+
+  // Requests arriving during a rebuild may concern rows it already read, so they get another one.
+  private void rebuildWhileRequested() {
+    do {
+      while (requested.getAndSet(false)) {
+        rebuild();
+      }
+      rebuilding.set(false);
+    } while (requested.get() && rebuilding.compareAndSet(false, true));
+  }
+
+  private void rebuild() {
+    started = true;
+    try {
+      long started = System.currentTimeMillis();
+      long titlesMark = titles.mark();
+      long authorsMark = authors.mark();
+      SuggestionIndex.Builder titleEntries = titles.new Builder();
+      SuggestionIndex.Builder authorEntries = authors.new Builder();
+      // A read-only transaction, so the rows are streamed with a cursor from a replica.
+      readOnlyTransaction.executeWithoutResult(
+          status ->
+              jdbcTemplate.query(
+                  connection -> {
+                    PreparedStatement statement = connection.prepareStatement(DISPLAYABLE_BOOKS);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                  },
+                  (RowCallbackHandler) resultSet -> add(resultSet, titleEntries, authorEntries)));
+      titles.replace(titleEntries, titlesMark);
+      authors.replace(authorEntries, authorsMark);
+      logger.info(
+          "Rebuilt the autocomplete indexes in {} ms: {} titles, {} authors, about {} KB",
+          System.currentTimeMillis() - started,
+          titles.size(),
+          authors.size(),
+          (titles.estimatedBytes() + authors.estimatedBytes()) / 1024);
+    } catch (RuntimeException e) {
+      logger.warn("Could not rebuild the autocomplete indexes: {}", e.getMessage());
+    }
+  }
+
+  private void add(
+      ResultSet resultSet,
+      SuggestionIndex.Builder titleEntries,
+      SuggestionIndex.Builder authorEntries)
+      throws SQLException {
+    long id = resultSet.getLong(1);
+    double score = score(resultSet);
+    String title = resultSet.getString(2);
+    String authorName = resultSet.getString(3);
+    String titleTerm = normalize(title);
+    if (!titleTerm.isEmpty()) {
+      titleEntries.add(id, titleTerm, title, score);
+    }
+    String authorTerm = normalize(authorName);
+    if (!authorTerm.isEmpty()) {
+      authorEntries.add(id, authorTerm, authorName, score);
+    }
+  }
+
+  private void put(ResultSet resultSet) throws SQLException {
+    long id = resultSet.getLong(1);
+    double score = score(resultSet);
+    String title = resultSet.getString(2);
+    String authorName = resultSet.getString(3);
+    String titleTerm = normalize(title);
+    if (titleTerm.isEmpty()) {
+      titles.remove(id);
+    } else {
+      titles.put(id, titleTerm, title, score);
+    }
+    String authorTerm = normalize(authorName);
+    if (authorTerm.isEmpty()) {
+      authors.remove(id);
+    } else {
+      authors.put(id, authorTerm, authorName, score);
+    }
+  }
+
+  // Orders by the pair (rating to six decimals, borrows up to 999,999): the rating is scaled to a
+  // whole number of millionths and shifted above the borrows, and both parts stay exact in a double
+  // (5 * 10^12 < 2^53), so borrows only ever break ties between equal ratings.
+  private static double score(ResultSet resultSet) throws SQLException {
+    long ratingMillionths = Math.round(resultSet.getDouble(4) * 1_000_000);
+    return ratingMillionths * 1_000_000.0 + Math.min(resultSet.getLong(5), 999_999);
+  }
+
+  /**
+   * Lower case without accents, with every run of other characters than letters and digits turned
+   * into a single space.
+   */
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String decomposed =
+        MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").strip();
+  }
+}
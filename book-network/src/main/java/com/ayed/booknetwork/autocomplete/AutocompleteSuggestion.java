@@ -0,0 +1,4 @@
+package com.ayed.booknetwork.autocomplete;
+
+/** A suggested title or author; {@code bookId} is only set for titles. */
+public record AutocompleteSuggestion(String text, Long bookId) {}
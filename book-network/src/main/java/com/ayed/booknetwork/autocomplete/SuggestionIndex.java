@@ -0,0 +1,379 @@
+package com.ayed.booknetwork.autocomplete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prefix index of normalized terms, each pointing to a book and carrying a display text and a
+ * score. Lookups return the best scored entries whose term starts with a prefix.
+ *
+ * <p>The bulk of the entries lives in an immutable snapshot: all terms concatenated in one sorted
+ * string plus parallel arrays, so an entry costs its characters and a few dozen bytes. A prefix
+ * maps to a contiguous range found by binary search. Small ranges are scanned; every prefix with a
+ * larger range (the upper levels of the equivalent trie) gets its best entries precomputed.
+ *
+ * <p>Changes since the snapshot was built sit in a small overlay: entries added or updated, and the
+ * ids whose snapshot entry no longer counts. A rebuild folds the overlay into a new snapshot.
+ */
+class SuggestionIndex {
+  private static final Comparator<Suggestion> BY_SCORE =
+      Comparator.comparingDouble(Suggestion::score).reversed();
+
+  private final boolean distinctTerms;
+  private final int scanLimit;
+  private final int precomputedSize;
+  private final AtomicLong sequence = new AtomicLong();
+  private final ConcurrentSkipListMap<String, Entry> overlay = new ConcurrentSkipListMap<>();
+  private final Map<Long, Entry> overlayById = new ConcurrentHashMap<>();
+  private final Map<Long, Long> removed = new ConcurrentHashMap<>();
+  private volatile Snapshot snapshot;
+
+  /**
+   * @param distinctTerms whether results are distinct by term, as for authors with several books
+   * @param scanLimit the largest range scanned at lookup time
+   * @param maxResults the most results a lookup may ask for
+   */
+  SuggestionIndex(boolean distinctTerms, int scanLimit, int maxResults) {
+    this.distinctTerms = distinctTerms;
+    this.scanLimit = scanLimit;
+    // Twice the results, so entries removed since the snapshot rarely leave a list short.
+    this.precomputedSize = 2 * maxResults;
+    this.snapshot = new Builder().build();
+  }
+
+  /** A result; {@code bookId} is the book the term came from. */
+  record Suggestion(String term, String text, long bookId, double score) {}
+
+  private record Entry(String term, String text, long id, double score, long sequence) {
+    String key() {
+      return term + '\0' + id;
+    }
+  }
+
+  List<Suggestion> lookup(String prefix, int limit) {
+    Snapshot current = snapshot;
+    List<Suggestion> candidates = new ArrayList<>();
+    int from = current.lowerBound(prefix);
+    int to = current.upperBound(prefix, from);
+    if (to - from <= scanLimit) {
+      for (int i : current.select(from, to, limit, removed.keySet())) {
+        candidates.add(current.suggestion(i));
+      }
+    } else {
+      for (int i : current.top.getOrDefault(prefix, new int[0])) {
+        int kept = current.kept(i, removed.keySet());
+        if (kept >= 0) {
+          candidates.add(current.suggestion(kept));
+        }
+      }
+    }
+    for (Entry entry : overlay.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+      candidates.add(new Suggestion(entry.term, entry.text, entry.id, entry.score));
+    }
+    candidates.sort(BY_SCORE);
+    List<Suggestion> results = new ArrayList<>(limit);
+    Set<String> terms = new HashSet<>();
+    for (Suggestion candidate : candidates) {
+      if (results.size() == limit) {
+        break;
+      }
+      if (!distinctTerms || terms.add(candidate.term())) {
+        results.add(candidate);
+      }
+    }
+    return results;
+  }
+
+  /** Adds or replaces the entry of the book. */
+  synchronized void put(long id, String term, String text, double score) {
+    long seq = sequence.incrementAndGet();
+    removeFromOverlay(id);
+    removed.put(id, seq);
+    Entry entry = new Entry(term, text, id, score, seq);
+    overlay.put(entry.key(), entry);
+    overlayById.put(id, entry);
+  }
+
+  synchronized void remove(long id) {
+    removeFromOverlay(id);
+    removed.put(id, sequence.incrementAndGet());
+  }
+
+  int overlaySize() {
+    return overlay.size() + removed.size();
+  }
+
+  /** Marks the start of a rebuild: changes up to here are in the data it is about to read. */
+  long mark() {
+    return sequence.get();
+  }
+
+  /** Swaps in a rebuilt snapshot and drops the overlay changes it already contains. */
+  synchronized void replace(Builder builder, long mark) {
+    snapshot = builder.build();
+    overlayById.values().removeIf(entry -> entry.sequence <= mark);
+    overlay.values().removeIf(entry -> entry.sequence <= mark);
+    removed.values().removeIf(seq -> seq <= mark);
+  }
+
+  long estimatedBytes() {
+    return snapshot.estimatedBytes();
+  }
+
+  int size() {
+    return snapshot.ids.length;
+  }
+
+  private void removeFromOverlay(long id) {
+    Entry previous = overlayById.remove(id);
+    if (previous != null) {
+      overlay.remove(previous.key());
+    }
+  }
+
+  /** Collects the entries of a snapshot; not thread-safe. */
+  final class Builder {
+    private final StringBuilder terms = new StringBuilder();
+    private final StringBuilder texts = new StringBuilder();
+    private int[] termEnds = new int[1024];
+    private int[] textEnds = new int[1024];
+    private long[] ids = new long[1024];
+    private double[] scores = new double[1024];
+    private int size;
+
+    void add(long id, String term, String text, double score) {
+      if (size == ids.length) {
+        int capacity = size * 2;
+        termEnds = Arrays.copyOf(termEnds, capacity);
+        textEnds = Arrays.copyOf(textEnds, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+      }
+      terms.append(term);
+      texts.append(text);
+      termEnds[size] = terms.length();
+      textEnds[size] = texts.length();
+      ids[size] = id;
+      scores[size] = score;
+      size++;
+    }
+
+    private Snapshot build() {
+      String allTerms = terms.toString();
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(
+          order,
+          (a, b) -> {
+            int byTerm =
+                compare(allTerms, start(termEnds, a), termEnds[a], start(termEnds, b), termEnds[b]);
+            return byTerm != 0 ? byTerm : Double.compare(scores[b], scores[a]);
+          });
+      StringBuilder sortedTerms = new StringBuilder(allTerms.length());
+      StringBuilder sortedTexts = new StringBuilder(texts.length());
+      int[] termStarts = new int[size + 1];
+      int[] textStarts = new int[size + 1];
+      long[] sortedIds = new long[size];
+      double[] sortedScores = new double[size];
+      for (int i = 0; i < size; i++) {
+        int source = order[i];
+        sortedTerms.append(allTerms, start(termEnds, source), termEnds[source]);
+        sortedTexts.append(texts, start(textEnds, source), textEnds[source]);
+        termStarts[i + 1] = sortedTerms.length();
+        textStarts[i + 1] = sortedTexts.length();
+        sortedIds[i] = ids[source];
+        sortedScores[i] = scores[source];
+      }
+      Snapshot built =
+          new Snapshot(
+              sortedTerms.toString(),
+              termStarts,
+              sortedTexts.toString(),
+              textStarts,
+              sortedIds,
+              sortedScores);
+      built.precompute(0, size, 0);
+      return built;
+    }
+
+    private static int start(int[] ends, int i) {
+      return i == 0 ? 0 : ends[i - 1];
+    }
+  }
+
+  private final class Snapshot {
+    private final String terms;
+    private final int[] termStarts;
+    private final String texts;
+    private final int[] textStarts;
+    private final long[] ids;
+    private final double[] scores;
+    private final Map<String, int[]> top = new HashMap<>();
+
+    Snapshot(
+        String terms,
+        int[] termStarts,
+        String texts,
+        int[] textStarts,
+        long[] ids,
+        double[] scores) {
+      this.terms = terms;
+      this.termStarts = termStarts;
+      this.texts = texts;
+      this.textStarts = textStarts;
+      this.ids = ids;
+      this.scores = scores;
+    }
+
+    Suggestion suggestion(int i) {
+      return new Suggestion(
+          term(i), texts.substring(textStarts[i], textStarts[i + 1]), ids[i], scores[i]);
+    }
+
+    /** The first entry whose term is not before {@code prefix}. */
+    int lowerBound(String prefix) {
+      int low = 0;
+      int high = ids.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        int length = Math.min(termLength(middle), prefix.length());
+        int byChars = compare(terms, termStarts[middle], termStarts[middle] + length, prefix);
+        boolean before = byChars < 0 || (byChars == 0 && termLength(middle) < prefix.length());
+        if (before) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /** The first entry from {@code from} whose term does not start with {@code prefix}. */
+    int upperBound(String prefix, int from) {
+      int low = from;
+      int high = ids.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (termLength(middle) >= prefix.length() && terms.startsWith(prefix, termStarts[middle])) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /** The best {@code limit} entries of the range, skipping removed ids and repeated terms. */
+    int[] select(int from, int to, int limit, Set<Long> skipped) {
+      PriorityQueue<Integer> best =
+          new PriorityQueue<>(limit + 1, Comparator.comparingDouble(i -> scores[i]));
+      int previous = -1;
+      for (int i = from; i < to; i++) {
+        if (skipped.contains(ids[i])) {
+          continue;
+        }
+        // Equal terms are adjacent and sorted by score, so the first one is the best.
+        if (distinctTerms && previous >= 0 && sameTerm(previous, i)) {
+          continue;
+        }
+        previous = i;
+        best.add(i);
+        if (best.size() > limit) {
+          best.poll();
+        }
+      }
+      return best.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * The entry, or -1 if its id is skipped. With distinct terms a precomputed list only holds the
+     * best entry of each term, so the next best one of the term that is not skipped stands in.
+     */
+    int kept(int i, Set<Long> skipped) {
+      for (int j = i; j < ids.length && (j == i || (distinctTerms && sameTerm(i, j))); j++) {
+        if (!skipped.contains(ids[j])) {
+          return j;
+        }
+      }
+      return -1;
+    }
+
+    /** Precomputes the best entries of every prefix of the range with too many to scan. */
+    void precompute(int from, int to, int depth) {
+      if (to - from <= scanLimit) {
+        return;
+      }
+      if (depth > 0) {
+        top.put(
+            terms.substring(termStarts[from], termStarts[from] + depth),
+            select(from, to, precomputedSize, Set.of()));
+      }
+      int i = from;
+      while (i < to && termLength(i) == depth) {
+        i++;
+      }
+      while (i < to) {
+        char c = terms.charAt(termStarts[i] + depth);
+        int j = i + 1;
+        while (j < to && terms.charAt(termStarts[j] + depth) == c) {
+          j++;
+        }
+        precompute(i, j, depth + 1);
+        i = j;
+      }
+    }
+
+    long estimatedBytes() {
+      long characters = 2L * (terms.length() + texts.length());
+      long arrays = ids.length * (4L + 4L + 8L + 8L);
+      long precomputed = top.values().stream().mapToLong(list -> 48L + 4L * list.length).sum();
+      return characters + arrays + precomputed;
+    }
+
+    private String term(int i) {
+      return terms.substring(termStarts[i], termStarts[i + 1]);
+    }
+
+    private int termLength(int i) {
+      return termStarts[i + 1] - termStarts[i];
+    }
+
+    private boolean sameTerm(int a, int b) {
+      return termLength(a) == termLength(b)
+          && terms.regionMatches(termStarts[a], terms, termStarts[b], termLength(a));
+    }
+  }
+
+  private static int compare(CharSequence s, int aStart, int aEnd, int bStart, int bEnd) {
+    int length = Math.min(aEnd - aStart, bEnd - bStart);
+    for (int k = 0; k < length; k++) {
+      int byChar = Character.compare(s.charAt(aStart + k), s.charAt(bStart + k));
+      if (byChar != 0) {
+        return byChar;
+      }
+    }
+    return Integer.compare(aEnd - aStart, bEnd - bStart);
+  }
+
+  private static int compare(String s, int start, int end, String other) {
+    for (int k = 0; k < end - start; k++) {
+      int byChar = Character.compare(s.charAt(start + k), other.charAt(k));
+      if (byChar != 0) {
+        return byChar;
+      }
+    }
+    return 0;
+  }
+}
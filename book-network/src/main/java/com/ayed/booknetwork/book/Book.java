@@ -1,9 +1,12 @@
 package com.ayed.booknetwork.book;
 
+import com.ayed.booknetwork.cache.CacheInvalidationListener;
 import com.ayed.booknetwork.common.BaseEntity;
 import com.ayed.booknetwork.feedback.Feedback;
 import com.ayed.booknetwork.history.BookTransactionHistory;
+import com.ayed.booknetwork.leaderboard.BookActivityListener;
 import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserStatsListener;
 import jakarta.persistence.*;
 import java.util.List;
 import lombok.*;
@@ -15,15 +18,54 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@EntityListeners({
+  BookActivityListener.class,
+  CacheInvalidationListener.class,
+  UserStatsListener.class
+})
+@Table(
+    // One index per supported catalog sort/filter combination, see BookSortField. They give the
+    // page query its filter and order; they are not covering, matching rows are read from the
+    // table.
+    indexes = {
+      @Index(
+          name = "idx_book_catalog_created",
+          columnList = "archived, shareable, created_date, id"),
+      @Index(name = "idx_book_catalog_title", columnList = "archived, shareable, title, id"),
+      @Index(
+          name = "idx_book_catalog_author_title",
+          columnList = "archived, shareable, author_name, title, id"),
+      @Index(
+          name = "idx_book_catalog_rating",
+          columnList = "archived, shareable, average_rating, id"),
+      @Index(
+          name = "idx_book_catalog_author_rating",
+          columnList = "archived, shareable, author_name, average_rating, id"),
+      @Index(name = "idx_book_catalog_isbn", columnList = "archived, shareable, isbn, id"),
+      @Index(name = "uk_book_owner_isbn", columnList = "owner_id, isbn", unique = true)
+    })
 public class Book extends BaseEntity {
   private String title;
   private String authorName;
+
+  /** Canonical ISBN-13, see {@link Isbn}; unique per owner. */
   private String isbn;
+
   private String synopsis;
   private String bookCover;
   private boolean archived;
   private boolean shareable;
 
+  // Archived flag as last loaded or flushed, so UserStatsListener can tell a change apart.
+  @Transient private boolean loadedArchived;
+
+  /** Denormalized from {@code book_stats} so the catalog can sort by rating on an index. */
+  @Column(
+      insertable = false,
+      updatable = false,
+      columnDefinition = "double precision not null default 0")
+  private double averageRating;
+
   @ManyToOne
   @JoinColumn(name = "owner_id")
   private User owner;
@@ -34,13 +76,14 @@ public class Book extends BaseEntity {
   @OneToMany(mappedBy = "book")
   private List<BookTransactionHistory> histories;
 
+  /** Read from {@link #averageRating} so responses never have to load the feedbacks. */
   @Transient
   public double getRate() {
-    if (feedbacks == null || feedbacks.isEmpty()) {
-      return 0.0;
-    }
+    return roundRate(averageRating);
+  }
 
-    var rate = this.feedbacks.stream().mapToDouble(Feedback::getNote).average().orElse(0.0);
-    return Math.round(rate * 10.0) / 10.0;
+  /** Rounds an average rating to the one decimal shown to users. */
+  public static double roundRate(double averageRating) {
+    return Math.round(averageRating * 10.0) / 10.0;
   }
 }
@@ -0,0 +1,17 @@
+package com.ayed.booknetwork.book;
+
+import java.util.List;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookBatchResponse {
+  /** The books found, in the order their ids were requested. */
+  private List<BookResponse> books;
+
+  /** Requested ids that match no book. */
+  private List<Long> missingIds;
+}
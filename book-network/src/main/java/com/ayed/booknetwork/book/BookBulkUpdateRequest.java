@@ -0,0 +1,11 @@
+package com.ayed.booknetwork.book;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Sets a flag on several of the user's books: those listed in {@code ids}, or all those by {@code
+ * authorName}. Exactly one of the two must be given.
+ */
+public record BookBulkUpdateRequest(
+    List<Long> ids, String authorName, @NotNull(message = "104") Boolean value) {}
@@ -0,0 +1,4 @@
+package com.ayed.booknetwork.book;
+
+/** Number of books whose flag changed; books that already had the value are not counted. */
+public record BookBulkUpdateResponse(int updatedCount) {}
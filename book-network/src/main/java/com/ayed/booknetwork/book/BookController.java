@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -35,16 +36,65 @@ public class BookController {
       content = {
         @Content(mediaType = "application/json", schema = @Schema(implementation = Long.class))
       })
+  @ApiResponse(responseCode = "400", description = "Invalid book details or ISBN")
+  @ApiResponse(responseCode = "409", description = "The user already has a book with this ISBN")
   @PostMapping
   public ResponseEntity<Long> addNewBook(
       @Valid @RequestBody BookRequest book, Authentication connectedUser) {
     return ResponseEntity.status(HttpStatus.CREATED).body(bookService.addBook(book, connectedUser));
   }
 
+  /**
+   * Archive or restore several of the user's books at once.
+   *
+   * @param request The books, by IDs or by author name, and whether they are archived.
+   * @param connectedUser The authenticated user; only their own books are changed.
+   * @return ResponseEntity with HTTP status 200 (OK) and the number of books changed.
+   */
+  @Operation(summary = "Archive or restore books in bulk")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books updated",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = BookBulkUpdateResponse.class))
+      })
+  @ApiResponse(responseCode = "400", description = "Invalid selection or too many IDs")
+  @PatchMapping("archived")
+  public ResponseEntity<BookBulkUpdateResponse> updateArchived(
+      @Valid @RequestBody BookBulkUpdateRequest request, Authentication connectedUser) {
+    return ResponseEntity.ok(bookService.updateArchived(request, connectedUser));
+  }
+
+  /**
+   * Share or unshare several of the user's books at once.
+   *
+   * @param request The books, by IDs or by author name, and whether they are shareable.
+   * @param connectedUser The authenticated user; only their own books are changed.
+   * @return ResponseEntity with HTTP status 200 (OK) and the number of books changed.
+   */
+  @Operation(summary = "Share or unshare books in bulk")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books updated",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = BookBulkUpdateResponse.class))
+      })
+  @ApiResponse(responseCode = "400", description = "Invalid selection or too many IDs")
+  @PatchMapping("shareable")
+  public ResponseEntity<BookBulkUpdateResponse> updateShareable(
+      @Valid @RequestBody BookBulkUpdateRequest request, Authentication connectedUser) {
+    return ResponseEntity.ok(bookService.updateShareable(request, connectedUser));
+  }
+
   /**
    * Retrieve a book by its ID.
    *
    * @param bookId The ID of the book to retrieve.
+   * @param fields Comma-separated response fields to return; all fields when omitted.
    * @return ResponseEntity with HTTP status 200 (OK) and the book details if found, or 404 (Not
    *     Found) if not found.
    */
@@ -59,8 +109,64 @@ public class BookController {
       })
   @ApiResponse(responseCode = "404", description = "Book not found")
   @GetMapping("{bookId}")
-  public ResponseEntity<BookResponse> findBookById(@PathVariable Long bookId) {
-    return ResponseEntity.ok(bookService.findBookById(bookId));
+  public ResponseEntity<BookResponse> findBookById(
+      @PathVariable Long bookId, @RequestParam(name = "fields", required = false) String fields) {
+    return ResponseEntity.ok(bookService.findBookById(bookId, fields));
+  }
+
+  /**
+   * Retrieve several books by ID in one call.
+   *
+   * @param ids The IDs of the books to retrieve, at most {@code application.book.batch-max-size}.
+   * @param fields Comma-separated response fields to return; all fields when omitted.
+   * @return ResponseEntity with HTTP status 200 (OK), the books found in request order and the IDs
+   *     that match no book.
+   */
+  @Operation(summary = "Find books by IDs")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = BookBatchResponse.class))
+      })
+  @ApiResponse(responseCode = "400", description = "Too many IDs requested")
+  @GetMapping(params = "ids")
+  public ResponseEntity<BookBatchResponse> findBooksByIds(
+      @RequestParam(name = "ids") List<Long> ids,
+      @RequestParam(name = "fields", required = false) String fields) {
+    return ResponseEntity.ok(bookService.findBooksByIds(ids, fields));
+  }
+
+  /**
+   * Retrieve the books with an ISBN that the user can borrow.
+   *
+   * @param isbn The ISBN-10 or ISBN-13, with or without hyphens.
+   * @param page The page number (starting from 0). Default is 0.
+   * @param size The size of each page. Default is 10.
+   * @param fields Comma-separated response fields to return; all fields when omitted.
+   * @param connectedUser The authenticated user.
+   * @return ResponseEntity with HTTP status 200 (OK) and a paginated list of books.
+   */
+  @Operation(summary = "Find books by ISBN")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = PageResponse.class))
+      })
+  @ApiResponse(responseCode = "400", description = "Invalid ISBN or unknown field")
+  @GetMapping("isbn/{isbn}")
+  public ResponseEntity<PageResponse<BookResponse>> findBooksByIsbn(
+      @PathVariable String isbn,
+      @RequestParam(name = "page", defaultValue = "0", required = false) int page,
+      @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+      @RequestParam(name = "fields", required = false) String fields,
+      Authentication connectedUser) {
+    return ResponseEntity.ok(bookService.findBooksByIsbn(isbn, page, size, fields, connectedUser));
   }
 
   /**
@@ -68,6 +174,12 @@ public class BookController {
    *
    * @param page The page number (starting from 0). Default is 0.
    * @param size The size of each page. Default is 10.
+   * @param sort The sort order: createdDate, title, author, rating or isbn. Defaults depend on the
+   *     filter in use; combinations without a supporting index are rejected.
+   * @param author Only books by this exact author name.
+   * @param isbnPrefix Only books whose ISBN starts with this prefix.
+   * @param fields Comma-separated response fields to return; all fields when omitted. Only the
+   *     columns behind the requested fields are read.
    * @param connectedUser The authenticated user.
    * @return ResponseEntity with HTTP status 200 (OK) and a paginated list of books.
    */
@@ -80,11 +192,19 @@ public class BookController {
             mediaType = "application/json",
             schema = @Schema(implementation = PageResponse.class))
       })
+  @ApiResponse(
+      responseCode = "400",
+      description = "Unsupported sort and filter combination or unknown field")
   @GetMapping
   public ResponseEntity<PageResponse<BookResponse>> findAllBooks(
       @RequestParam(name = "page", defaultValue = "0", required = false) int page,
       @RequestParam(name = "size", defaultValue = "10", required = false) int size,
+      @RequestParam(name = "sort", required = false) String sort,
+      @RequestParam(name = "author", required = false) String author,
+      @RequestParam(name = "isbnPrefix", required = false) String isbnPrefix,
+      @RequestParam(name = "fields", required = false) String fields,
       Authentication connectedUser) {
-    return ResponseEntity.ok(bookService.findAllBooks(page, size, connectedUser));
+    return ResponseEntity.ok(
+        bookService.findAllBooks(page, size, sort, author, isbnPrefix, fields, connectedUser));
   }
 }
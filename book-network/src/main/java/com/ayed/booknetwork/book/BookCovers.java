@@ -0,0 +1,67 @@
+package com.ayed.booknetwork.book;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads book covers from the uploads directory. The stored path is resolved against that directory,
+ * and a cover outside it or larger than the configured limit is left out of the response rather
+ * than read.
+ */
+@Service
+class BookCovers {
+  private static final Logger logger = LoggerFactory.getLogger(BookCovers.class);
+
+  @Value("${application.file.uploads.photos-output-path}")
+  private String photosOutputPath;
+
+  @Value("${application.file.uploads.cover-max-bytes:1048576}")
+  private long maxBytes;
+
+  private Path root;
+
+  @PostConstruct
+  void init() {
+    root = Path.of(photosOutputPath).toAbsolutePath().normalize();
+  }
+
+  /** Returns the cover stored at {@code path}, or null if there is none that can be served. */
+  byte[] read(String path) {
+    if (path == null) {
+      return null;
+    }
+    Path cover;
+    try {
+      cover = root.resolve(path).normalize();
+    } catch (InvalidPathException e) {
+      logger.warn("Ignoring invalid cover path {}", path);
+      return null;
+    }
+    if (!cover.startsWith(root)) {
+      logger.warn("Ignoring cover path {} outside {}", path, root);
+      return null;
+    }
+    try {
+      // Resolves symbolic links, so a link in the uploads directory cannot point outside it.
+      if (!Files.isRegularFile(cover) || !cover.toRealPath().startsWith(root.toRealPath())) {
+        return null;
+      }
+      long size = Files.size(cover);
+      if (size > maxBytes) {
+        logger.warn("Ignoring cover {} of {} bytes, over the limit of {}", path, size, maxBytes);
+        return null;
+      }
+      return Files.readAllBytes(cover);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.ayed.booknetwork.book;
+
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
+import com.ayed.booknetwork.user.User;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Selection;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fields of {@link BookResponse} that can be requested with {@code fields=}. Each field knows the
+ * columns it needs, so a request for a few fields selects only those columns and joins the owner
+ * only when {@link #OWNER} is asked for.
+ */
+public enum BookField {
+  ID("id") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("id").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setId(tuple.get(parameter, Long.class));
+    }
+  },
+  TITLE("title") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("title").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setTitle(tuple.get(parameter, String.class));
+    }
+  },
+  AUTHOR_NAME("authorName") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("authorName").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setAuthorName(tuple.get(parameter, String.class));
+    }
+  },
+  ISBN("isbn") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("isbn").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setIsbn(tuple.get(parameter, String.class));
+    }
+  },
+  SYNOPSIS("synopsis") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("synopsis").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setSynopsis(tuple.get(parameter, String.class));
+    }
+  },
+  OWNER("owner") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(
+          owner.get("firstname").alias("ownerFirstname"),
+          owner.get("lastname").alias("ownerLastname"));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      String firstname = tuple.get("ownerFirstname", String.class);
+      String lastname = tuple.get("ownerLastname", String.class);
+      if (firstname != null || lastname != null) {
+        response.setOwner(User.fullName(firstname, lastname));
+      }
+    }
+  },
+  COVER("cover") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("bookCover").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setCover(covers.read(tuple.get(parameter, String.class)));
+    }
+  },
+  RATE("rate") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("averageRating").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setRate(Book.roundRate(tuple.get(parameter, Double.class)));
+    }
+  },
+  ARCHIVED("archived") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("archived").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setArchived(tuple.get(parameter, Boolean.class));
+    }
+  },
+  SHAREABLE("shareable") {
+    @Override
+    List<Selection<?>> select(From<?, Book> book, From<?, ?> owner) {
+      return List.of(book.get("shareable").alias(parameter));
+    }
+
+    @Override
+    void apply(Tuple tuple, BookResponse response, BookCovers covers) {
+      response.setShareable(tuple.get(parameter, Boolean.class));
+    }
+  };
+
+  final String parameter;
+
+  BookField(String parameter) {
+    this.parameter = parameter;
+  }
+
+  abstract List<Selection<?>> select(From<?, Book> book, From<?, ?> owner);
+
+  abstract void apply(Tuple tuple, BookResponse response, BookCovers covers);
+
+  /** Builds the response for one row selected with the given fields. */
+  static BookResponse toResponse(Tuple tuple, Set<BookField> fields, BookCovers covers) {
+    BookResponse response = new BookResponse();
+    for (BookField field : fields) {
+      field.apply(tuple, response, covers);
+    }
+    return response;
+  }
+
+  /**
+   * Parses a comma-separated {@code fields} parameter. The id is always included; a missing or
+   * blank parameter selects every field.
+   *
+   * @throws OperationNotPermittedException if a field name is unknown
+   */
+  public static Set<BookField> parse(String fields) {
+    if (fields == null || fields.isBlank()) {
+      return EnumSet.allOf(BookField.class);
+    }
+    Set<BookField> selected = EnumSet.of(ID);
+    for (String name : fields.split(",")) {
+      String trimmed = name.trim();
+      selected.add(
+          Arrays.stream(values())
+              .filter(field -> field.parameter.equals(trimmed))
+              .findFirst()
+              .orElseThrow(() -> new OperationNotPermittedException("Unknown field " + trimmed)));
+    }
+    return selected;
+  }
+}
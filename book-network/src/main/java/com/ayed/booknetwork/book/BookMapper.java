@@ -9,23 +9,10 @@ public class BookMapper {
         .id(request.id())
         .title(request.title())
         .authorName(request.authorName())
+        .isbn(Isbn.normalize(request.isbn()))
         .synopsis(request.synopsis())
         .archived(false)
         .shareable(request.shareable())
         .build();
   }
-
-  public BookResponse toBookResponse(Book book) {
-    return BookResponse.builder()
-        .id(book.getId())
-        .title(book.getTitle())
-        .authorName(book.getAuthorName())
-        .isbn(book.getIsbn())
-        .synopsis(book.getSynopsis())
-        .archived(book.isArchived())
-        .shareable(book.isShareable())
-        .rate(book.getRate())
-        .owner(book.getOwner().fullName())
-        .build();
-  }
 }
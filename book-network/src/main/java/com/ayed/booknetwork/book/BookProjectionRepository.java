@@ -0,0 +1,17 @@
+package com.ayed.booknetwork.book;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/** Book queries that select only the columns backing the requested {@link BookField}s. */
+public interface BookProjectionRepository {
+
+  Page<BookResponse> findAllProjected(
+      Specification<Book> spec, Pageable pageable, Set<BookField> fields);
+
+  List<BookResponse> findAllProjectedByIdIn(Collection<Long> ids, Set<BookField> fields);
+}
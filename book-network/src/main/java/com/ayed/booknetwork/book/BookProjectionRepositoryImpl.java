@@ -0,0 +1,81 @@
+package com.ayed.booknetwork.book;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+@RequiredArgsConstructor
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+  private final EntityManager entityManager;
+  private final BookCovers covers;
+
+  @Override
+  public Page<BookResponse> findAllProjected(
+      Specification<Book> spec, Pageable pageable, Set<BookField> fields) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Book> book = query.from(Book.class);
+    select(query, book, fields);
+    query.where(spec.toPredicate(book, query, cb));
+    query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, cb));
+    TypedQuery<Tuple> typedQuery =
+        entityManager
+            .createQuery(query)
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(pageable.getPageSize());
+    List<BookResponse> content = toResponses(typedQuery.getResultList(), fields);
+    return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+  }
+
+  @Override
+  public List<BookResponse> findAllProjectedByIdIn(Collection<Long> ids, Set<BookField> fields) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<Book> book = query.from(Book.class);
+    select(query, book, fields);
+    query.where(book.get("id").in(ids));
+    return toResponses(entityManager.createQuery(query).getResultList(), fields);
+  }
+
+  private void select(CriteriaQuery<Tuple> query, Root<Book> book, Set<BookField> fields) {
+    From<?, ?> owner = fields.contains(BookField.OWNER) ? book.join("owner", JoinType.LEFT) : null;
+    List<Selection<?>> selections = new ArrayList<>();
+    for (BookField field : fields) {
+      selections.addAll(field.select(book, owner));
+    }
+    query.multiselect(selections);
+  }
+
+  private List<BookResponse> toResponses(List<Tuple> tuples, Set<BookField> fields) {
+    List<BookResponse> responses = new ArrayList<>(tuples.size());
+    for (Tuple tuple : tuples) {
+      responses.add(BookField.toResponse(tuple, fields, covers));
+    }
+    return responses;
+  }
+
+  private long count(Specification<Book> spec) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Long> query = cb.createQuery(Long.class);
+    Root<Book> book = query.from(Book.class);
+    query.select(cb.count(book)).where(spec.toPredicate(book, query, cb));
+    return entityManager.createQuery(query).getSingleResult();
+  }
+}
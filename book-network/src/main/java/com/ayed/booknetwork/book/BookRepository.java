@@ -1,18 +1,68 @@
 package com.ayed.booknetwork.book;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository
+    extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookProjectionRepository {
+
+  boolean existsByOwnerIdAndIsbn(Long ownerId, String isbn);
+
+  boolean existsByOwnerIdAndIsbnAndIdNot(Long ownerId, String isbn, Long id);
+
+  /*
+   * Bulk flag updates. Each is a single UPDATE restricted to the owner's books whose flag actually
+   * changes, fills in the audit columns itself and returns the ids it changed. Entity listeners do
+   * not see them; BookService publishes the events they would have.
+   */
+
+  @Query(
+      value =
+          """
+          UPDATE book SET archived = :archived, last_modified_by = :ownerId, last_modified_date = :now
+          WHERE owner_id = :ownerId AND id IN (:ids) AND archived <> :archived
+          RETURNING id
+          """,
+      nativeQuery = true)
+  List<Long> updateArchivedByIds(
+      Long ownerId, Collection<Long> ids, boolean archived, LocalDateTime now);
+
+  @Query(
+      value =
+          """
+          UPDATE book SET archived = :archived, last_modified_by = :ownerId, last_modified_date = :now
+          WHERE owner_id = :ownerId AND author_name = :authorName AND archived <> :archived
+          RETURNING id
+          """,
+      nativeQuery = true)
+  List<Long> updateArchivedByAuthor(
+      Long ownerId, String authorName, boolean archived, LocalDateTime now);
+
+  @Query(
+      value =
+          """
+          UPDATE book SET shareable = :shareable, last_modified_by = :ownerId, last_modified_date = :now
+          WHERE owner_id = :ownerId AND id IN (:ids) AND shareable <> :shareable
+          RETURNING id
+          """,
+      nativeQuery = true)
+  List<Long> updateShareableByIds(
+      Long ownerId, Collection<Long> ids, boolean shareable, LocalDateTime now);
+
   @Query(
-      """
-        SELECT book FROM Book book
-        WHERE book.archived = false AND book.shareable = true
-        AND book.owner.id != :userId
-        """)
-  Page<Book> findAllDisplayableBooks(Pageable pageable, Long userId);
+      value =
+          """
+          UPDATE book SET shareable = :shareable, last_modified_by = :ownerId, last_modified_date = :now
+          WHERE owner_id = :ownerId AND author_name = :authorName AND shareable <> :shareable
+          RETURNING id
+          """,
+      nativeQuery = true)
+  List<Long> updateShareableByAuthor(
+      Long ownerId, String authorName, boolean shareable, LocalDateTime now);
 }
@@ -1,12 +1,15 @@
 package com.ayed.booknetwork.book;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
+/** Fields left out by a {@code fields=} selection are null and omitted from the JSON. */
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class BookResponse {
   private Long id;
   private String title;
@@ -15,7 +18,7 @@ public class BookResponse {
   private String synopsis;
   private String owner;
   private byte[] cover;
-  private double rate;
-  private boolean archived;
-  private boolean shareable;
+  private Double rate;
+  private Boolean archived;
+  private Boolean shareable;
 }
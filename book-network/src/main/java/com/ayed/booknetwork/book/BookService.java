@@ -1,16 +1,36 @@
 package com.ayed.booknetwork.book;
 
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.cache.InvalidationBus;
+import com.ayed.booknetwork.cache.LocalCache;
 import com.ayed.booknetwork.common.PageResponse;
+import com.ayed.booknetwork.exceptions.DuplicateIsbnException;
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
 import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserStatsChange;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @RequiredArgsConstructor
@@ -18,28 +38,187 @@ public class BookService {
 
   private final BookRepository bookRepository;
   private final BookMapper bookMapper;
+  private final InvalidationBus invalidationBus;
+  private final IsbnRegistry isbnRegistry;
+  private final PlatformTransactionManager transactionManager;
+  private final ApplicationEventPublisher publisher;
 
+  @Value("${application.book.batch-max-size:100}")
+  private int batchMaxSize;
+
+  @Value("${application.book.bulk-update-max-ids:1000}")
+  private int bulkUpdateMaxIds;
+
+  @Value("${application.cache.book.max-size:10000}")
+  private int cacheMaxSize;
+
+  @Value("${application.cache.book.ttl-millis:2000}")
+  private long cacheTtlMillis;
+
+  // Full responses (no fields= selection) by book id. Concurrent misses for a popular book share a
+  // single load, and changes to the book evict it on every node.
+  private LocalCache<BookResponse> bookCache;
+  private TransactionTemplate readOnlyTransaction;
+
+  @PostConstruct
+  void init() {
+    bookCache = invalidationBus.createCache(EntityChangedEvent.BOOK, cacheMaxSize, cacheTtlMillis);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Adds a book to the user's shelf, or updates it when the request has an id. The ISBN is stored
+   * canonicalized, and an owner cannot have the same ISBN on two books.
+   */
   public Long addBook(BookRequest request, Authentication connectedUser) {
     User user = ((User) connectedUser.getPrincipal());
     Book book = bookMapper.toBook(request);
     book.setOwner(user);
-    return bookRepository.save(book).getId();
+    String isbn = book.getIsbn();
+    // A request with an id updates that book, which the filter and the query would match too.
+    boolean duplicate =
+        request.id() == null
+            ? isbnRegistry.mightExist(user.getId(), isbn)
+                && bookRepository.existsByOwnerIdAndIsbn(user.getId(), isbn)
+            : bookRepository.existsByOwnerIdAndIsbnAndIdNot(user.getId(), isbn, request.id());
+    if (duplicate) {
+      throw new DuplicateIsbnException(isbn);
+    }
+    Long id;
+    try {
+      id = bookRepository.save(book).getId();
+    } catch (DataIntegrityViolationException e) {
+      // Added concurrently, or on another node since the filter was built.
+      if (String.valueOf(e.getMostSpecificCause().getMessage()).contains("uk_book_owner_isbn")) {
+        throw new DuplicateIsbnException(isbn);
+      }
+      throw e;
+    }
+    if (request.id() == null) {
+      isbnRegistry.add(user.getId(), isbn);
+    }
+    return id;
   }
 
-  public BookResponse findBookById(Long bookId) {
-    return bookRepository
-        .findById(bookId)
-        .map(bookMapper::toBookResponse)
-        .orElseThrow(() -> new EntityNotFoundException("Book not found with id " + bookId));
+  public BookResponse findBookById(Long bookId, String fields) {
+    if (fields == null || fields.isBlank()) {
+      return bookCache.get(bookId, () -> loadBookById(bookId, null));
+    }
+    return loadBookById(bookId, fields);
+  }
+
+  /**
+   * Loads several books at once. Duplicate ids are returned once; ids matching no book are listed
+   * in {@link BookBatchResponse#getMissingIds()} instead of failing the call.
+   */
+  public BookBatchResponse findBooksByIds(List<Long> ids, String fields) {
+    List<Long> requestedIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+    if (requestedIds.size() > batchMaxSize) {
+      throw new OperationNotPermittedException(
+          "At most " + batchMaxSize + " books can be requested at once");
+    }
+    Map<Long, BookResponse> booksById =
+        fields == null || fields.isBlank()
+            ? bookCache.getAll(requestedIds, missingIds -> loadBooksByIds(missingIds, null))
+            : loadBooksByIds(requestedIds, fields);
+    List<BookResponse> books = new ArrayList<>(booksById.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : requestedIds) {
+      BookResponse book = booksById.get(id);
+      if (book == null) {
+        missingIds.add(id);
+      } else {
+        books.add(book);
+      }
+    }
+    return BookBatchResponse.builder().books(books).missingIds(missingIds).build();
+  }
+
+  @Transactional(readOnly = true)
+  public PageResponse<BookResponse> findAllBooks(
+      int page,
+      int size,
+      String sort,
+      String authorName,
+      String isbnPrefix,
+      String fields,
+      Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    boolean authorFilter = authorName != null && !authorName.isBlank();
+    boolean isbnFilter = isbnPrefix != null && !isbnPrefix.isBlank();
+    BookSortField sortField = BookSortField.resolve(sort, authorFilter, isbnFilter);
+
+    Specification<Book> spec = BookSpecification.displayableFor(user.getId());
+    if (authorFilter) {
+      spec = spec.and(BookSpecification.withAuthorName(authorName));
+    }
+    if (isbnFilter) {
+      spec = spec.and(BookSpecification.withIsbnPrefix(isbnPrefix));
+    }
+    Pageable pageable = PageRequest.of(page, size, sortField.getSort());
+    Page<BookResponse> books =
+        bookRepository.findAllProjected(spec, pageable, BookField.parse(fields));
+    return new PageResponse<>(
+        books.getContent(),
+        books.getNumber(),
+        books.getSize(),
+        books.getTotalElements(),
+        books.getTotalPages(),
+        books.isFirst(),
+        books.isLast());
+  }
+
+  /** Archives or restores the selected books of the user in one statement. */
+  @Transactional
+  public BookBulkUpdateResponse updateArchived(
+      BookBulkUpdateRequest request, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    boolean archived = request.value();
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> updatedIds =
+        byIds(request)
+            ? bookRepository.updateArchivedByIds(user.getId(), request.ids(), archived, now)
+            : bookRepository.updateArchivedByAuthor(
+                user.getId(), request.authorName(), archived, now);
+    if (!updatedIds.isEmpty()) {
+      publisher.publishEvent(
+          UserStatsChange.ownedBooks(
+              user.getId(), archived ? -updatedIds.size() : updatedIds.size()));
+    }
+    publishBulkUpdate(user.getId(), updatedIds);
+    return new BookBulkUpdateResponse(updatedIds.size());
+  }
+
+  /** Shares or unshares the selected books of the user in one statement. */
+  @Transactional
+  public BookBulkUpdateResponse updateShareable(
+      BookBulkUpdateRequest request, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    boolean shareable = request.value();
+    LocalDateTime now = LocalDateTime.now();
+    List<Long> updatedIds =
+        byIds(request)
+            ? bookRepository.updateShareableByIds(user.getId(), request.ids(), shareable, now)
+            : bookRepository.updateShareableByAuthor(
+                user.getId(), request.authorName(), shareable, now);
+    publishBulkUpdate(user.getId(), updatedIds);
+    return new BookBulkUpdateResponse(updatedIds.size());
   }
 
-  public PageResponse<BookResponse> findAllBooks(int page, int size, Authentication connectedUser) {
+  /** Finds the books with the given ISBN, in any of its forms, that the user can borrow. */
+  @Transactional(readOnly = true)
+  public PageResponse<BookResponse> findBooksByIsbn(
+      String isbn, int page, int size, String fields, Authentication connectedUser) {
     User user = ((User) connectedUser.getPrincipal());
-    Pageable pageable = PageRequest.of(page, size, Sort.by("createdDate").descending());
-    Page<Book> books = bookRepository.findAllDisplayableBooks(pageable, user.getId());
-    List<BookResponse> bookResponses = books.stream().map(bookMapper::toBookResponse).toList();
+    Specification<Book> spec =
+        BookSpecification.displayableFor(user.getId())
+            .and(BookSpecification.withIsbn(Isbn.normalize(isbn)));
+    Pageable pageable = PageRequest.of(page, size, BookSortField.ISBN.getSort());
+    Page<BookResponse> books =
+        bookRepository.findAllProjected(spec, pageable, BookField.parse(fields));
     return new PageResponse<>(
-        bookResponses,
+        books.getContent(),
         books.getNumber(),
         books.getSize(),
         books.getTotalElements(),
@@ -47,4 +226,45 @@ public class BookService {
         books.isFirst(),
         books.isLast());
   }
+
+  private boolean byIds(BookBulkUpdateRequest request) {
+    boolean byIds = request.ids() != null && !request.ids().isEmpty();
+    boolean byAuthor = request.authorName() != null && !request.authorName().isBlank();
+    if (byIds == byAuthor) {
+      throw new OperationNotPermittedException("Select the books either by ids or by author name");
+    }
+    if (byIds && request.ids().size() > bulkUpdateMaxIds) {
+      throw new OperationNotPermittedException(
+          "At most " + bulkUpdateMaxIds + " books can be updated by id at once");
+    }
+    return byIds;
+  }
+
+  // What the entity listeners would have published for each book. The invalidation bus coalesces
+  // the cache evictions into a few notifications, or a single region-wide one for large updates.
+  private void publishBulkUpdate(Long ownerId, List<Long> updatedIds) {
+    if (updatedIds.isEmpty()) {
+      return;
+    }
+    updatedIds.forEach(
+        id ->
+            publisher.publishEvent(
+                new EntityChangedEvent(EntityChangedEvent.BOOK, String.valueOf(id))));
+    publisher.publishEvent(new BooksBulkUpdatedEvent(ownerId, updatedIds));
+  }
+
+  private BookResponse loadBookById(Long bookId, String fields) {
+    return loadBooksByIds(List.of(bookId), fields).values().stream()
+        .findFirst()
+        .orElseThrow(() -> new EntityNotFoundException("Book not found with id " + bookId));
+  }
+
+  // Read-only transactions are routed to a replica; cache hits never open one.
+  private Map<Long, BookResponse> loadBooksByIds(List<Long> ids, String fields) {
+    Set<BookField> selected = BookField.parse(fields);
+    return readOnlyTransaction.execute(
+        status ->
+            bookRepository.findAllProjectedByIdIn(ids, selected).stream()
+                .collect(Collectors.toMap(BookResponse::getId, Function.identity())));
+  }
 }
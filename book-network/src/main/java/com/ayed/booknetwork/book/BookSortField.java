@@ -0,0 +1,67 @@
+package com.ayed.booknetwork.book;
+
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Catalog sort orders. Each one, combined with the filters listed in {@link #resolve}, is backed by
+ * one of the {@code idx_book_catalog_*} indexes on {@link Book}; anything else is rejected so a
+ * request can never trigger an unindexed sort.
+ */
+public enum BookSortField {
+  CREATED_DATE("createdDate", Sort.by(Sort.Direction.DESC, "createdDate", "id")),
+  TITLE("title", Sort.by(Sort.Direction.ASC, "title", "id")),
+  AUTHOR("author", Sort.by(Sort.Direction.ASC, "authorName", "title", "id")),
+  RATING("rating", Sort.by(Sort.Direction.DESC, "averageRating", "id")),
+  ISBN("isbn", Sort.by(Sort.Direction.ASC, "isbn", "id"));
+
+  private static final Set<BookSortField> WITHOUT_FILTER =
+      EnumSet.of(CREATED_DATE, TITLE, AUTHOR, RATING);
+  private static final Set<BookSortField> WITH_AUTHOR_FILTER = EnumSet.of(TITLE, RATING);
+  private static final Set<BookSortField> WITH_ISBN_FILTER = EnumSet.of(ISBN);
+
+  private final String parameter;
+  private final Sort sort;
+
+  BookSortField(String parameter, Sort sort) {
+    this.parameter = parameter;
+    this.sort = sort;
+  }
+
+  public Sort getSort() {
+    return sort;
+  }
+
+  /**
+   * Picks the sort order for a catalog request.
+   *
+   * @param parameter the requested sort, or null for the default of the filter in use
+   * @param authorFilter whether the author name filter is set
+   * @param isbnFilter whether the ISBN prefix filter is set
+   * @throws OperationNotPermittedException if the combination has no supporting index
+   */
+  public static BookSortField resolve(String parameter, boolean authorFilter, boolean isbnFilter) {
+    if (authorFilter && isbnFilter) {
+      throw new OperationNotPermittedException("The author and ISBN filters cannot be combined");
+    }
+    Set<BookSortField> allowed =
+        authorFilter ? WITH_AUTHOR_FILTER : isbnFilter ? WITH_ISBN_FILTER : WITHOUT_FILTER;
+    if (parameter == null || parameter.isBlank()) {
+      return allowed.iterator().next();
+    }
+    BookSortField field =
+        Arrays.stream(values())
+            .filter(value -> value.parameter.equals(parameter))
+            .findFirst()
+            .orElseThrow(
+                () -> new OperationNotPermittedException("Unknown sort field " + parameter));
+    if (!allowed.contains(field)) {
+      throw new OperationNotPermittedException(
+          "Sorting by " + parameter + " is not supported with the requested filters");
+    }
+    return field;
+  }
+}
@@ -0,0 +1,44 @@
+package com.ayed.booknetwork.book;
+
+import org.springframework.data.jpa.domain.Specification;
+
+public class BookSpecification {
+
+  private BookSpecification() {}
+
+  /** Shareable, non-archived books owned by someone else. */
+  public static Specification<Book> displayableFor(Long userId) {
+    return (root, query, cb) ->
+        cb.and(
+            cb.isFalse(root.get("archived")),
+            cb.isTrue(root.get("shareable")),
+            cb.notEqual(root.get("owner").get("id"), userId));
+  }
+
+  public static Specification<Book> withAuthorName(String authorName) {
+    return (root, query, cb) -> cb.equal(root.get("authorName"), authorName);
+  }
+
+  public static Specification<Book> withIsbn(String isbn) {
+    return (root, query, cb) -> cb.equal(root.get("isbn"), isbn);
+  }
+
+  /**
+   * Books whose canonical ISBN starts with {@code prefix}, normalized by {@link
+   * Isbn#normalizePrefix}. The {@code isbn} column uses the C collation, so its B-tree index serves
+   * {@code LIKE 'prefix%'} as a range scan. The range is also spelled out, because a generic plan
+   * of the prepared statement cannot derive it from a bound pattern; under the C collation ':'
+   * follows '9' and 'Y' follows 'X', so it ends exactly where the prefix does.
+   */
+  public static Specification<Book> withIsbnPrefix(String prefix) {
+    String normalized = Isbn.normalizePrefix(prefix);
+    String upperBound =
+        normalized.substring(0, normalized.length() - 1)
+            + (char) (normalized.charAt(normalized.length() - 1) + 1);
+    return (root, query, cb) ->
+        cb.and(
+            cb.like(root.get("isbn"), normalized + "%"),
+            cb.greaterThanOrEqualTo(root.get("isbn"), normalized),
+            cb.lessThan(root.get("isbn"), upperBound));
+  }
+}
@@ -0,0 +1,9 @@
+package com.ayed.booknetwork.book;
+
+import java.util.List;
+
+/**
+ * Raised when a bulk update changed the archived or shareable flag of books, which the entity
+ * listeners do not see.
+ */
+public record BooksBulkUpdatedEvent(Long ownerId, List<Long> bookIds) {}
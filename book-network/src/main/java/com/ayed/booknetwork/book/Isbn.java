@@ -0,0 +1,67 @@
+package com.ayed.booknetwork.book;
+
+import com.ayed.booknetwork.exceptions.InvalidIsbnException;
+
+/**
+ * Canonical form of ISBNs: the 13 digits of the ISBN-13 without separators. ISBN-10s are converted,
+ * so both editions of a number compare equal.
+ */
+public final class Isbn {
+
+  private Isbn() {}
+
+  /**
+   * @param isbn an ISBN-10 or ISBN-13, with or without hyphens and spaces
+   * @return the canonical ISBN-13
+   * @throws InvalidIsbnException if {@code isbn} has the wrong length or check digit
+   */
+  public static String normalize(String isbn) {
+    String compact = compact(isbn);
+    if (compact.matches("\\d{9}[\\dX]")) {
+      if (checkDigit10(compact) != compact.charAt(9)) {
+        throw new InvalidIsbnException(isbn);
+      }
+      String digits = "978" + compact.substring(0, 9);
+      return digits + checkDigit13(digits);
+    }
+    if (compact.matches("97[89]\\d{10}") && checkDigit13(compact) == compact.charAt(12)) {
+      return compact;
+    }
+    throw new InvalidIsbnException(isbn);
+  }
+
+  /**
+   * @param prefix the start of an ISBN-13, with or without hyphens and spaces. ISBN-10 prefixes are
+   *     not converted: every canonical ISBN starts with 978 or 979.
+   * @return the prefix in the canonical form, to match against canonical ISBNs
+   * @throws InvalidIsbnException if {@code prefix} is empty or holds other characters than an ISBN
+   */
+  public static String normalizePrefix(String prefix) {
+    String compact = compact(prefix);
+    if (!compact.matches("[\\dX]{1,13}")) {
+      throw new InvalidIsbnException(prefix);
+    }
+    return compact;
+  }
+
+  private static String compact(String isbn) {
+    return isbn == null ? "" : isbn.replaceAll("[\\s-]", "").toUpperCase();
+  }
+
+  private static char checkDigit10(String isbn) {
+    int sum = 0;
+    for (int i = 0; i < 9; i++) {
+      sum += (10 - i) * (isbn.charAt(i) - '0');
+    }
+    int check = (11 - sum % 11) % 11;
+    return check == 10 ? 'X' : (char) ('0' + check);
+  }
+
+  private static char checkDigit13(String isbn) {
+    int sum = 0;
+    for (int i = 0; i < 12; i++) {
+      sum += (i % 2 == 0 ? 1 : 3) * (isbn.charAt(i) - '0');
+    }
+    return (char) ('0' + (10 - sum % 10) % 10);
+  }
+}
@@ -0,0 +1,168 @@
+package com.ayed.booknetwork.book;
+
+import com.ayed.booknetwork.common.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bloom filter of the (owner, ISBN) pairs in the catalog, so adding a book only looks for a
+ * duplicate in the database when the filter says the owner might have the ISBN already. Most added
+ * books are new and skip that query.
+ *
+ * <p>The filter is local to the node and misses books added on other nodes since it was built. The
+ * unique index on {@code book (owner_id, isbn)} still rejects those; the filter only saves queries.
+ */
+@Service
+@RequiredArgsConstructor
+public class IsbnRegistry implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(IsbnRegistry.class);
+  private static final int MIN_CAPACITY = 100_000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.book.isbn.false-positive-probability:0.01}")
+  private double falsePositiveProbability;
+
+  @Value("${application.book.isbn.fetch-size:5000}")
+  private int fetchSize;
+
+  private final Set<String> addedDuringRebuild = ConcurrentHashMap.newKeySet();
+  private volatile BloomFilter ownedIsbns;
+  private volatile boolean rebuilding;
+  private volatile boolean running;
+  private ExecutorService rebuilder;
+
+  @PostConstruct
+  void init() {
+    // A rebuild reads every ISBN of the catalog, too long for the shared scheduler thread.
+    rebuilder =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "isbn-rebuild");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    rebuilder.shutdownNow();
+  }
+
+  // A lifecycle start rather than @PostConstruct, like the token revocation filter: it is ready
+  // before the web server accepts requests, but not built during a CDS training run.
+  @Override
+  public void start() {
+    rebuild();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+
+  public boolean mightExist(Long ownerId, String isbn) {
+    return ownedIsbns.mightContain(key(ownerId, isbn));
+  }
+
+  public void add(Long ownerId, String isbn) {
+    String key = key(ownerId, isbn);
+    ownedIsbns.add(key);
+    if (rebuilding) {
+      addedDuringRebuild.add(key);
+    }
+  }
+
+  /** Rebuilds the filter once more books were added than it was sized for. */
+  @Scheduled(
+      fixedDelayString = "${application.book.isbn.saturation-check-millis:60000}",
+      initialDelayString = "${application.book.isbn.saturation-check-millis:60000}")
+  public void rebuildIfSaturated() {
+    if (ownedIsbns.isSaturated() && !rebuilding) {
+      rebuilder.execute(
+          () -> {
+            // Checked again: a rebuild queued behind another one may find the filter fresh.
+            if (!ownedIsbns.isSaturated()) {
+              return;
+            }
+            try {
+              rebuild();
+            } catch (RuntimeException e) {
+              logger.error("Could not rebuild the ISBN filter", e);
+            }
+          });
+    }
+  }
+
+  // Books added while the rows are read may be missing from them, so they are replayed into the
+  // new filter once it is in place.
+  private synchronized void rebuild() {
+    long started = System.currentTimeMillis();
+    rebuilding = true;
+    addedDuringRebuild.clear();
+    try {
+      Long count = jdbcTemplate.queryForObject("SELECT count(isbn) FROM book", Long.class);
+      int capacity = (int) Math.min(Integer.MAX_VALUE / 2, Math.max(MIN_CAPACITY, count * 2));
+      BloomFilter filter = new BloomFilter(capacity, falsePositiveProbability);
+      AtomicInteger rows = new AtomicInteger();
+      // Inside a transaction so the driver streams the rows with a cursor.
+      new TransactionTemplate(transactionManager)
+          .executeWithoutResult(
+              status ->
+                  jdbcTemplate.query(
+                      connection -> {
+                        PreparedStatement statement =
+                            connection.prepareStatement(
+                                "SELECT owner_id, isbn FROM book WHERE isbn IS NOT NULL");
+                        statement.setFetchSize(fetchSize);
+                        return statement;
+                      },
+                      (RowCallbackHandler)
+                          resultSet -> {
+                            filter.add(key(resultSet.getLong(1), resultSet.getString(2)));
+                            rows.incrementAndGet();
+                          }));
+      ownedIsbns = filter;
+      addedDuringRebuild.forEach(filter::add);
+      logger.info(
+          "Built the ISBN filter for {} books in {} ms",
+          rows.get(),
+          System.currentTimeMillis() - started);
+    } finally {
+      rebuilding = false;
+    }
+  }
+
+  private static String key(Long ownerId, String isbn) {
+    return ownerId + ":" + isbn;
+  }
+}
@@ -0,0 +1,45 @@
+package com.ayed.booknetwork.cache;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.role.Role;
+import com.ayed.booknetwork.user.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener raising an {@link EntityChangedEvent} for every updated or removed entity
+ * that local caches may hold. Users are cached with their roles, so a role change invalidates all
+ * users. New books are announced too, for the indexes built over them. Bulk JPQL updates bypass it
+ * and must publish their own events.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheInvalidationListener {
+  private final ApplicationEventPublisher publisher;
+
+  @PostPersist
+  public void onCreate(Object entity) {
+    if (entity instanceof Book book) {
+      publisher.publishEvent(
+          new EntityChangedEvent(EntityChangedEvent.BOOK, String.valueOf(book.getId())));
+    }
+  }
+
+  @PostUpdate
+  @PostRemove
+  public void onChange(Object entity) {
+    if (entity instanceof User user) {
+      publisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.USER, user.getEmail()));
+    } else if (entity instanceof Role) {
+      publisher.publishEvent(
+          new EntityChangedEvent(EntityChangedEvent.USER, EntityChangedEvent.ALL));
+    } else if (entity instanceof Book book) {
+      publisher.publishEvent(
+          new EntityChangedEvent(EntityChangedEvent.BOOK, String.valueOf(book.getId())));
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.ayed.booknetwork.cache;
+
+/**
+ * Raised when an entity that local caches may hold has changed. {@code key} identifies the entry
+ * within its {@code region}; {@link #ALL} invalidates the whole region.
+ */
+public record EntityChangedEvent(String region, String key) {
+  public static final String USER = "user";
+  public static final String BOOK = "book";
+  public static final String FOLLOW = "follow";
+  public static final String ALL = "*";
+}
@@ -0,0 +1,267 @@
+package com.ayed.booknetwork.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the {@link LocalCache}s of every node consistent through PostgreSQL {@code LISTEN/NOTIFY}.
+ * A committed {@link EntityChangedEvent} evicts the local entry at once and is queued for the other
+ * nodes. The queue is flushed every few milliseconds as a few NOTIFYs, and a burst with more keys
+ * than a flush allows collapses into whole-region invalidations.
+ *
+ * <p>Region listeners may also receive messages {@link #publish published} by any node, which are
+ * sent one per NOTIFY and never collapsed.
+ *
+ * <p>Each node listens on a dedicated connection. Notifications sent while that connection is down
+ * are lost, so every (re)connect clears all local caches before listening again.
+ */
+@Service
+@RequiredArgsConstructor
+public class InvalidationBus implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(InvalidationBus.class);
+  // NOTIFY payloads are limited to 8000 bytes.
+  private static final int MAX_PAYLOAD_BYTES = 7000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DataSourceProperties dataSourceProperties;
+
+  @Value("${application.cache.invalidation.channel:cache_invalidation}")
+  private String channel;
+
+  @Value("${application.cache.invalidation.max-keys-per-flush:500}")
+  private int maxKeysPerFlush;
+
+  @Value("${application.cache.invalidation.poll-millis:10000}")
+  private int pollMillis;
+
+  @Value("${application.cache.invalidation.reconnect-delay-millis:5000}")
+  private long reconnectDelayMillis;
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final Map<String, List<LocalCache<?>>> caches = new ConcurrentHashMap<>();
+  private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+  private volatile boolean running;
+  private volatile Connection listenConnection;
+  private Thread listener;
+
+  public <V> LocalCache<V> createCache(String region, int maxSize, long ttlMillis) {
+    LocalCache<V> cache = new LocalCache<>(region, maxSize, ttlMillis);
+    caches.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(cache);
+    return cache;
+  }
+
+  /**
+   * Calls {@code listener} with the key of every invalidation of the region, from this node or
+   * another one, for state kept outside a {@link LocalCache}. The key is {@link
+   * EntityChangedEvent#ALL} when the whole region is invalid. Listeners run on the thread that
+   * delivers the invalidation and must return quickly.
+   */
+  public void addListener(String region, Consumer<String> listener) {
+    listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  /**
+   * Passes {@code message} to the listeners of {@code region} on every node, this one at once and
+   * the others through their own NOTIFY. Unlike invalidations, messages are neither coalesced nor
+   * collapsed, but a node whose listen connection is down misses them. A message is a single line
+   * that fits in a NOTIFY payload.
+   */
+  public void publish(String region, String message) {
+    listeners.getOrDefault(region, List.of()).forEach(listener -> listener.accept(message));
+    try {
+      jdbcTemplate.query(
+          "SELECT pg_notify(?, ?)",
+          (RowCallbackHandler) resultSet -> {},
+          channel,
+          nodeId + "\n" + region + ":" + message);
+    } catch (RuntimeException e) {
+      logger.warn("Could not publish a {} message to the other nodes: {}", region, e.getMessage());
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEntityChanged(EntityChangedEvent event) {
+    invalidate(event.region(), event.key());
+    pending.add(event.region() + ":" + event.key());
+  }
+
+  /** Sends the queued keys to the other nodes. */
+  @Scheduled(fixedDelayString = "${application.cache.invalidation.coalesce-millis:100}")
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<String> keys = new ArrayList<>(pending);
+    pending.removeAll(keys);
+    if (keys.size() > maxKeysPerFlush) {
+      Set<String> regions = new HashSet<>();
+      keys.forEach(key -> regions.add(key.substring(0, key.indexOf(':'))));
+      keys = regions.stream().map(region -> region + ":" + EntityChangedEvent.ALL).toList();
+    }
+    try {
+      for (String payload : payloads(keys)) {
+        jdbcTemplate.query(
+            "SELECT pg_notify(?, ?)", (RowCallbackHandler) resultSet -> {}, channel, payload);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Could not publish cache invalidations, retrying: {}", e.getMessage());
+      pending.addAll(keys);
+    }
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listener = new Thread(this::listen, "cache-invalidation-listener");
+    listener.setDaemon(true);
+    listener.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    closeQuietly(listenConnection);
+    listener.interrupt();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection =
+          DriverManager.getConnection(
+              dataSourceProperties.determineUrl(),
+              dataSourceProperties.determineUsername(),
+              dataSourceProperties.determinePassword())) {
+        listenConnection = connection;
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("LISTEN " + channel);
+        }
+        caches.values().forEach(regionCaches -> regionCaches.forEach(LocalCache::clear));
+        listeners.forEach(
+            (region, regionListeners) ->
+                regionListeners.forEach(listener -> listener.accept(EntityChangedEvent.ALL)));
+        logger.info("Listening for cache invalidations on channel {}", channel);
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+          if (notifications == null || notifications.length == 0) {
+            // Nothing arrived: make sure the connection is still alive rather than silently dead.
+            try (Statement statement = connection.createStatement()) {
+              statement.execute("SELECT 1");
+            }
+            continue;
+          }
+          for (PGNotification notification : notifications) {
+            receive(notification.getParameter());
+          }
+        }
+      } catch (SQLException e) {
+        if (running) {
+          logger.warn(
+              "Cache invalidation listener disconnected, local caches are flushed on reconnect: {}",
+              e.getMessage());
+          sleep();
+        }
+      }
+    }
+  }
+
+  private void receive(String payload) {
+    String[] lines = payload.split("\n");
+    if (lines[0].equals(nodeId)) {
+      return;
+    }
+    for (int i = 1; i < lines.length; i++) {
+      int separator = lines[i].indexOf(':');
+      if (separator > 0) {
+        invalidate(lines[i].substring(0, separator), lines[i].substring(separator + 1));
+      }
+    }
+  }
+
+  private void invalidate(String region, String key) {
+    for (LocalCache<?> cache : caches.getOrDefault(region, List.of())) {
+      if (EntityChangedEvent.ALL.equals(key)) {
+        cache.clear();
+      } else {
+        cache.evict(key);
+      }
+    }
+    listeners.getOrDefault(region, List.of()).forEach(listener -> listener.accept(key));
+  }
+
+  // Payloads are the node id followed by one region:key per line.
+  private List<String> payloads(List<String> keys) {
+    List<String> payloads = new ArrayList<>();
+    StringBuilder payload = new StringBuilder(nodeId);
+    int bytes = nodeId.length();
+    for (String key : keys) {
+      int keyBytes = key.getBytes(StandardCharsets.UTF_8).length + 1;
+      if (bytes + keyBytes > MAX_PAYLOAD_BYTES && bytes > nodeId.length()) {
+        payloads.add(payload.toString());
+        payload = new StringBuilder(nodeId);
+        bytes = nodeId.length();
+      }
+      payload.append('\n').append(key);
+      bytes += keyBytes;
+    }
+    payloads.add(payload.toString());
+    return payloads;
+  }
+
+  private void sleep() {
+    try {
+      Thread.sleep(reconnectDelayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      logger.debug("Closing the listen connection failed", e);
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.ayed.booknetwork.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Small in-process cache for one region of the {@link InvalidationBus}. Entries expire after a
+ * fixed time as a safety net and are otherwise evicted by invalidations, local or from other nodes.
+ * A value loaded while an invalidation was in flight is returned but not stored, so a slow load
+ * cannot put back what was just evicted.
+ *
+ * <p>Concurrent misses for the same key share one load: the first caller runs the loader and the
+ * others wait for its value, or its exception.
+ */
+public class LocalCache<V> {
+  private final String region;
+  private final int maxSize;
+  private final long ttlMillis;
+  private final Map<String, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public LocalCache(String region, int maxSize, long ttlMillis) {
+    this.region = region;
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+  }
+
+  public String getRegion() {
+    return region;
+  }
+
+  public V get(Object key, Supplier<V> loader) {
+    String cacheKey = String.valueOf(key);
+    Entry<V> entry = entries.get(cacheKey);
+    if (entry != null && entry.expiresAtMillis > System.currentTimeMillis()) {
+      return entry.value;
+    }
+    CompletableFuture<V> load = new CompletableFuture<>();
+    CompletableFuture<V> running = loading.putIfAbsent(cacheKey, load);
+    if (running != null) {
+      return join(running);
+    }
+    try {
+      // The previous load may have finished between the lookup above and claiming this one.
+      entry = entries.get(cacheKey);
+      if (entry != null && entry.expiresAtMillis > System.currentTimeMillis()) {
+        load.complete(entry.value);
+        return entry.value;
+      }
+      long generation = invalidations.get();
+      V value = loader.get();
+      put(cacheKey, value, generation);
+      load.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(cacheKey, load);
+    }
+  }
+
+  /**
+   * Returns the values of several keys, loading all the missing ones with a single call. Keys the
+   * loader leaves out are missing from the result.
+   */
+  public <K> Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+    long now = System.currentTimeMillis();
+    Map<K, V> values = new HashMap<>();
+    List<K> missing = new ArrayList<>();
+    for (K key : keys) {
+      Entry<V> entry = entries.get(String.valueOf(key));
+      if (entry != null && entry.expiresAtMillis > now) {
+        values.put(key, entry.value);
+      } else {
+        missing.add(key);
+      }
+    }
+    if (!missing.isEmpty()) {
+      long generation = invalidations.get();
+      Map<K, V> loaded = loader.apply(missing);
+      loaded.forEach((key, value) -> put(String.valueOf(key), value, generation));
+      values.putAll(loaded);
+    }
+    return values;
+  }
+
+  public void evict(String key) {
+    invalidations.incrementAndGet();
+    entries.remove(key);
+    // Later callers must not join a load that may have read the value before the change.
+    loading.remove(key);
+  }
+
+  public void clear() {
+    invalidations.incrementAndGet();
+    entries.clear();
+    loading.clear();
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void put(String key, V value, long generation) {
+    if (value == null) {
+      return;
+    }
+    if (entries.size() >= maxSize) {
+      evictOne();
+    }
+    entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    if (invalidations.get() != generation) {
+      entries.remove(key);
+    }
+  }
+
+  private static <V> V join(CompletableFuture<V> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private void evictOne() {
+    Iterator<String> keys = entries.keySet().iterator();
+    if (keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  private record Entry<V>(V value, long expiresAtMillis) {}
+}
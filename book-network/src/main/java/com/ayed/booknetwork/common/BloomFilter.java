@@ -0,0 +1,81 @@
+package com.ayed.booknetwork.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over strings. Lookups never return a false negative; a false positive
+ * happens with roughly the configured probability until more than the expected number of values
+ * have been added. Adds and lookups are lock-free and may run concurrently.
+ */
+public class BloomFilter {
+  private static final double LN2 = Math.log(2);
+
+  private final AtomicLongArray words;
+  private final int bitCount;
+  private final int hashCount;
+  private final int expectedInsertions;
+  private final AtomicInteger insertions = new AtomicInteger();
+
+  public BloomFilter(int expectedInsertions, double falsePositiveProbability) {
+    this.expectedInsertions = Math.max(1, expectedInsertions);
+    long bits =
+        (long)
+            Math.ceil(-this.expectedInsertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+    int wordCount = (int) Math.min(Integer.MAX_VALUE / 64, Math.max(1, (bits + 63) / 64));
+    this.words = new AtomicLongArray(wordCount);
+    this.bitCount = wordCount * 64;
+    this.hashCount =
+        Math.max(1, (int) Math.round((double) bitCount / this.expectedInsertions * LN2));
+  }
+
+  public void add(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(h1 + i * h2);
+      long mask = 1L << bit;
+      words.getAndAccumulate(bit >>> 6, mask, (word, m) -> word | m);
+    }
+    insertions.incrementAndGet();
+  }
+
+  public boolean mightContain(String value) {
+    long hash = hash(value);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      int bit = index(h1 + i * h2);
+      if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Whether more values were added than the filter was sized for. */
+  public boolean isSaturated() {
+    return insertions.get() > expectedInsertions;
+  }
+
+  private int index(int combinedHash) {
+    return (combinedHash & Integer.MAX_VALUE) % bitCount;
+  }
+
+  /** 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer. */
+  private static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b;
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
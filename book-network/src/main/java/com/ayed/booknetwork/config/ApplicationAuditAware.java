@@ -0,0 +1,24 @@
+package com.ayed.booknetwork.config;
+
+import com.ayed.booknetwork.user.User;
+import java.util.Optional;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/** Fills {@code createdBy} and {@code lastModifiedBy} with the id of the authenticated user. */
+public class ApplicationAuditAware implements AuditorAware<Long> {
+
+  @Override
+  public Optional<Long> getCurrentAuditor() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null
+        || !authentication.isAuthenticated()
+        || authentication instanceof AnonymousAuthenticationToken
+        || !(authentication.getPrincipal() instanceof User user)) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(user.getId());
+  }
+}
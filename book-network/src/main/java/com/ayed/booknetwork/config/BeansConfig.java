@@ -3,6 +3,7 @@ package com.ayed.booknetwork.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -30,6 +31,11 @@ public class BeansConfig {
     return config.getAuthenticationManager();
   }
 
+  @Bean
+  public AuditorAware<Long> auditorAware() {
+    return new ApplicationAuditAware();
+  }
+
   @Bean
   public PasswordEncoder passwordEncoder() {
     return new BCryptPasswordEncoder();
@@ -0,0 +1,77 @@
+package com.ayed.booknetwork.config;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Marks beans that are not needed to serve the first request as lazy, so they are created on first
+ * use instead of during startup. A bean matches when its class, or the configuration class that
+ * declares it, starts with one of the prefixes in {@code application.startup.lazy-bean-prefixes}.
+ * Beans with {@link Scheduled} methods stay eager, since their schedules are only registered when
+ * they are created.
+ */
+@Component
+public class LazyBeansPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+  private List<String> prefixes = List.of();
+
+  @Override
+  public void setEnvironment(Environment environment) {
+    prefixes =
+        Binder.get(environment)
+            .bind("application.startup.lazy-bean-prefixes", Bindable.listOf(String.class))
+            .orElse(List.of());
+  }
+
+  @Override
+  public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+    if (prefixes.isEmpty()) {
+      return;
+    }
+    for (String name : beanFactory.getBeanDefinitionNames()) {
+      BeanDefinition definition = beanFactory.getBeanDefinition(name);
+      if (definition.isSingleton()
+          && matches(declaringClassName(beanFactory, definition))
+          && !hasScheduledMethods(beanFactory, definition.getBeanClassName())) {
+        definition.setLazyInit(true);
+      }
+    }
+  }
+
+  private String declaringClassName(
+      ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+    String factoryBeanName = definition.getFactoryBeanName();
+    if (factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)) {
+      return beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+    }
+    return definition.getBeanClassName();
+  }
+
+  private boolean hasScheduledMethods(
+      ConfigurableListableBeanFactory beanFactory, String className) {
+    if (className == null || !ClassUtils.isPresent(className, beanFactory.getBeanClassLoader())) {
+      return false;
+    }
+    Class<?> beanClass = ClassUtils.resolveClassName(className, beanFactory.getBeanClassLoader());
+    Method[] methods = ReflectionUtils.getUniqueDeclaredMethods(beanClass);
+    return Arrays.stream(methods)
+        .anyMatch(method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class));
+  }
+
+  private boolean matches(String className) {
+    return className != null && prefixes.stream().anyMatch(className::startsWith);
+  }
+}
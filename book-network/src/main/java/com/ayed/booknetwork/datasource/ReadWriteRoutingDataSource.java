@@ -0,0 +1,54 @@
+package com.ayed.booknetwork.datasource;
+
+import com.ayed.booknetwork.user.User;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections requested inside a read-only transaction to a replica and everything else to
+ * the primary. Must sit behind a {@code LazyConnectionDataSourceProxy} so that the lookup happens
+ * after the transaction attributes are bound to the thread.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+  public static final String PRIMARY = "primary";
+
+  private final ReplicaSelector replicaSelector;
+  private final RecentWriters recentWriters;
+
+  public ReadWriteRoutingDataSource(ReplicaSelector replicaSelector, RecentWriters recentWriters) {
+    this.replicaSelector = replicaSelector;
+    this.recentWriters = recentWriters;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    Long userId = currentUserId();
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+              @Override
+              public void afterCommit() {
+                recentWriters.markWrite(userId);
+              }
+            });
+      }
+      return PRIMARY;
+    }
+    if (userId != null && recentWriters.wroteRecently(userId)) {
+      return PRIMARY;
+    }
+    return replicaSelector.select().orElse(PRIMARY);
+  }
+
+  private Long currentUserId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof User user) {
+      return user.getId();
+    }
+    return null;
+  }
+}
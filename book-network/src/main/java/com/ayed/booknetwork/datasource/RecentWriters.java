@@ -0,0 +1,39 @@
+package com.ayed.booknetwork.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users committed a write recently so that their following reads are served by the
+ * primary until the replicas had time to catch up (read-your-writes).
+ */
+public class RecentWriters {
+  private final Map<Long, Long> lastWriteMillis = new ConcurrentHashMap<>();
+  private final long stickinessMillis;
+
+  public RecentWriters(long stickinessMillis) {
+    this.stickinessMillis = stickinessMillis;
+  }
+
+  public void markWrite(Long userId) {
+    lastWriteMillis.put(userId, System.currentTimeMillis());
+  }
+
+  public boolean wroteRecently(Long userId) {
+    Long lastWrite = lastWriteMillis.get(userId);
+    if (lastWrite == null) {
+      return false;
+    }
+    if (System.currentTimeMillis() - lastWrite < stickinessMillis) {
+      return true;
+    }
+    lastWriteMillis.remove(userId, lastWrite);
+    return false;
+  }
+
+  /** Drops entries whose stickiness window has elapsed. */
+  public void purgeExpired() {
+    long threshold = System.currentTimeMillis() - stickinessMillis;
+    lastWriteMillis.values().removeIf(lastWrite -> lastWrite < threshold);
+  }
+}
@@ -0,0 +1,114 @@
+package com.ayed.booknetwork.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Tracks the replication lag of each replica pool and hands out the healthy ones in round-robin
+ * order. A replica that lags more than the configured maximum, that cannot be reached, or that is
+ * not a standby (e.g. a stand-alone server, or a former standby promoted by a failover) is skipped
+ * until a later check sees it back in shape.
+ */
+public class ReplicaSelector {
+  private static final Logger logger = LoggerFactory.getLogger(ReplicaSelector.class);
+
+  // The lag is zero when the standby has replayed everything it received.
+  private static final String LAG_QUERY =
+      """
+      SELECT pg_is_in_recovery(), CASE
+        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+        ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+      END
+      """;
+
+  private final List<Replica> replicas;
+  private final long maxLagMillis;
+  private final RecentWriters recentWriters;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaSelector(List<Replica> replicas, long maxLagMillis, RecentWriters recentWriters) {
+    this.replicas = replicas;
+    this.maxLagMillis = maxLagMillis;
+    this.recentWriters = recentWriters;
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  public Optional<String> select() {
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (replica.isAvailable(maxLagMillis)) {
+        return Optional.of(replica.name());
+      }
+    }
+    return Optional.empty();
+  }
+
+  @Scheduled(fixedDelayString = "${application.datasource.routing.lag-check-interval-millis:1000}")
+  public void refreshLag() {
+    for (Replica replica : replicas) {
+      try (Connection connection = replica.dataSource().getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+        resultSet.next();
+        if (resultSet.getBoolean(1)) {
+          replica.update(true, resultSet.getLong(2));
+        } else {
+          // Its data does not follow the primary, so reads there could miss any write.
+          if (replica.healthy) {
+            logger.warn("Replica {} is not a standby, reads fall back", replica.name());
+          }
+          replica.update(false, Long.MAX_VALUE);
+        }
+      } catch (Exception e) {
+        if (replica.healthy) {
+          logger.warn(
+              "Replica {} is unreachable, reads fall back: {}", replica.name(), e.getMessage());
+        }
+        replica.update(false, Long.MAX_VALUE);
+      }
+    }
+    recentWriters.purgeExpired();
+  }
+
+  public static final class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean healthy = true;
+    private volatile long lagMillis;
+
+    public Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+
+    public String name() {
+      return name;
+    }
+
+    public DataSource dataSource() {
+      return dataSource;
+    }
+
+    boolean isAvailable(long maxLagMillis) {
+      return healthy && lagMillis <= maxLagMillis;
+    }
+
+    void update(boolean healthy, long lagMillis) {
+      this.healthy = healthy;
+      this.lagMillis = lagMillis;
+    }
+  }
+}
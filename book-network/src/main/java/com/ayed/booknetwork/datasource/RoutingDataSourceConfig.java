@@ -0,0 +1,91 @@
+package com.ayed.booknetwork.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool plus one pool per replica URL. Only
+ * {@code @Transactional(readOnly = true)} work is routed to the replicas.
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "application.datasource.routing",
+    name = "enabled",
+    havingValue = "true")
+@RequiredArgsConstructor
+public class RoutingDataSourceConfig {
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  @Value("${application.datasource.routing.replica-urls}")
+  private List<String> replicaUrls;
+
+  @Value("${application.datasource.routing.max-lag-millis:5000}")
+  private long maxLagMillis;
+
+  @Value("${application.datasource.routing.replica-connection-timeout-millis:2000}")
+  private long replicaConnectionTimeoutMillis;
+
+  @Value("${application.datasource.routing.read-your-writes-millis:10000}")
+  private long readYourWritesMillis;
+
+  @Bean
+  public RecentWriters recentWriters() {
+    return new RecentWriters(readYourWritesMillis);
+  }
+
+  @Bean
+  public ReplicaSelector replicaSelector(DataSourceProperties properties) {
+    List<ReplicaSelector.Replica> replicas = new ArrayList<>();
+    for (int i = 0; i < replicaUrls.size(); i++) {
+      HikariDataSource pool = createPool(properties, "replica-" + i);
+      pool.setJdbcUrl(replicaUrls.get(i));
+      pool.setReadOnly(true);
+      // Fail fast so a dead replica is taken out of rotation by the next lag check.
+      pool.setConnectionTimeout(replicaConnectionTimeoutMillis);
+      replicas.add(new ReplicaSelector.Replica(pool.getPoolName(), pool));
+    }
+    return new ReplicaSelector(replicas, maxLagMillis, recentWriters());
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(DataSourceProperties properties, ReplicaSelector replicaSelector) {
+    Map<Object, Object> targets = new HashMap<>();
+    HikariDataSource primary = createPool(properties, ReadWriteRoutingDataSource.PRIMARY);
+    targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+    for (ReplicaSelector.Replica replica : replicaSelector.getReplicas()) {
+      targets.put(replica.name(), replica.dataSource());
+    }
+    ReadWriteRoutingDataSource routing =
+        new ReadWriteRoutingDataSource(replicaSelector, recentWriters());
+    routing.setTargetDataSources(targets);
+    routing.setDefaultTargetDataSource(primary);
+    routing.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routing);
+  }
+
+  private HikariDataSource createPool(DataSourceProperties properties, String poolName) {
+    HikariDataSource pool =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    pool.setPoolName(poolName);
+    // These pools are not beans, so the HikariCP meters admission control reads are bound here.
+    meterRegistry.ifAvailable(
+        registry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    return pool;
+  }
+}
@@ -0,0 +1,29 @@
+package com.ayed.booknetwork.diagnostics;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Wires the request diagnostics mode. Nothing in this package is instantiated unless {@code
+ * application.diagnostics.enabled} is true, so the default runtime path is untouched.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.diagnostics", name = "enabled", havingValue = "true")
+public class DiagnosticsConfig {
+
+  @Bean
+  public static BeanPostProcessor diagnosticsDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DiagnosticsDataSource)) {
+          return new DiagnosticsDataSource(dataSource);
+        }
+        return bean;
+      }
+    };
+  }
+}
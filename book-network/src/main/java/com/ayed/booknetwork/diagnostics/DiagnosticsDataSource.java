@@ -0,0 +1,91 @@
+package com.ayed.booknetwork.diagnostics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Wraps the application data source so that every statement execution is timed and reported to the
+ * {@link RequestDiagnostics} bound to the current thread.
+ */
+public class DiagnosticsDataSource extends DelegatingDataSource {
+
+  public DiagnosticsDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return wrap(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return wrap(super.getConnection(username, password));
+  }
+
+  private static Connection wrap(Connection connection) {
+    return (Connection)
+        Proxy.newProxyInstance(
+            DiagnosticsDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            new ConnectionHandler(connection));
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  private record ConnectionHandler(Connection target) implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      Object result = DiagnosticsDataSource.invoke(target, method, args);
+      if (result instanceof Statement statement) {
+        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+        Class<?> type =
+            statement instanceof CallableStatement
+                ? CallableStatement.class
+                : statement instanceof PreparedStatement
+                    ? PreparedStatement.class
+                    : Statement.class;
+        return Proxy.newProxyInstance(
+            DiagnosticsDataSource.class.getClassLoader(),
+            new Class<?>[] {type},
+            new StatementHandler(statement, sql));
+      }
+      return result;
+    }
+  }
+
+  private record StatementHandler(Statement target, String preparedSql)
+      implements InvocationHandler {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (!method.getName().startsWith("execute")) {
+        return DiagnosticsDataSource.invoke(target, method, args);
+      }
+      long start = System.nanoTime();
+      try {
+        return DiagnosticsDataSource.invoke(target, method, args);
+      } finally {
+        String sql =
+            preparedSql != null
+                ? preparedSql
+                : args != null && args.length > 0 ? String.valueOf(args[0]) : "<batch>";
+        RequestDiagnostics.recordStatement(sql, System.nanoTime() - start);
+      }
+    }
+  }
+}
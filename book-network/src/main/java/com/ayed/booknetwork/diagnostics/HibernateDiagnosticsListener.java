@@ -0,0 +1,44 @@
+package com.ayed.booknetwork.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Counts entity loads and lazy collection initializations for the current request. */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "application.diagnostics", name = "enabled", havingValue = "true")
+public class HibernateDiagnosticsListener
+    implements PostLoadEventListener, InitializeCollectionEventListener {
+  private final EntityManagerFactory entityManagerFactory;
+
+  @PostConstruct
+  void register() {
+    EventListenerRegistry registry =
+        entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .getService(EventListenerRegistry.class);
+    registry.appendListeners(EventType.POST_LOAD, this);
+    registry.appendListeners(EventType.INIT_COLLECTION, this);
+  }
+
+  @Override
+  public void onPostLoad(PostLoadEvent event) {
+    RequestDiagnostics.recordEntityLoad();
+  }
+
+  @Override
+  public void onInitializeCollection(InitializeCollectionEvent event) {
+    RequestDiagnostics.recordLazyInitialization();
+  }
+}
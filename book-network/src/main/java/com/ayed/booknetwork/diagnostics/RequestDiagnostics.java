@@ -0,0 +1,98 @@
+package com.ayed.booknetwork.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request counters collected while diagnostics mode is enabled. The instance is bound to the
+ * request thread by {@link RequestDiagnosticsFilter}; every recorder is a no-op when nothing is
+ * bound.
+ */
+public final class RequestDiagnostics {
+  private static final ThreadLocal<RequestDiagnostics> CURRENT = new ThreadLocal<>();
+  private static final int MAX_RECORDED_QUERIES = 200;
+
+  private final long startNanos = System.nanoTime();
+  private final List<String> queries = new ArrayList<>();
+  private int statementCount;
+  private long jdbcNanos;
+  private int entitiesLoaded;
+  private int lazyInitializations;
+
+  private RequestDiagnostics() {}
+
+  static RequestDiagnostics start() {
+    RequestDiagnostics diagnostics = new RequestDiagnostics();
+    CURRENT.set(diagnostics);
+    return diagnostics;
+  }
+
+  static void clear() {
+    CURRENT.remove();
+  }
+
+  public static void recordStatement(String sql, long elapsedNanos) {
+    RequestDiagnostics diagnostics = CURRENT.get();
+    if (diagnostics == null) {
+      return;
+    }
+    diagnostics.statementCount++;
+    diagnostics.jdbcNanos += elapsedNanos;
+    if (diagnostics.queries.size() < MAX_RECORDED_QUERIES) {
+      diagnostics.queries.add(TimeUnit.NANOSECONDS.toMicros(elapsedNanos) + "us " + sql);
+    }
+  }
+
+  public static void recordEntityLoad() {
+    RequestDiagnostics diagnostics = CURRENT.get();
+    if (diagnostics != null) {
+      diagnostics.entitiesLoaded++;
+    }
+  }
+
+  public static void recordLazyInitialization() {
+    RequestDiagnostics diagnostics = CURRENT.get();
+    if (diagnostics != null) {
+      diagnostics.lazyInitializations++;
+    }
+  }
+
+  public int getStatementCount() {
+    return statementCount;
+  }
+
+  public long getJdbcMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+  }
+
+  public long getElapsedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+
+  public int getEntitiesLoaded() {
+    return entitiesLoaded;
+  }
+
+  public int getLazyInitializations() {
+    return lazyInitializations;
+  }
+
+  public List<String> getQueries() {
+    return queries;
+  }
+
+  /** Compact form used for the response header and the slow-request log line. */
+  public String summary() {
+    return "queries="
+        + statementCount
+        + ";jdbcMs="
+        + getJdbcMillis()
+        + ";entities="
+        + entitiesLoaded
+        + ";lazyInits="
+        + lazyInitializations
+        + ";totalMs="
+        + getElapsedMillis();
+  }
+}
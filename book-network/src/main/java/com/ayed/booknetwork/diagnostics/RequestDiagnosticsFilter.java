@@ -0,0 +1,100 @@
+package com.ayed.booknetwork.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Binds a {@link RequestDiagnostics} to each request, runs ahead of the security chain so that
+ * {@code JwtAuthFilter} and the user lookup are included, and reports the totals once the response
+ * body has been written.
+ *
+ * <p>With {@code expose-header}, the response body is buffered so the totals can still be sent as a
+ * header. File downloads, whose paths end with one of {@code unbuffered-path-suffixes}, are
+ * streamed without the header instead: their body can be any size.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "application.diagnostics", name = "enabled", havingValue = "true")
+public class RequestDiagnosticsFilter extends OncePerRequestFilter {
+  public static final String HEADER = "X-Request-Diagnostics";
+  private static final Logger logger = LoggerFactory.getLogger(RequestDiagnosticsFilter.class);
+
+  @Value("${application.diagnostics.expose-header:false}")
+  private boolean exposeHeader;
+
+  @Value("${application.diagnostics.unbuffered-path-suffixes:/download}")
+  private List<String> unbufferedPathSuffixes;
+
+  @Value("${application.diagnostics.budget.max-queries:20}")
+  private int maxQueries;
+
+  @Value("${application.diagnostics.budget.max-jdbc-millis:200}")
+  private long maxJdbcMillis;
+
+  @Value("${application.diagnostics.budget.max-total-millis:500}")
+  private long maxTotalMillis;
+
+  // Event streams stay open for minutes and must not be buffered by the response wrapper.
+  @Override
+  protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+    String accept = request.getHeader(HttpHeaders.ACCEPT);
+    return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NotNull HttpServletRequest request,
+      @NotNull HttpServletResponse response,
+      @NotNull FilterChain filterChain)
+      throws ServletException, IOException {
+    RequestDiagnostics diagnostics = RequestDiagnostics.start();
+    // Buffer the body so the header can still be added after JSON serialization has run.
+    ContentCachingResponseWrapper wrapper =
+        exposeHeader && !isDownload(request) ? new ContentCachingResponseWrapper(response) : null;
+    try {
+      filterChain.doFilter(request, wrapper != null ? wrapper : response);
+    } finally {
+      RequestDiagnostics.clear();
+      String summary = diagnostics.summary();
+      if (wrapper != null) {
+        wrapper.setHeader(HEADER, summary);
+        wrapper.copyBodyToResponse();
+      }
+      if (isOverBudget(diagnostics)) {
+        logger.warn(
+            "Request over budget {} {} [{}] queries:\n  {}",
+            request.getMethod(),
+            request.getRequestURI(),
+            summary,
+            String.join("\n  ", diagnostics.getQueries()));
+      }
+    }
+  }
+
+  private boolean isDownload(HttpServletRequest request) {
+    String path = request.getServletPath();
+    return unbufferedPathSuffixes.stream().anyMatch(path::endsWith);
+  }
+
+  private boolean isOverBudget(RequestDiagnostics diagnostics) {
+    return diagnostics.getStatementCount() > maxQueries
+        || diagnostics.getJdbcMillis() > maxJdbcMillis
+        || diagnostics.getElapsedMillis() > maxTotalMillis;
+  }
+}
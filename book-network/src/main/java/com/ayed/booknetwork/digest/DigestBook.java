@@ -0,0 +1,4 @@
+package com.ayed.booknetwork.digest;
+
+/** A book listed in a digest; {@code ownerId} keeps users' own books out of their digest. */
+public record DigestBook(long ownerId, String title, String authorName) {}
@@ -0,0 +1,49 @@
+package com.ayed.booknetwork.digest;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A weekly digest run, keyed by its ISO week such as {@code 2026-W42}. {@code since} is the start
+ * of the period whose new books the digest lists.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "digest_campaigns")
+public class DigestCampaign {
+  @Id private String id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DigestCampaignStatus status;
+
+  @Column(nullable = false)
+  private LocalDateTime since;
+
+  @Column(nullable = false)
+  private long checkpointUserId;
+
+  @Column(nullable = false)
+  private long sentCount;
+
+  @Column(nullable = false)
+  private long failedCount;
+
+  @Column(nullable = false)
+  private long skippedCount;
+
+  @Column(nullable = false)
+  private LocalDateTime startedAt;
+
+  private LocalDateTime completedAt;
+
+  @Column(nullable = false)
+  private LocalDateTime heartbeatAt;
+}
@@ -0,0 +1,75 @@
+package com.ayed.booknetwork.digest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface DigestCampaignRepository extends JpaRepository<DigestCampaign, String> {
+
+  /** Creates the campaign unless it exists already, e.g. started by another node. */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+          INSERT INTO digest_campaigns (id, status, since, checkpoint_user_id, sent_count,
+              failed_count, skipped_count, started_at, heartbeat_at)
+          VALUES (:id, 'RUNNING', :since, 0, 0, 0, 0, :now, :now)
+          ON CONFLICT (id) DO NOTHING
+          """,
+      nativeQuery = true)
+  int create(String id, LocalDateTime since, LocalDateTime now);
+
+  @Query(
+      """
+      SELECT c FROM DigestCampaign c
+      WHERE c.status = com.ayed.booknetwork.digest.DigestCampaignStatus.RUNNING
+        AND c.heartbeatAt < :staleBefore
+      """)
+  List<DigestCampaign> findStale(LocalDateTime staleBefore);
+
+  /** Takes over a running campaign whose node stopped renewing it. Returns 0 if another did. */
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DigestCampaign c SET c.heartbeatAt = :now
+      WHERE c.id = :id AND c.status = com.ayed.booknetwork.digest.DigestCampaignStatus.RUNNING
+        AND c.heartbeatAt < :staleBefore
+      """)
+  int claim(String id, LocalDateTime now, LocalDateTime staleBefore);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE DigestCampaign c SET c.heartbeatAt = :now WHERE c.id = :id")
+  int heartbeat(String id, LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DigestCampaign c
+      SET c.checkpointUserId = :checkpointUserId, c.sentCount = c.sentCount + :sent,
+          c.failedCount = c.failedCount + :failed, c.skippedCount = c.skippedCount + :skipped,
+          c.heartbeatAt = :now
+      WHERE c.id = :id
+      """)
+  int checkpoint(
+      String id, long checkpointUserId, long sent, long failed, long skipped, LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DigestCampaign c
+      SET c.status = com.ayed.booknetwork.digest.DigestCampaignStatus.COMPLETED,
+          c.completedAt = :now
+      WHERE c.id = :id
+      """)
+  int complete(String id, LocalDateTime now);
+}
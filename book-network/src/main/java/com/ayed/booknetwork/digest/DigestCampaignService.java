@@ -0,0 +1,412 @@
+package com.ayed.booknetwork.digest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.ayed.booknetwork.history.HistoryPartitionService;
+import com.ayed.booknetwork.user.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+/**
+ * Sends the weekly digest to every enabled user: the books shared since last week by others, and
+ * the books they still have to return.
+ *
+ * <p>Recipients are read in pages by user id (keyset, so every page is an index range scan). Each
+ * page is rendered on a small pool and sent through the {@link MailConnectionPool}, paced by a
+ * global rate limit, before the next page is read; memory is bounded by the page size. After each
+ * page the campaign row records the last user id and the counts, and the running node renews its
+ * heartbeat. When a node dies, another one takes the campaign over once the heartbeat is stale and
+ * resumes after the checkpoint, so users of the page in flight may get the digest twice but nobody
+ * is skipped.
+ *
+ * <p>A few failed deliveries are counted and the campaign moves on. When more than {@code
+ * application.digest.max-page-failure-ratio} of a page fails, e.g. because the mail server is down,
+ * the campaign pauses without moving its checkpoint: the node lets the lease expire, and the
+ * campaign is taken over again, by any node, after {@code lease-millis}.
+ *
+ * <p>The service only exists when {@code application.digest.enabled} is set, and mail, templating
+ * and the render and send pools are created when a campaign starts.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.digest", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class DigestCampaignService {
+  private static final Logger logger = LoggerFactory.getLogger(DigestCampaignService.class);
+
+  private final DigestCampaignRepository campaignRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final PlatformTransactionManager transactionManager;
+  // Mail and templating are only needed while a campaign runs, so they are not created at startup.
+  private final ObjectProvider<MailConnectionPool> mailConnectionPool;
+  private final ObjectProvider<SpringTemplateEngine> templateEngine;
+  private final HistoryPartitionService historyPartitionService;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${application.digest.page-size:500}")
+  private int pageSize;
+
+  @Value("${application.digest.render-threads:4}")
+  private int renderThreads;
+
+  @Value("${application.digest.max-per-second:50}")
+  private double maxPerSecond;
+
+  @Value("${application.digest.new-books:5}")
+  private int newBooksPerDigest;
+
+  @Value("${application.digest.lease-millis:300000}")
+  private long leaseMillis;
+
+  @Value("${application.digest.max-page-failure-ratio:0.5}")
+  private double maxPageFailureRatio;
+
+  @Value("${application.digest.from:contact@anis.com}")
+  private String from;
+
+  @Value("${application.digest.books-url:http://localhost:4200/books}")
+  private String booksUrl;
+
+  private final AtomicLong checkpoint = new AtomicLong();
+  private volatile String activeCampaignId;
+  private ExecutorService runner;
+  private ExecutorService renderPool;
+  private ExecutorService sendPool;
+  private SendRateLimiter rateLimiter;
+  private TransactionTemplate readOnlyTransaction;
+  private Counter sent;
+  private Counter failed;
+  private Counter skipped;
+  private Timer sendTimer;
+
+  @PostConstruct
+  void init() {
+    runner = Executors.newSingleThreadExecutor(threadFactory("digest-campaign"));
+    rateLimiter = new SendRateLimiter(maxPerSecond);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+    sent = emailCounter("sent");
+    failed = emailCounter("failed");
+    skipped = emailCounter("skipped");
+    sendTimer =
+        Timer.builder("digest.send")
+            .description("Time to hand a digest to the mail server")
+            .register(meterRegistry);
+    Gauge.builder("digest.campaign.checkpoint", checkpoint, AtomicLong::get)
+        .description("Last user id processed by the campaign running on this node")
+        .register(meterRegistry);
+    Gauge.builder(
+            "digest.campaign.active", this, service -> service.activeCampaignId != null ? 1 : 0)
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    runner.shutdownNow();
+  }
+
+  /** Starts this week's campaign, unless a node already did. */
+  @Scheduled(cron = "${application.digest.cron:0 0 8 * * MON}")
+  public void startWeeklyCampaign() {
+    LocalDateTime now = LocalDateTime.now();
+    String id =
+        String.format(
+            "%d-W%02d",
+            now.get(IsoFields.WEEK_BASED_YEAR), now.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    if (campaignRepository.create(id, now.minusWeeks(1), now) == 1) {
+      runner.execute(() -> run(id));
+    }
+  }
+
+  /** Takes over a campaign whose node stopped renewing its heartbeat, e.g. after a crash. */
+  @Scheduled(
+      fixedDelayString = "${application.digest.resume-check-millis:60000}",
+      initialDelayString = "${application.digest.resume-check-millis:60000}")
+  public void resumeStaleCampaigns() {
+    if (activeCampaignId != null) {
+      return;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime staleBefore = now.minusNanos(leaseMillis * 1_000_000);
+    for (DigestCampaign campaign : campaignRepository.findStale(staleBefore)) {
+      if (campaignRepository.claim(campaign.getId(), now, staleBefore) == 1) {
+        runner.execute(() -> run(campaign.getId()));
+        return;
+      }
+    }
+  }
+
+  // Pages can take long when the mail server is slow, so the lease is renewed independently.
+  @Scheduled(fixedDelayString = "${application.digest.heartbeat-millis:30000}")
+  public void heartbeat() {
+    String id = activeCampaignId;
+    if (id != null) {
+      campaignRepository.heartbeat(id, LocalDateTime.now());
+    }
+  }
+
+  private void run(String id) {
+    activeCampaignId = id;
+    long started = System.currentTimeMillis();
+    long sentBefore = (long) sent.count();
+    try {
+      // One sender per connection, so a sender never waits for a connection.
+      int connections = mailConnectionPool.getObject().getSize();
+      renderPool = Executors.newFixedThreadPool(renderThreads, threadFactory("digest-render"));
+      sendPool = Executors.newFixedThreadPool(connections, threadFactory("digest-send"));
+      DigestCampaign campaign = campaignRepository.findById(id).orElseThrow();
+      List<DigestBook> newBooks = loadNewBooks(campaign.getSince());
+      long after = campaign.getCheckpointUserId();
+      checkpoint.set(after);
+      logger.info("Digest campaign {} running from user id {}", id, after);
+      List<DigestRecipient> page;
+      while (!(page = loadRecipients(after)).isEmpty()) {
+        int[] outcomes = sendPage(page, newBooks);
+        int attempted = outcomes[0] + outcomes[1];
+        if (attempted > 0 && outcomes[1] > attempted * maxPageFailureRatio) {
+          logger.warn(
+              "Digest campaign {} paused after user id {}: {} of {} deliveries failed, it resumes"
+                  + " from its checkpoint once its lease expires",
+              id,
+              after,
+              outcomes[1],
+              attempted);
+          // Renewed once more, so the next attempt waits a full lease.
+          campaignRepository.heartbeat(id, LocalDateTime.now());
+          return;
+        }
+        after = page.get(page.size() - 1).id();
+        campaignRepository.checkpoint(
+            id, after, outcomes[0], outcomes[1], outcomes[2], LocalDateTime.now());
+        checkpoint.set(after);
+      }
+      campaignRepository.complete(id, LocalDateTime.now());
+      long elapsedMillis = Math.max(1, System.currentTimeMillis() - started);
+      long sentNow = (long) sent.count() - sentBefore;
+      logger.info(
+          "Digest campaign {} completed: {} sent in {} s ({} per second)",
+          id,
+          sentNow,
+          elapsedMillis / 1000,
+          sentNow * 1000 / elapsedMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (RuntimeException e) {
+      logger.error("Digest campaign {} stopped, it resumes from its checkpoint", id, e);
+    } finally {
+      if (sendPool != null) {
+        renderPool.shutdownNow();
+        sendPool.shutdownNow();
+      }
+      activeCampaignId = null;
+    }
+  }
+
+  /** Renders and sends one page; returns the sent, failed and skipped counts. */
+  private int[] sendPage(List<DigestRecipient> page, List<DigestBook> newBooks)
+      throws InterruptedException {
+    Map<Long, List<DigestBook>> dueBooks = loadDueBooks(page);
+    AtomicInteger pageSent = new AtomicInteger();
+    AtomicInteger pageFailed = new AtomicInteger();
+    AtomicInteger pageSkipped = new AtomicInteger();
+    List<CompletableFuture<Void>> deliveries = new ArrayList<>(page.size());
+    for (DigestRecipient recipient : page) {
+      List<DigestBook> othersBooks =
+          newBooks.stream()
+              .filter(book -> book.ownerId() != recipient.id())
+              .limit(newBooksPerDigest)
+              .toList();
+      List<DigestBook> due = dueBooks.getOrDefault(recipient.id(), List.of());
+      if (othersBooks.isEmpty() && due.isEmpty()) {
+        pageSkipped.incrementAndGet();
+        continue;
+      }
+      deliveries.add(
+          CompletableFuture.supplyAsync(() -> render(recipient, othersBooks, due), renderPool)
+              .thenAcceptAsync(this::send, sendPool)
+              .whenComplete(
+                  (result, error) -> {
+                    if (error == null) {
+                      pageSent.incrementAndGet();
+                    } else {
+                      pageFailed.incrementAndGet();
+                      logger.debug("Digest to user {} failed", recipient.id(), error);
+                    }
+                  }));
+    }
+    try {
+      CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new)).join();
+    } catch (RuntimeException e) {
+      // Failures are counted per delivery above.
+    }
+    if (Thread.interrupted()) {
+      throw new InterruptedException();
+    }
+    sent.increment(pageSent.get());
+    failed.increment(pageFailed.get());
+    skipped.increment(pageSkipped.get());
+    return new int[] {pageSent.get(), pageFailed.get(), pageSkipped.get()};
+  }
+
+  private MimeMessage render(
+      DigestRecipient recipient, List<DigestBook> newBooks, List<DigestBook> dueBooks) {
+    Context context = new Context();
+    context.setVariable("username", recipient.fullName());
+    context.setVariable("newBooks", newBooks);
+    context.setVariable("dueBooks", dueBooks);
+    context.setVariable("booksUrl", booksUrl);
+    String html = templateEngine.getObject().process("digest", context);
+    try {
+      MimeMessage message = mailConnectionPool.getObject().createMimeMessage();
+      MimeMessageHelper helper = new MimeMessageHelper(message, UTF_8.name());
+      helper.setFrom(from);
+      helper.setTo(recipient.email());
+      helper.setSubject("Your weekly digest");
+      helper.setText(html, true);
+      return message;
+    } catch (MessagingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void send(MimeMessage message) {
+    try {
+      rateLimiter.acquire();
+      long started = System.nanoTime();
+      mailConnectionPool.getObject().send(message);
+      sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    } catch (MessagingException e) {
+      throw new IllegalStateException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<DigestRecipient> loadRecipients(long afterUserId) {
+    return readOnlyTransaction.execute(
+        status ->
+            jdbcTemplate.query(
+                """
+                SELECT id, firstname, lastname, email FROM users
+                WHERE id > ? AND enabled AND NOT account_locked
+                ORDER BY id LIMIT ?
+                """,
+                (resultSet, rowNum) ->
+                    new DigestRecipient(
+                        resultSet.getLong(1),
+                        User.fullName(resultSet.getString(2), resultSet.getString(3)),
+                        resultSet.getString(4)),
+                afterUserId,
+                pageSize));
+  }
+
+  // The newest shared books of the period, with some to spare for the recipients' own.
+  private List<DigestBook> loadNewBooks(LocalDateTime since) {
+    return readOnlyTransaction.execute(
+        status ->
+            jdbcTemplate.query(
+                """
+                SELECT owner_id, title, author_name FROM book
+                WHERE NOT archived AND shareable AND created_date >= ?
+                ORDER BY created_date DESC, id DESC LIMIT ?
+                """,
+                (resultSet, rowNum) ->
+                    new DigestBook(
+                        resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3)),
+                Timestamp.valueOf(since),
+                newBooksPerDigest * 4));
+  }
+
+  // One query per page; only the partitions that can hold an open borrow are read.
+  private Map<Long, List<DigestBook>> loadDueBooks(List<DigestRecipient> page) {
+    Map<Long, List<DigestBook>> dueBooks = new HashMap<>();
+    readOnlyTransaction.executeWithoutResult(
+        status ->
+            jdbcTemplate.execute(
+                (ConnectionCallback<Void>)
+                    connection -> {
+                      Array userIds =
+                          connection.createArrayOf(
+                              "bigint", page.stream().map(DigestRecipient::id).toArray());
+                      try (PreparedStatement statement =
+                          connection.prepareStatement(
+                              """
+                              SELECT h.user_id, b.owner_id, b.title, b.author_name
+                              FROM book_transaction_history h JOIN book b ON b.id = h.book_id
+                              WHERE h.user_id = ANY (?) AND NOT h.returned
+                                AND h.created_date >= ?
+                              """)) {
+                        statement.setArray(1, userIds);
+                        statement.setTimestamp(
+                            2, Timestamp.valueOf(historyPartitionService.getActiveSince()));
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                          while (resultSet.next()) {
+                            dueBooks
+                                .computeIfAbsent(resultSet.getLong(1), id -> new ArrayList<>())
+                                .add(
+                                    new DigestBook(
+                                        resultSet.getLong(2),
+                                        resultSet.getString(3),
+                                        resultSet.getString(4)));
+                          }
+                        }
+                      }
+                      return null;
+                    }));
+    return dueBooks;
+  }
+
+  private Counter emailCounter(String outcome) {
+    return Counter.builder("digest.emails")
+        .description("Digest emails by outcome")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  private static ThreadFactory threadFactory(String prefix) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,6 @@
+package com.ayed.booknetwork.digest;
+
+public enum DigestCampaignStatus {
+  RUNNING,
+  COMPLETED
+}
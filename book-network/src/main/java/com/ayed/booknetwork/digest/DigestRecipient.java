@@ -0,0 +1,3 @@
+package com.ayed.booknetwork.digest;
+
+record DigestRecipient(long id, String fullName, String email) {}
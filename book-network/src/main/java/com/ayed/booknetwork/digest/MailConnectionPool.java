@@ -0,0 +1,94 @@
+package com.ayed.booknetwork.digest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+/**
+ * A fixed set of SMTP connections kept open between messages. {@link JavaMailSender#send} connects
+ * and disconnects for every call, which costs a TCP and TLS handshake plus a login per message; for
+ * bulk mail the connections are reused instead, one caller at a time each.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.digest", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class MailConnectionPool {
+  private static final Logger logger = LoggerFactory.getLogger(MailConnectionPool.class);
+
+  private final JavaMailSender javaMailSender;
+
+  @Value("${application.digest.smtp-connections:4}")
+  private int size;
+
+  private BlockingQueue<Transport> idle;
+
+  @PostConstruct
+  void init() throws MessagingException {
+    JavaMailSenderImpl sender = (JavaMailSenderImpl) javaMailSender;
+    idle = new ArrayBlockingQueue<>(size);
+    for (int i = 0; i < size; i++) {
+      idle.add(sender.getSession().getTransport(sender.getProtocol()));
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    idle.forEach(MailConnectionPool::closeQuietly);
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public MimeMessage createMimeMessage() {
+    return javaMailSender.createMimeMessage();
+  }
+
+  /** Sends the message on a pooled connection, waiting for one to be free. */
+  public void send(MimeMessage message) throws MessagingException, InterruptedException {
+    Transport transport = idle.take();
+    try {
+      message.saveChanges();
+      if (!transport.isConnected()) {
+        connect(transport);
+      }
+      try {
+        transport.sendMessage(message, message.getAllRecipients());
+      } catch (MessagingException e) {
+        // The server may have dropped a connection that sat idle: retry once on a fresh one.
+        logger.debug("Reconnecting to the mail server after: {}", e.getMessage());
+        closeQuietly(transport);
+        connect(transport);
+        transport.sendMessage(message, message.getAllRecipients());
+      }
+    } finally {
+      idle.add(transport);
+    }
+  }
+
+  private void connect(Transport transport) throws MessagingException {
+    JavaMailSenderImpl sender = (JavaMailSenderImpl) javaMailSender;
+    transport.connect(
+        sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+  }
+
+  private static void closeQuietly(Transport transport) {
+    try {
+      transport.close();
+    } catch (MessagingException e) {
+      logger.debug("Closing a mail connection failed", e);
+    }
+  }
+}
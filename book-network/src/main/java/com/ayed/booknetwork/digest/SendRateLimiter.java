@@ -0,0 +1,26 @@
+package com.ayed.booknetwork.digest;
+
+import java.util.concurrent.TimeUnit;
+
+/** Spaces out sends evenly to at most a given number per second, blocking callers as needed. */
+final class SendRateLimiter {
+  private final long intervalNanos;
+  private long nextSlotNanos = System.nanoTime();
+
+  SendRateLimiter(double permitsPerSecond) {
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+  }
+
+  void acquire() throws InterruptedException {
+    long waitNanos;
+    synchronized (this) {
+      long now = System.nanoTime();
+      long slot = Math.max(nextSlotNanos, now);
+      nextSlotNanos = slot + intervalNanos;
+      waitNanos = slot - now;
+    }
+    if (waitNanos > 0) {
+      TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+  }
+}
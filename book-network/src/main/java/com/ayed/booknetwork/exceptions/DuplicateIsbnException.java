@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.exceptions;
+
+public class DuplicateIsbnException extends RuntimeException {
+  public DuplicateIsbnException(String isbn) {
+    super("You already have a book with ISBN " + isbn);
+  }
+}
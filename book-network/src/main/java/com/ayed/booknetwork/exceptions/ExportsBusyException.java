@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.exceptions;
+
+public class ExportsBusyException extends RuntimeException {
+  public ExportsBusyException(String message) {
+    super(message);
+  }
+}
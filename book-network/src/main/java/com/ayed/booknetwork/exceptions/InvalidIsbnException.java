@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.exceptions;
+
+public class InvalidIsbnException extends RuntimeException {
+  public InvalidIsbnException(String isbn) {
+    super("Invalid ISBN: " + isbn);
+  }
+}
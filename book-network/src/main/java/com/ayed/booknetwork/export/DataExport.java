@@ -0,0 +1,46 @@
+package com.ayed.booknetwork.export;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A personal data export job of a user. Once {@link DataExportStatus#COMPLETED}, its zip archive is
+ * on disk until {@code expiresAt}.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "data_exports")
+public class DataExport {
+  @Id private String id;
+
+  @Column(nullable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private DataExportStatus status;
+
+  /**
+   * Renewed by the node running the export while it is unfinished, see {@link DataExportService}.
+   */
+  @Column(nullable = false)
+  private LocalDateTime heartbeatAt;
+
+  private Long fileSize;
+  private String error;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime completedAt;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+}
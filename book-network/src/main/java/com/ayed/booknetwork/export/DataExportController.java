@@ -0,0 +1,110 @@
+package com.ayed.booknetwork.export;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("users/me/exports")
+@RequiredArgsConstructor
+@Tag(name = "User")
+public class DataExportController {
+
+  private final DataExportService dataExportService;
+
+  /**
+   * Start exporting the connected user's data in the background.
+   *
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 202 (Accepted) and the export, or the export still in
+   *     progress if there is one.
+   */
+  @Operation(summary = "Request an export of the connected user's data")
+  @ApiResponse(
+      responseCode = "202",
+      description = "Export started",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = DataExportResponse.class))
+      })
+  @ApiResponse(responseCode = "429", description = "Too many exports in progress")
+  @PostMapping
+  public ResponseEntity<DataExportResponse> requestExport(Authentication connectedUser) {
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(dataExportService.requestExport(connectedUser));
+  }
+
+  /**
+   * Retrieve the state of an export.
+   *
+   * @param exportId The ID of the export.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK) and the export, including its download link
+   *     once completed, or 404 (Not Found) if the user has no such export.
+   */
+  @Operation(summary = "Find an export of the connected user's data")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Export found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = DataExportResponse.class))
+      })
+  @ApiResponse(responseCode = "404", description = "Export not found")
+  @GetMapping("{exportId}")
+  public ResponseEntity<DataExportResponse> findExport(
+      @PathVariable String exportId, Authentication connectedUser) {
+    return ResponseEntity.of(dataExportService.findExport(exportId, connectedUser));
+  }
+
+  /**
+   * Download the archive of a completed export. The file is streamed from disk.
+   *
+   * @param exportId The ID of the export.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK) and the zip archive, or 404 (Not Found) if the
+   *     export is unknown, not completed or expired.
+   */
+  @Operation(summary = "Download an export of the connected user's data")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Archive found",
+      content = {@Content(mediaType = "application/zip")})
+  @ApiResponse(responseCode = "404", description = "Archive not found")
+  @GetMapping("{exportId}/download")
+  public ResponseEntity<Resource> download(
+      @PathVariable String exportId, Authentication connectedUser) {
+    return dataExportService
+        .findArchive(exportId, connectedUser)
+        .<ResponseEntity<Resource>>map(
+            archive ->
+                ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment()
+                            .filename("book-social-network-export.zip")
+                            .build()
+                            .toString())
+                    .body(new FileSystemResource(archive)))
+        .orElse(ResponseEntity.notFound().build());
+  }
+}
@@ -0,0 +1,82 @@
+package com.ayed.booknetwork.export;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface DataExportRepository extends JpaRepository<DataExport, String> {
+
+  Optional<DataExport> findByIdAndUserId(String id, Long userId);
+
+  Optional<DataExport> findFirstByUserIdAndStatusIn(
+      Long userId, Collection<DataExportStatus> statuses);
+
+  List<DataExport> findByExpiresAtBefore(LocalDateTime now);
+
+  /** Marks a pending export as running. Returns 0 if it was failed meanwhile. */
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DataExport e SET e.status = com.ayed.booknetwork.export.DataExportStatus.RUNNING
+      WHERE e.id = :id AND e.status = com.ayed.booknetwork.export.DataExportStatus.PENDING
+      """)
+  int start(String id);
+
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DataExport e
+      SET e.status = com.ayed.booknetwork.export.DataExportStatus.COMPLETED,
+          e.fileSize = :fileSize, e.completedAt = :completedAt
+      WHERE e.id = :id AND e.status = com.ayed.booknetwork.export.DataExportStatus.RUNNING
+      """)
+  int complete(String id, long fileSize, LocalDateTime completedAt);
+
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DataExport e
+      SET e.status = com.ayed.booknetwork.export.DataExportStatus.FAILED,
+          e.error = :error, e.completedAt = :completedAt
+      WHERE e.id = :id
+        AND e.status IN (com.ayed.booknetwork.export.DataExportStatus.PENDING,
+                         com.ayed.booknetwork.export.DataExportStatus.RUNNING)
+      """)
+  int fail(String id, String error, LocalDateTime completedAt);
+
+  /** Renews the lease of the unfinished exports this node is running or has queued. */
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DataExport e SET e.heartbeatAt = :now
+      WHERE e.id IN :ids
+        AND e.status IN (com.ayed.booknetwork.export.DataExportStatus.PENDING,
+                         com.ayed.booknetwork.export.DataExportStatus.RUNNING)
+      """)
+  int heartbeat(Collection<String> ids, LocalDateTime now);
+
+  /** Fails the unfinished exports whose node stopped renewing their lease, e.g. after a crash. */
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE DataExport e
+      SET e.status = com.ayed.booknetwork.export.DataExportStatus.FAILED,
+          e.error = :error, e.completedAt = :now
+      WHERE e.status IN (com.ayed.booknetwork.export.DataExportStatus.PENDING,
+                         com.ayed.booknetwork.export.DataExportStatus.RUNNING)
+        AND e.heartbeatAt < :staleBefore
+      """)
+  int failStale(String error, LocalDateTime now, LocalDateTime staleBefore);
+}
@@ -0,0 +1,14 @@
+package com.ayed.booknetwork.export;
+
+import java.time.LocalDateTime;
+
+/** State of an export; {@code downloadUrl} is set once it completed. */
+public record DataExportResponse(
+    String id,
+    DataExportStatus status,
+    LocalDateTime createdAt,
+    LocalDateTime completedAt,
+    LocalDateTime expiresAt,
+    Long fileSize,
+    String error,
+    String downloadUrl) {}
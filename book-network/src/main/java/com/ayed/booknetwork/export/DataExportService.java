@@ -0,0 +1,355 @@
+package com.ayed.booknetwork.export;
+
+import com.ayed.booknetwork.exceptions.ExportsBusyException;
+import com.ayed.booknetwork.user.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Builds personal data exports: a zip archive of the user's profile, owned books, borrowing history
+ * and written feedback, one CSV file each.
+ *
+ * <p>Each file is streamed by {@code COPY ... TO STDOUT} straight into the zip on disk, so memory
+ * use does not depend on how many rows a user has. All files are read from one repeatable-read
+ * snapshot. Jobs run on a small pool with a bounded queue; when it is full, requests are refused
+ * rather than piling up.
+ *
+ * <p>An unfinished export is leased to the node running it, which renews its heartbeat while the
+ * job is queued or running. Any node fails the exports whose lease has expired, so a job that died
+ * with its node, even one that never comes back under the same name, frees the user's slot once the
+ * lease is over.
+ *
+ * <p>Archives are kept under {@code application.export.path} until they expire. Any node deletes
+ * expired exports, and every node also deletes the archives on its own path older than the
+ * retention. Downloads read the archive from the path of the node serving them: with several nodes,
+ * the path must be storage shared by all of them, otherwise only the building node can serve the
+ * download and the others answer 404.
+ */
+@Service
+@RequiredArgsConstructor
+public class DataExportService {
+  private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+  private static final EnumSet<DataExportStatus> UNFINISHED =
+      EnumSet.of(DataExportStatus.PENDING, DataExportStatus.RUNNING);
+
+  private final DataExportRepository dataExportRepository;
+  private final JdbcTemplate jdbcTemplate;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.export.path:./archive/exports}")
+  private Path exportPath;
+
+  @Value("${application.export.threads:2}")
+  private int threads;
+
+  @Value("${application.export.queue-capacity:16}")
+  private int queueCapacity;
+
+  @Value("${application.export.retention-millis:86400000}")
+  private long retentionMillis;
+
+  @Value("${application.export.lease-millis:300000}")
+  private long leaseMillis;
+
+  /** Exports queued or running on this node, whose lease it renews. */
+  private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+  private ExecutorService executor;
+  private TransactionTemplate snapshotTransaction;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "data-export-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    snapshotTransaction = new TransactionTemplate(transactionManager);
+    snapshotTransaction.setReadOnly(true);
+    snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  /** Starts an export for the user, or returns the one still running. */
+  public DataExportResponse requestExport(Authentication connectedUser) {
+    Long userId = ((User) connectedUser.getPrincipal()).getId();
+    Optional<DataExport> unfinished =
+        dataExportRepository.findFirstByUserIdAndStatusIn(userId, UNFINISHED);
+    if (unfinished.isPresent()) {
+      return toResponse(unfinished.get());
+    }
+    LocalDateTime now = LocalDateTime.now();
+    DataExport export =
+        DataExport.builder()
+            .id(UUID.randomUUID().toString())
+            .userId(userId)
+            .status(DataExportStatus.PENDING)
+            .createdAt(now)
+            .heartbeatAt(now)
+            .expiresAt(now.plusNanos(retentionMillis * 1_000_000))
+            .build();
+    try {
+      dataExportRepository.save(export);
+    } catch (DataIntegrityViolationException e) {
+      // A concurrent request of the same user won the unique index on unfinished exports.
+      return dataExportRepository
+          .findFirstByUserIdAndStatusIn(userId, UNFINISHED)
+          .map(this::toResponse)
+          .orElseThrow(() -> e);
+    }
+    active.add(export.getId());
+    try {
+      executor.execute(() -> run(export));
+    } catch (RejectedExecutionException e) {
+      active.remove(export.getId());
+      dataExportRepository.deleteById(export.getId());
+      throw new ExportsBusyException("Too many data exports are in progress, retry later");
+    }
+    return toResponse(export);
+  }
+
+  public Optional<DataExportResponse> findExport(String id, Authentication connectedUser) {
+    Long userId = ((User) connectedUser.getPrincipal()).getId();
+    return dataExportRepository.findByIdAndUserId(id, userId).map(this::toResponse);
+  }
+
+  /** The archive of a completed export of the user, if it is still on disk. */
+  public Optional<Path> findArchive(String id, Authentication connectedUser) {
+    Long userId = ((User) connectedUser.getPrincipal()).getId();
+    return dataExportRepository
+        .findByIdAndUserId(id, userId)
+        .filter(export -> export.getStatus() == DataExportStatus.COMPLETED)
+        .map(export -> archive(export.getId()))
+        .filter(Files::isRegularFile);
+  }
+
+  // Jobs can take long on a big account, so the lease is renewed independently of their progress.
+  @Scheduled(fixedDelayString = "${application.export.heartbeat-millis:30000}")
+  public void heartbeat() {
+    if (!active.isEmpty()) {
+      dataExportRepository.heartbeat(List.copyOf(active), LocalDateTime.now());
+    }
+  }
+
+  /** Fails the unfinished exports of any node that stopped renewing their lease. */
+  @Scheduled(fixedDelayString = "${application.export.lease-check-millis:60000}")
+  public void failStaleExports() {
+    LocalDateTime now = LocalDateTime.now();
+    int failed =
+        dataExportRepository.failStale("Interrupted", now, now.minusNanos(leaseMillis * 1_000_000));
+    if (failed > 0) {
+      logger.info("Marked {} interrupted data exports as failed", failed);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${application.export.purge-interval-millis:600000}")
+  public void purgeExpired() {
+    for (DataExport export : dataExportRepository.findByExpiresAtBefore(LocalDateTime.now())) {
+      try {
+        Files.deleteIfExists(archive(export.getId()));
+        dataExportRepository.delete(export);
+      } catch (IOException e) {
+        logger.warn("Could not delete data export {}: {}", export.getId(), e.getMessage());
+      }
+    }
+    // Without shared storage, the expired export may have been deleted by a node that does not hold
+    // its archive. An archive is written after its export was created, so one older than the
+    // retention has expired.
+    FileTime expired = FileTime.fromMillis(System.currentTimeMillis() - retentionMillis);
+    try (Stream<Path> files = Files.list(exportPath)) {
+      files
+          .filter(file -> file.getFileName().toString().endsWith(".zip"))
+          .filter(file -> lastModified(file).compareTo(expired) < 0)
+          .forEach(DataExportService::deleteQuietly);
+    } catch (IOException e) {
+      logger.debug("Could not list {}", exportPath, e);
+    }
+  }
+
+  private void run(DataExport export) {
+    long started = System.currentTimeMillis();
+    Path archive = archive(export.getId());
+    Path temporary = archive.resolveSibling(archive.getFileName() + ".tmp");
+    try {
+      if (dataExportRepository.start(export.getId()) == 0) {
+        return;
+      }
+      Files.createDirectories(exportPath);
+      try (ZipOutputStream zip =
+          new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        writeFiles(export.getUserId(), zip);
+      }
+      Files.move(
+          temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (dataExportRepository.complete(export.getId(), Files.size(archive), LocalDateTime.now())
+          == 0) {
+        // Failed meanwhile, e.g. by a restart that outran this job: nobody will download it.
+        deleteQuietly(archive);
+        return;
+      }
+      logger.info(
+          "Data export {} of user {} written in {} ms",
+          export.getId(),
+          export.getUserId(),
+          System.currentTimeMillis() - started);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Data export {} failed", export.getId(), e);
+      deleteQuietly(temporary);
+      dataExportRepository.fail(export.getId(), "Export failed", LocalDateTime.now());
+    } finally {
+      active.remove(export.getId());
+    }
+  }
+
+  // User ids are numbers, so inlining them into COPY, which takes no parameters, is safe.
+  private void writeFiles(long userId, ZipOutputStream zip) {
+    snapshotTransaction.executeWithoutResult(
+        status ->
+            jdbcTemplate.execute(
+                (ConnectionCallback<Void>)
+                    connection -> {
+                      PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                      copy(
+                          pgConnection,
+                          zip,
+                          "profile.csv",
+                          "SELECT id, firstname, lastname, date_of_birth, email, created_date"
+                              + " FROM users WHERE id = "
+                              + userId);
+                      copy(
+                          pgConnection,
+                          zip,
+                          "books.csv",
+                          "SELECT id, title, author_name, isbn, synopsis, archived, shareable,"
+                              + " average_rating, created_date, last_modified_date"
+                              + " FROM book WHERE owner_id = "
+                              + userId
+                              + " ORDER BY id");
+                      copy(
+                          pgConnection,
+                          zip,
+                          "borrowing-history.csv",
+                          "SELECT h.id, h.book_id, b.title, b.author_name, h.returned,"
+                              + " h.return_approved, h.created_date, h.last_modified_date FROM"
+                              + " book_transaction_history h LEFT JOIN book b ON b.id = h.book_id"
+                              + " WHERE h.user_id = "
+                              + userId
+                              + " ORDER BY h.created_date, h.id");
+                      copy(
+                          pgConnection,
+                          zip,
+                          "feedback.csv",
+                          "SELECT f.id, f.book_id, b.title, f.note, f.comment, f.created_date"
+                              + " FROM feedback f LEFT JOIN book b ON b.id = f.book_id"
+                              + " WHERE f.created_by = "
+                              + userId
+                              + " ORDER BY f.id");
+                      return null;
+                    }));
+  }
+
+  private static void copy(
+      PGConnection connection, ZipOutputStream zip, String fileName, String query)
+      throws SQLException {
+    try {
+      zip.putNextEntry(new ZipEntry(fileName));
+      connection
+          .getCopyAPI()
+          .copyOut("COPY (" + query + ") TO STDOUT WITH (FORMAT csv, HEADER)", zip);
+      zip.closeEntry();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private DataExportResponse toResponse(DataExport export) {
+    String downloadUrl =
+        export.getStatus() == DataExportStatus.COMPLETED
+            ? ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/users/me/exports/{id}/download")
+                .buildAndExpand(export.getId())
+                .toUriString()
+            : null;
+    return new DataExportResponse(
+        export.getId(),
+        export.getStatus(),
+        export.getCreatedAt(),
+        export.getCompletedAt(),
+        export.getExpiresAt(),
+        export.getFileSize(),
+        export.getError(),
+        downloadUrl);
+  }
+
+  private Path archive(String id) {
+    return exportPath.resolve(id + ".zip");
+  }
+
+  private static FileTime lastModified(Path path) {
+    try {
+      return Files.getLastModifiedTime(path);
+    } catch (IOException e) {
+      // Deleted meanwhile.
+      return FileTime.fromMillis(Long.MAX_VALUE);
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.debug("Could not delete {}", path, e);
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package com.ayed.booknetwork.export;
+
+public enum DataExportStatus {
+  PENDING,
+  RUNNING,
+  COMPLETED,
+  FAILED
+}
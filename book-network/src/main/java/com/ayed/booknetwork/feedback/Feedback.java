@@ -2,7 +2,10 @@ package com.ayed.booknetwork.feedback;
 
 import com.ayed.booknetwork.book.Book;
 import com.ayed.booknetwork.common.BaseEntity;
+import com.ayed.booknetwork.leaderboard.BookActivityListener;
+import com.ayed.booknetwork.user.UserStatsListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import lombok.*;
@@ -14,6 +17,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@EntityListeners({BookActivityListener.class, UserStatsListener.class})
 public class Feedback extends BaseEntity {
   private Double note;
   private String comment;
@@ -0,0 +1,132 @@
+package com.ayed.booknetwork.follow;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("users")
+@RequiredArgsConstructor
+@Tag(name = "User")
+public class FollowController {
+
+  private final FollowService followService;
+
+  /**
+   * Follow a user.
+   *
+   * @param userId The ID of the user to follow.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 204 (No Content), also if the user was already
+   *     followed.
+   */
+  @Operation(summary = "Follow a user")
+  @ApiResponse(responseCode = "204", description = "User followed")
+  @ApiResponse(responseCode = "400", description = "The user tried to follow themselves")
+  @PutMapping("me/following/{userId}")
+  public ResponseEntity<Void> follow(@PathVariable Long userId, Authentication connectedUser) {
+    followService.follow(userId, connectedUser);
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Stop following a user.
+   *
+   * @param userId The ID of the user to unfollow.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 204 (No Content), also if the user was not followed.
+   */
+  @Operation(summary = "Unfollow a user")
+  @ApiResponse(responseCode = "204", description = "User unfollowed")
+  @DeleteMapping("me/following/{userId}")
+  public ResponseEntity<Void> unfollow(@PathVariable Long userId, Authentication connectedUser) {
+    followService.unfollow(userId, connectedUser);
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Retrieve how the connected user and another user are connected.
+   *
+   * @param userId The ID of the other user.
+   * @param limit The maximum number of users both follow to list.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK), whether each follows the other and the users
+   *     they both follow.
+   */
+  @Operation(summary = "Find the follow relationship with a user")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Relationship found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = FollowRelationResponse.class))
+      })
+  @GetMapping("{userId}/relation")
+  public ResponseEntity<FollowRelationResponse> findRelation(
+      @PathVariable Long userId,
+      @RequestParam(name = "limit", defaultValue = "10", required = false) int limit,
+      Authentication connectedUser) {
+    return ResponseEntity.ok(followService.findRelation(userId, limit, connectedUser));
+  }
+
+  /**
+   * Suggest users to follow among those followed by the users the connected user follows.
+   *
+   * @param limit The maximum number of suggestions.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK) and the suggestions, the users followed by
+   *     most of the connected user's followees first.
+   */
+  @Operation(summary = "Suggest users to follow")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Suggestions found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = FollowSuggestionResponse.class)))
+      })
+  @GetMapping("me/follow-suggestions")
+  public ResponseEntity<List<FollowSuggestionResponse>> findSuggestions(
+      @RequestParam(name = "limit", defaultValue = "10", required = false) int limit,
+      Authentication connectedUser) {
+    return ResponseEntity.ok(followService.findSuggestions(limit, connectedUser));
+  }
+
+  /**
+   * Retrieve the followed users who lend a copy of a book.
+   *
+   * @param bookId The ID of a copy of the book; copies are matched by ISBN.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK) and the followed owners with their copy.
+   */
+  @Operation(summary = "Find followed users owning a book")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Owners found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = FollowedOwnerResponse.class)))
+      })
+  @GetMapping("me/following/owners")
+  public ResponseEntity<List<FollowedOwnerResponse>> findFollowedOwners(
+      @RequestParam(name = "bookId") Long bookId, Authentication connectedUser) {
+    return ResponseEntity.ok(followService.findFollowedOwners(bookId, connectedUser));
+  }
+}
@@ -0,0 +1,178 @@
+package com.ayed.booknetwork.follow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory adjacency of the follow graph: for every user, the ids they follow as a sorted {@code
+ * long} array. An update replaces the array it changes rather than writing into it, so readers take
+ * no lock and always see a whole list.
+ */
+class FollowGraph {
+  private static final long[] NONE = new long[0];
+
+  private final Map<Long, long[]> following;
+
+  FollowGraph() {
+    this(new ConcurrentHashMap<>());
+  }
+
+  FollowGraph(Map<Long, long[]> following) {
+    this.following = following;
+  }
+
+  long[] following(long userId) {
+    return following.getOrDefault(userId, NONE);
+  }
+
+  boolean follows(long followerId, long followeeId) {
+    return Arrays.binarySearch(following(followerId), followeeId) >= 0;
+  }
+
+  int edgeCount() {
+    return following.values().stream().mapToInt(ids -> ids.length).sum();
+  }
+
+  // Serialized so that concurrent changes to one user's list never overwrite each other.
+  synchronized void set(long followerId, long followeeId, boolean present) {
+    update(following, followerId, followeeId, present);
+  }
+
+  /** The ids found in both sorted arrays, in ascending order. */
+  static long[] intersect(long[] first, long[] second) {
+    long[] smaller = first.length <= second.length ? first : second;
+    long[] larger = smaller == first ? second : first;
+    long[] common = new long[smaller.length];
+    int size = 0;
+    int from = 0;
+    for (long id : smaller) {
+      int index = Arrays.binarySearch(larger, from, larger.length, id);
+      if (index >= 0) {
+        common[size++] = id;
+        from = index + 1;
+      } else {
+        from = -index - 1;
+      }
+      if (from == larger.length) {
+        break;
+      }
+    }
+    return Arrays.copyOf(common, size);
+  }
+
+  /**
+   * Users followed by the users {@code userId} follows, but not by {@code userId}, ranked by how
+   * many of those follow them and then by id. At most {@code maxCandidates} edges are counted, so
+   * users following many prolific followers get a cheaper, partial ranking.
+   */
+  List<Suggestion> suggest(long userId, int limit, int maxCandidates) {
+    long[] direct = following(userId);
+    long fanout = 0;
+    for (long followeeId : direct) {
+      fanout += following(followeeId).length;
+    }
+    long[] candidates = new long[(int) Math.min(fanout, maxCandidates)];
+    int size = 0;
+    collect:
+    for (long followeeId : direct) {
+      for (long candidate : following(followeeId)) {
+        if (size == candidates.length) {
+          break collect;
+        }
+        if (candidate != userId && Arrays.binarySearch(direct, candidate) < 0) {
+          candidates[size++] = candidate;
+        }
+      }
+    }
+    // Sorted, each candidate is a run whose length is its count; runs come in ascending id order,
+    // so keeping the first of equal counts breaks ties to the lower id.
+    Arrays.sort(candidates, 0, size);
+    long[] topIds = new long[limit];
+    int[] topCounts = new int[limit];
+    int found = 0;
+    for (int start = 0, end; start < size; start = end) {
+      end = start + 1;
+      while (end < size && candidates[end] == candidates[start]) {
+        end++;
+      }
+      int count = end - start;
+      if (found == limit && count <= topCounts[limit - 1]) {
+        continue;
+      }
+      int position = found < limit ? found++ : limit - 1;
+      while (position > 0 && topCounts[position - 1] < count) {
+        topIds[position] = topIds[position - 1];
+        topCounts[position] = topCounts[position - 1];
+        position--;
+      }
+      topIds[position] = candidates[start];
+      topCounts[position] = count;
+    }
+    List<Suggestion> suggestions = new ArrayList<>(found);
+    for (int i = 0; i < found; i++) {
+      suggestions.add(new Suggestion(topIds[i], topCounts[i]));
+    }
+    return suggestions;
+  }
+
+  private static void update(
+      Map<Long, long[]> adjacency, long userId, long otherId, boolean present) {
+    long[] current = adjacency.getOrDefault(userId, NONE);
+    int index = Arrays.binarySearch(current, otherId);
+    if (present == index >= 0) {
+      return;
+    }
+    if (present) {
+      int insertion = -index - 1;
+      long[] updated = new long[current.length + 1];
+      System.arraycopy(current, 0, updated, 0, insertion);
+      updated[insertion] = otherId;
+      System.arraycopy(current, insertion, updated, insertion + 1, current.length - insertion);
+      adjacency.put(userId, updated);
+    } else if (current.length == 1) {
+      adjacency.remove(userId);
+    } else {
+      long[] updated = new long[current.length - 1];
+      System.arraycopy(current, 0, updated, 0, index);
+      System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+      adjacency.put(userId, updated);
+    }
+  }
+
+  /** A suggested user, followed by {@code followedBy} of the users the viewer follows. */
+  record Suggestion(long userId, int followedBy) {}
+
+  /** Collects adjacency lists from edges sorted by user, then by the other user. */
+  static class ListBuilder {
+    private final Map<Long, long[]> adjacency = new ConcurrentHashMap<>();
+    private long userId;
+    private long[] buffer = new long[16];
+    private int size;
+
+    void add(long userId, long otherId) {
+      if (size > 0 && userId != this.userId) {
+        flush();
+      }
+      this.userId = userId;
+      if (size == buffer.length) {
+        buffer = Arrays.copyOf(buffer, size * 2);
+      }
+      buffer[size++] = otherId;
+    }
+
+    Map<Long, long[]> build() {
+      flush();
+      return adjacency;
+    }
+
+    private void flush() {
+      if (size > 0) {
+        adjacency.put(userId, Arrays.copyOf(buffer, size));
+        size = 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.ayed.booknetwork.follow;
+
+import java.util.List;
+
+/**
+ * How the connected user and another user are connected: whether each follows the other, and the
+ * users they both follow, {@code mutualFollowingCount} in total of which the first few are listed.
+ */
+public record FollowRelationResponse(
+    boolean following,
+    boolean followedBy,
+    int mutualFollowingCount,
+    List<FollowUserResponse> mutualFollowing) {}
@@ -0,0 +1,379 @@
+package com.ayed.booknetwork.follow;
+
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.cache.InvalidationBus;
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
+import com.ayed.booknetwork.user.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Follow relationships between users. Edges are stored in {@code user_follows} and mirrored in a
+ * {@link FollowGraph} on every node, which answers the relationship, suggestion and followed-owner
+ * queries without joining the table with itself.
+ *
+ * <p>A follow or unfollow is applied to the local graph as soon as it is written, and announced as
+ * a {@code follow} invalidation keyed by the edge. Every node, this one included, then reads the
+ * current state of the announced edges back from the database, so that concurrent changes to one
+ * edge settle on the committed one. The graph is rebuilt when invalidations may have been lost.
+ */
+@Service
+@RequiredArgsConstructor
+public class FollowService implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(FollowService.class);
+
+  private final JdbcTemplate jdbcTemplate;
+  private final InvalidationBus invalidationBus;
+  private final ApplicationEventPublisher publisher;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.follow.fetch-size:5000}")
+  private int fetchSize;
+
+  @Value("${application.follow.max-suggestion-candidates:100000}")
+  private int maxSuggestionCandidates;
+
+  @Value("${application.follow.max-results:50}")
+  private int maxResults;
+
+  private final Set<String> changed = ConcurrentHashMap.newKeySet();
+  private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+  private volatile FollowGraph graph = new FollowGraph();
+  private volatile boolean rebuilding;
+  private volatile boolean running;
+  private ExecutorService rebuilder;
+
+  @PostConstruct
+  void init() {
+    rebuilder =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "follow-graph-rebuilder");
+              thread.setDaemon(true);
+              return thread;
+            });
+    invalidationBus.addListener(EntityChangedEvent.FOLLOW, this::onFollowChanged);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    rebuilder.shutdownNow();
+  }
+
+  // A lifecycle start rather than @PostConstruct, like the ISBN filter: the graph is loaded before
+  // the web server accepts requests, but not during a CDS training run.
+  @Override
+  public void start() {
+    rebuild();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+
+  public void follow(Long userId, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    if (Objects.equals(user.getId(), userId)) {
+      throw new OperationNotPermittedException("You cannot follow yourself");
+    }
+    try {
+      jdbcTemplate.update(
+          """
+          INSERT INTO user_follows (follower_id, followee_id, created_at) VALUES (?, ?, ?)
+          ON CONFLICT DO NOTHING
+          """,
+          user.getId(),
+          userId,
+          Timestamp.valueOf(LocalDateTime.now()));
+    } catch (DataIntegrityViolationException e) {
+      throw new EntityNotFoundException("User not found with id " + userId);
+    }
+    changed(user.getId(), userId, true);
+  }
+
+  public void unfollow(Long userId, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    jdbcTemplate.update(
+        "DELETE FROM user_follows WHERE follower_id = ? AND followee_id = ?", user.getId(), userId);
+    changed(user.getId(), userId, false);
+  }
+
+  /** Whether the two users follow each other, and the users they both follow. */
+  public FollowRelationResponse findRelation(Long userId, int limit, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    FollowGraph current = graph;
+    long[] mutual =
+        FollowGraph.intersect(current.following(user.getId()), current.following(userId));
+    long[] listed = Arrays.copyOf(mutual, Math.min(mutual.length, size(limit)));
+    Map<Long, String> names = findNames(listed);
+    return new FollowRelationResponse(
+        current.follows(user.getId(), userId),
+        current.follows(userId, user.getId()),
+        mutual.length,
+        Arrays.stream(listed)
+            .mapToObj(id -> new FollowUserResponse(id, names.get(id)))
+            .filter(response -> response.fullName() != null)
+            .toList());
+  }
+
+  /** Users followed by the users the connected user follows, most followed among them first. */
+  public List<FollowSuggestionResponse> findSuggestions(int limit, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    List<FollowGraph.Suggestion> suggestions =
+        graph.suggest(user.getId(), size(limit), maxSuggestionCandidates);
+    Map<Long, String> names =
+        findNames(suggestions.stream().mapToLong(FollowGraph.Suggestion::userId).toArray());
+    return suggestions.stream()
+        .filter(suggestion -> names.containsKey(suggestion.userId()))
+        .map(
+            suggestion ->
+                new FollowSuggestionResponse(
+                    suggestion.userId(), names.get(suggestion.userId()), suggestion.followedBy()))
+        .toList();
+  }
+
+  /**
+   * The followed users lending a copy of the book, that is a shareable book with the same ISBN. The
+   * copies are read from the ISBN catalog index and checked against the graph.
+   */
+  public List<FollowedOwnerResponse> findFollowedOwners(Long bookId, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    List<String> isbns =
+        jdbcTemplate.queryForList("SELECT isbn FROM book WHERE id = ?", String.class, bookId);
+    if (isbns.isEmpty()) {
+      throw new EntityNotFoundException("Book not found with id " + bookId);
+    }
+    long[] following = graph.following(user.getId());
+    if (following.length == 0) {
+      return List.of();
+    }
+    Map<Long, Long> bookByOwner = new HashMap<>();
+    RowCallbackHandler collect =
+        resultSet -> {
+          long ownerId = resultSet.getLong(2);
+          if (Arrays.binarySearch(following, ownerId) >= 0) {
+            bookByOwner.putIfAbsent(ownerId, resultSet.getLong(1));
+          }
+        };
+    if (isbns.get(0) == null) {
+      jdbcTemplate.query(
+          "SELECT id, owner_id FROM book WHERE id = ? AND shareable AND NOT archived",
+          collect,
+          bookId);
+    } else {
+      jdbcTemplate.query(
+          "SELECT id, owner_id FROM book WHERE isbn = ? AND shareable AND NOT archived ORDER BY id",
+          collect,
+          isbns.get(0));
+    }
+    Map<Long, String> names =
+        findNames(bookByOwner.keySet().stream().mapToLong(Long::longValue).sorted().toArray());
+    return names.entrySet().stream()
+        .map(
+            owner ->
+                new FollowedOwnerResponse(
+                    owner.getKey(), owner.getValue(), bookByOwner.get(owner.getKey())))
+        .toList();
+  }
+
+  /** Reads back the edges announced since the last refresh and applies their current state. */
+  @Scheduled(fixedDelayString = "${application.follow.refresh-millis:1000}")
+  public void refresh() {
+    if (changed.isEmpty()) {
+      return;
+    }
+    List<String> keys = new ArrayList<>(changed);
+    changed.removeAll(keys);
+    if (rebuilding) {
+      changedDuringRebuild.addAll(keys);
+    }
+    long[] followerIds = new long[keys.size()];
+    long[] followeeIds = new long[keys.size()];
+    for (int i = 0; i < keys.size(); i++) {
+      String key = keys.get(i);
+      int separator = key.indexOf(':');
+      followerIds[i] = Long.parseLong(key.substring(0, separator));
+      followeeIds[i] = Long.parseLong(key.substring(separator + 1));
+    }
+    Set<String> present = new HashSet<>();
+    // Outside a read-only transaction, so on the primary: a lagging replica may miss the change.
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              Array followers =
+                  connection.createArrayOf("bigint", Arrays.stream(followerIds).boxed().toArray());
+              Array followees =
+                  connection.createArrayOf("bigint", Arrays.stream(followeeIds).boxed().toArray());
+              try (PreparedStatement statement =
+                  connection.prepareStatement(
+                      """
+                      SELECT f.follower_id, f.followee_id
+                      FROM unnest(?, ?) AS e (follower_id, followee_id)
+                      JOIN user_follows f USING (follower_id, followee_id)
+                      """)) {
+                statement.setArray(1, followers);
+                statement.setArray(2, followees);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                  while (resultSet.next()) {
+                    present.add(key(resultSet.getLong(1), resultSet.getLong(2)));
+                  }
+                }
+              }
+              return null;
+            });
+    FollowGraph current = graph;
+    for (int i = 0; i < keys.size(); i++) {
+      current.set(followerIds[i], followeeIds[i], present.contains(keys.get(i)));
+    }
+  }
+
+  private void changed(Long followerId, Long followeeId, boolean following) {
+    graph.set(followerId, followeeId, following);
+    publisher.publishEvent(
+        new EntityChangedEvent(EntityChangedEvent.FOLLOW, key(followerId, followeeId)));
+  }
+
+  // On the invalidation delivery thread, so only queues the work.
+  private void onFollowChanged(String key) {
+    if (EntityChangedEvent.ALL.equals(key)) {
+      if (rebuildRequested.compareAndSet(false, true)) {
+        rebuilder.execute(
+            () -> {
+              rebuildRequested.set(false);
+              rebuild();
+            });
+      }
+    } else if (key.indexOf(':') > 0) {
+      changed.add(key);
+    } else {
+      logger.debug("Ignoring follow invalidation with key {}", key);
+    }
+  }
+
+  // Edges refreshed while the rows are read may be missing from them, so they are read back once
+  // more after the new graph is in place.
+  private synchronized void rebuild() {
+    long started = System.currentTimeMillis();
+    rebuilding = true;
+    changedDuringRebuild.clear();
+    try {
+      FollowGraph.ListBuilder following = new FollowGraph.ListBuilder();
+      // Inside a transaction so the driver streams the rows with a cursor.
+      new TransactionTemplate(transactionManager)
+          .executeWithoutResult(
+              status ->
+                  stream(
+                      "SELECT follower_id, followee_id FROM user_follows ORDER BY follower_id,"
+                          + " followee_id",
+                      following));
+      FollowGraph rebuilt = new FollowGraph(following.build());
+      graph = rebuilt;
+      changed.addAll(changedDuringRebuild);
+      logger.info(
+          "Built the follow graph with {} edges in {} ms",
+          rebuilt.edgeCount(),
+          System.currentTimeMillis() - started);
+    } finally {
+      rebuilding = false;
+    }
+  }
+
+  private void stream(String sql, FollowGraph.ListBuilder builder) {
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement = connection.prepareStatement(sql);
+          statement.setFetchSize(fetchSize);
+          return statement;
+        },
+        (RowCallbackHandler) resultSet -> builder.add(resultSet.getLong(1), resultSet.getLong(2)));
+  }
+
+  // Names in the order of the ids; users that no longer exist are left out.
+  private Map<Long, String> findNames(long[] ids) {
+    Map<Long, String> names = new LinkedHashMap<>();
+    if (ids.length == 0) {
+      return names;
+    }
+    Map<Long, String> found = new HashMap<>();
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              Array idArray =
+                  connection.createArrayOf("bigint", Arrays.stream(ids).boxed().toArray());
+              try (PreparedStatement statement =
+                  connection.prepareStatement(
+                      "SELECT id, firstname, lastname FROM users WHERE id = ANY (?)")) {
+                statement.setArray(1, idArray);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                  while (resultSet.next()) {
+                    found.put(
+                        resultSet.getLong(1),
+                        User.fullName(resultSet.getString(2), resultSet.getString(3)));
+                  }
+                }
+              }
+              return null;
+            });
+    for (long id : ids) {
+      if (found.containsKey(id)) {
+        names.put(id, found.get(id));
+      }
+    }
+    return names;
+  }
+
+  private int size(int limit) {
+    return Math.max(1, Math.min(limit, maxResults));
+  }
+
+  private static String key(long followerId, long followeeId) {
+    return followerId + ":" + followeeId;
+  }
+}
@@ -0,0 +1,4 @@
+package com.ayed.booknetwork.follow;
+
+/** A user to follow, followed by {@code followedBy} of the users the connected user follows. */
+public record FollowSuggestionResponse(Long id, String fullName, int followedBy) {}
@@ -0,0 +1,3 @@
+package com.ayed.booknetwork.follow;
+
+public record FollowUserResponse(Long id, String fullName) {}
@@ -0,0 +1,4 @@
+package com.ayed.booknetwork.follow;
+
+/** A followed user owning a copy of the requested book, {@code bookId}, that they lend. */
+public record FollowedOwnerResponse(Long userId, String fullName, Long bookId) {}
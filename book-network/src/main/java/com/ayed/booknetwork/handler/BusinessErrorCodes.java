@@ -1,10 +1,10 @@
 package com.ayed.booknetwork.handler;
 
+import static org.springframework.http.HttpStatus.*;
+
 import lombok.Getter;
 import org.springframework.http.HttpStatus;
 
-import static org.springframework.http.HttpStatus.*;
-
 @Getter
 public enum BusinessErrorCodes {
   NO_CODE(0, NOT_IMPLEMENTED, "No code"),
@@ -13,6 +13,17 @@ public enum BusinessErrorCodes {
   ACCOUNT_LOCKED(302, FORBIDDEN, "User account is locked"),
   ACCOUNT_DISABLED(303, FORBIDDEN, "User account is disabled"),
   BAD_CREDENTIALS(304, FORBIDDEN, "Login and / or Password is incorrect"),
+  RATE_LIMITED(305, TOO_MANY_REQUESTS, "Too many requests, please retry later"),
+  IDEMPOTENCY_KEY_REUSED(
+      306, UNPROCESSABLE_ENTITY, "The idempotency key was already used for a different request"),
+  IDEMPOTENT_REQUEST_IN_PROGRESS(
+      307,
+      CONFLICT,
+      "A request with this idempotency key is still in progress, please retry later"),
+  OVERLOADED(308, SERVICE_UNAVAILABLE, "The service is overloaded, please retry later"),
+  INVALID_ISBN(309, BAD_REQUEST, "The ISBN is not a valid ISBN-10 or ISBN-13"),
+  DUPLICATE_ISBN(310, CONFLICT, "A book with this ISBN already exists"),
+  EXPORTS_BUSY(311, TOO_MANY_REQUESTS, "Too many data exports are in progress, please retry later"),
   ;
 
   private final int code;
@@ -4,6 +4,9 @@ import static com.ayed.booknetwork.handler.BusinessErrorCodes.*;
 import static org.springframework.http.HttpStatus.*;
 
 import com.ayed.booknetwork.exceptions.ActivationTokenException;
+import com.ayed.booknetwork.exceptions.DuplicateIsbnException;
+import com.ayed.booknetwork.exceptions.ExportsBusyException;
+import com.ayed.booknetwork.exceptions.InvalidIsbnException;
 import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
 import jakarta.mail.MessagingException;
 import java.util.HashSet;
@@ -73,6 +76,39 @@ public class GlobalExceptionHandler {
         .body(ExceptionResponse.builder().error(exp.getMessage()).build());
   }
 
+  @ExceptionHandler(InvalidIsbnException.class)
+  public ResponseEntity<ExceptionResponse> handleException(InvalidIsbnException exp) {
+    return ResponseEntity.status(INVALID_ISBN.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(INVALID_ISBN.getCode())
+                .businessErrorDescription(INVALID_ISBN.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(DuplicateIsbnException.class)
+  public ResponseEntity<ExceptionResponse> handleException(DuplicateIsbnException exp) {
+    return ResponseEntity.status(DUPLICATE_ISBN.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(DUPLICATE_ISBN.getCode())
+                .businessErrorDescription(DUPLICATE_ISBN.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
+  @ExceptionHandler(ExportsBusyException.class)
+  public ResponseEntity<ExceptionResponse> handleException(ExportsBusyException exp) {
+    return ResponseEntity.status(EXPORTS_BUSY.getHttpStatus())
+        .body(
+            ExceptionResponse.builder()
+                .businessErrorCode(EXPORTS_BUSY.getCode())
+                .businessErrorDescription(EXPORTS_BUSY.getDescription())
+                .error(exp.getMessage())
+                .build());
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<ExceptionResponse> handleMethodArgumentNotValidException(
       MethodArgumentNotValidException exp) {
@@ -2,10 +2,13 @@ package com.ayed.booknetwork.history;
 
 import com.ayed.booknetwork.book.Book;
 import com.ayed.booknetwork.common.BaseEntity;
+import com.ayed.booknetwork.leaderboard.BookActivityListener;
 import com.ayed.booknetwork.user.User;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -18,6 +21,7 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @SuperBuilder
 @Entity
+@EntityListeners({BookActivityListener.class, BorrowActivityListener.class})
 public class BookTransactionHistory extends BaseEntity {
 
   @ManyToOne
@@ -30,4 +34,8 @@ public class BookTransactionHistory extends BaseEntity {
 
   private boolean returned;
   private boolean returnApproved;
+
+  // Flag values as last loaded or flushed, so BorrowActivityListener can tell a change apart.
+  @Transient private boolean loadedReturned;
+  @Transient private boolean loadedReturnApproved;
 }
@@ -0,0 +1,31 @@
+package com.ayed.booknetwork.history;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Active-borrow lookups take the {@code activeSince} bound of {@link HistoryPartitionService} so
+ * that PostgreSQL prunes every partition older than the oldest open borrow.
+ */
+@Repository
+public interface BookTransactionHistoryRepository
+    extends JpaRepository<BookTransactionHistory, Long> {
+
+  @Query(
+      """
+      SELECT (COUNT(h) > 0) FROM BookTransactionHistory h
+      WHERE h.book.id = :bookId AND h.returnApproved = false AND h.createdDate >= :activeSince
+      """)
+  boolean isBookBorrowed(Long bookId, LocalDateTime activeSince);
+
+  /** The user currently borrowing the book, if any; a book has at most one open borrow. */
+  @Query(
+      """
+      SELECT h.user.id FROM BookTransactionHistory h
+      WHERE h.book.id = :bookId AND h.returnApproved = false AND h.createdDate >= :activeSince
+      """)
+  List<Long> findActiveBorrowerIds(Long bookId, LocalDateTime activeSince);
+}
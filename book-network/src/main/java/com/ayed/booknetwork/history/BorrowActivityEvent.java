@@ -0,0 +1,18 @@
+package com.ayed.booknetwork.history;
+
+/** A borrow was recorded, or its {@code returned} or {@code returnApproved} flag was set. */
+public record BorrowActivityEvent(
+    Type type,
+    Long bookId,
+    String bookTitle,
+    Long ownerId,
+    String ownerName,
+    Long borrowerId,
+    String borrowerName) {
+
+  public enum Type {
+    BORROWED,
+    RETURNED,
+    RETURN_APPROVED
+  }
+}
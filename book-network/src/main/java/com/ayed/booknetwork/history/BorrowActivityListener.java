@@ -0,0 +1,62 @@
+package com.ayed.booknetwork.history;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.user.User;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener turning new borrows and changes of the {@code returned} and {@code
+ * returnApproved} flags into {@link BorrowActivityEvent}s. The flags are compared with their loaded
+ * values so that unrelated updates do not publish again.
+ */
+@Component
+@RequiredArgsConstructor
+public class BorrowActivityListener {
+  private final ApplicationEventPublisher publisher;
+
+  @PostLoad
+  public void onLoad(BookTransactionHistory history) {
+    history.setLoadedReturned(history.isReturned());
+    history.setLoadedReturnApproved(history.isReturnApproved());
+  }
+
+  @PostPersist
+  public void onPersist(BookTransactionHistory history) {
+    publish(history, BorrowActivityEvent.Type.BORROWED);
+    onLoad(history);
+  }
+
+  @PostUpdate
+  public void onUpdate(BookTransactionHistory history) {
+    if (history.isReturned() && !history.isLoadedReturned()) {
+      publish(history, BorrowActivityEvent.Type.RETURNED);
+    }
+    if (history.isReturnApproved() && !history.isLoadedReturnApproved()) {
+      publish(history, BorrowActivityEvent.Type.RETURN_APPROVED);
+    }
+    onLoad(history);
+  }
+
+  private void publish(BookTransactionHistory history, BorrowActivityEvent.Type type) {
+    Book book = history.getBook();
+    User owner = book != null ? book.getOwner() : null;
+    User borrower = history.getUser();
+    if (owner == null || borrower == null) {
+      return;
+    }
+    publisher.publishEvent(
+        new BorrowActivityEvent(
+            type,
+            book.getId(),
+            book.getTitle(),
+            owner.getId(),
+            owner.fullName(),
+            borrower.getId(),
+            borrower.fullName()));
+  }
+}
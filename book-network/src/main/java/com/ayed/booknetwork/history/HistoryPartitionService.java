@@ -0,0 +1,294 @@
+package com.ayed.booknetwork.history;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Maintains the monthly partitions of {@code book_transaction_history}. Partitions are created a
+ * few months ahead; those past the retention period that hold no open borrow are exported to a
+ * gzipped CSV file, detached and dropped. Their per-user borrow counts are added to {@code
+ * archived_borrow_counts} in the transaction that drops them, for the user stats rebuild.
+ * Maintenance holds an advisory lock, so only one node does it at a time.
+ *
+ * <p>Also tracks {@link #getActiveSince()}, the start of the oldest partition holding an open
+ * borrow. Active-borrow queries bound {@code created_date} with it and so only read the hot
+ * partitions.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoryPartitionService implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(HistoryPartitionService.class);
+  private static final String TABLE = "book_transaction_history";
+  private static final String PARTITION_PREFIX = TABLE + "_p";
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+  private static final long LOCK_KEY = TABLE.hashCode();
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Value("${application.history.partitions.premake-months:3}")
+  private int premakeMonths;
+
+  @Value("${application.history.partitions.retention-months:12}")
+  private int retentionMonths;
+
+  @Value("${application.history.partitions.archive-path:./archive/history}")
+  private Path archivePath;
+
+  private volatile LocalDateTime activeSince = YearMonth.now().atDay(1).atStartOfDay();
+  private volatile boolean running;
+  private ExecutorService maintainer;
+
+  @PostConstruct
+  void init() {
+    // Archiving copies whole partitions out, too long for the shared scheduler thread.
+    maintainer =
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "history-maintenance");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @PreDestroy
+  void shutdown() {
+    maintainer.shutdownNow();
+  }
+
+  public LocalDateTime getActiveSince() {
+    return activeSince;
+  }
+
+  // A lifecycle start rather than @PostConstruct, like the token revocation rebuild: partitions
+  // must exist before the first borrow, but not during a CDS training run.
+  @Override
+  public void start() {
+    maintain();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+
+  @Scheduled(
+      fixedDelayString = "${application.history.partitions.maintenance-interval-millis:3600000}",
+      initialDelayString = "${application.history.partitions.maintenance-interval-millis:3600000}")
+  public void scheduleMaintenance() {
+    maintainer.execute(
+        () -> {
+          try {
+            maintain();
+          } catch (RuntimeException e) {
+            logger.error("History partition maintenance failed", e);
+          }
+        });
+  }
+
+  public void maintain() {
+    refreshActiveSince();
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              if (!tryLock(connection)) {
+                return null;
+              }
+              try {
+                createFuturePartitions(connection);
+                archiveExpiredPartitions(connection);
+              } finally {
+                execute(connection, "SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+              }
+              return null;
+            });
+  }
+
+  /** Moves {@link #getActiveSince()} forward once the oldest open borrows are returned. */
+  @Scheduled(
+      fixedDelayString = "${application.history.partitions.active-since-refresh-millis:60000}",
+      initialDelayString = "${application.history.partitions.active-since-refresh-millis:60000}")
+  public void refreshActiveSince() {
+    jdbcTemplate.execute(
+        (ConnectionCallback<Void>)
+            connection -> {
+              refreshActiveSince(connection);
+              return null;
+            });
+  }
+
+  private void createFuturePartitions(Connection connection) throws SQLException {
+    YearMonth current = YearMonth.now();
+    for (int i = 0; i <= premakeMonths; i++) {
+      YearMonth month = current.plusMonths(i);
+      execute(
+          connection,
+          String.format(
+              "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+              partitionName(month), TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+    }
+  }
+
+  private void refreshActiveSince(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery(
+                "SELECT min(created_date) FROM " + TABLE + " WHERE NOT return_approved")) {
+      resultSet.next();
+      Timestamp oldestOpen = resultSet.getTimestamp(1);
+      YearMonth month =
+          oldestOpen != null ? YearMonth.from(oldestOpen.toLocalDateTime()) : YearMonth.now();
+      activeSince = month.atDay(1).atStartOfDay();
+    }
+  }
+
+  private void archiveExpiredPartitions(Connection connection) throws SQLException {
+    YearMonth cutoff = YearMonth.from(activeSince);
+    YearMonth retained = YearMonth.now().minusMonths(retentionMonths);
+    if (retained.isBefore(cutoff)) {
+      cutoff = retained;
+    }
+    for (String partition : partitionsBefore(connection, cutoff)) {
+      Path archive = archivePath.resolve(partition + ".csv.gz");
+      export(connection, partition, archive);
+      if (isAttached(connection, partition)) {
+        execute(
+            connection,
+            "ALTER TABLE " + TABLE + " DETACH PARTITION " + partition + " CONCURRENTLY");
+      }
+      drop(connection, partition);
+      logger.info("Archived history partition {} to {}", partition, archive);
+    }
+  }
+
+  // Counting and dropping commit together, so a partition is never counted twice or not at all.
+  private void drop(Connection connection, String partition) throws SQLException {
+    connection.setAutoCommit(false);
+    try {
+      execute(
+          connection,
+          "INSERT INTO archived_borrow_counts (user_id, borrowed_books, returned_books)"
+              + " SELECT user_id, COUNT(*), COUNT(*) FILTER (WHERE returned) FROM "
+              + partition
+              + " WHERE user_id IS NOT NULL GROUP BY user_id"
+              + " ON CONFLICT (user_id) DO UPDATE"
+              + " SET borrowed_books = archived_borrow_counts.borrowed_books"
+              + " + EXCLUDED.borrowed_books,"
+              + " returned_books = archived_borrow_counts.returned_books"
+              + " + EXCLUDED.returned_books");
+      execute(connection, "DROP TABLE " + partition);
+      connection.commit();
+    } catch (SQLException | RuntimeException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(true);
+    }
+  }
+
+  // Includes tables left detached by an interrupted run, so they are exported and dropped too.
+  private List<String> partitionsBefore(Connection connection, YearMonth cutoff)
+      throws SQLException {
+    List<String> partitions = new ArrayList<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery(
+                "SELECT relname FROM pg_class WHERE relkind = 'r' AND relname ~ '^"
+                    + PARTITION_PREFIX
+                    + "[0-9]{6}$' ORDER BY relname")) {
+      while (resultSet.next()) {
+        String partition = resultSet.getString(1);
+        YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), SUFFIX);
+        if (month.isBefore(cutoff)) {
+          partitions.add(partition);
+        }
+      }
+    }
+    return partitions;
+  }
+
+  private boolean isAttached(Connection connection, String partition) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery(
+                "SELECT 1 FROM pg_inherits WHERE inhrelid = '" + partition + "'::regclass")) {
+      return resultSet.next();
+    }
+  }
+
+  // Writes to a temporary file first so a crash never leaves a truncated archive behind.
+  private void export(Connection connection, String partition, Path archive) throws SQLException {
+    try {
+      Files.createDirectories(archivePath);
+      Path temporary = archive.resolveSibling(archive.getFileName() + ".tmp");
+      try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+        connection
+            .unwrap(PGConnection.class)
+            .getCopyAPI()
+            .copyOut("COPY " + partition + " TO STDOUT WITH (FORMAT csv, HEADER)", out);
+      }
+      Files.move(
+          temporary, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private boolean tryLock(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery("SELECT pg_try_advisory_lock(" + LOCK_KEY + ")")) {
+      resultSet.next();
+      return resultSet.getBoolean(1);
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static String partitionName(YearMonth month) {
+    return PARTITION_PREFIX + month.format(SUFFIX);
+  }
+}
@@ -0,0 +1,75 @@
+package com.ayed.booknetwork.idempotency;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/** Serves the bytes already read from the body again, followed by whatever was left unread. */
+class BufferedBodyRequest extends HttpServletRequestWrapper {
+  private final byte[] buffered;
+  private ServletInputStream inputStream;
+
+  BufferedBodyRequest(HttpServletRequest request, byte[] buffered) {
+    super(request);
+    this.buffered = buffered;
+  }
+
+  @Override
+  public ServletInputStream getInputStream() throws IOException {
+    if (inputStream == null) {
+      InputStream body =
+          new SequenceInputStream(
+              new ByteArrayInputStream(buffered), getRequest().getInputStream());
+      inputStream =
+          new ServletInputStream() {
+            private boolean finished;
+
+            @Override
+            public int read() throws IOException {
+              int b = body.read();
+              finished = b < 0;
+              return b;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+              int read = body.read(bytes, offset, length);
+              finished = read < 0;
+              return read;
+            }
+
+            @Override
+            public boolean isFinished() {
+              return finished;
+            }
+
+            @Override
+            public boolean isReady() {
+              return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+              throw new UnsupportedOperationException();
+            }
+          };
+    }
+    return inputStream;
+  }
+
+  @Override
+  public BufferedReader getReader() throws IOException {
+    String encoding = getCharacterEncoding();
+    Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+    return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+  }
+}
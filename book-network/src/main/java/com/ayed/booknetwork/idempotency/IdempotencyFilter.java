@@ -0,0 +1,176 @@
+package com.ayed.booknetwork.idempotency;
+
+import static com.ayed.booknetwork.handler.BusinessErrorCodes.IDEMPOTENCY_KEY_REUSED;
+import static com.ayed.booknetwork.handler.BusinessErrorCodes.IDEMPOTENT_REQUEST_IN_PROGRESS;
+
+import com.ayed.booknetwork.handler.BusinessErrorCodes;
+import com.ayed.booknetwork.handler.ExceptionResponse;
+import com.ayed.booknetwork.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes write requests carrying an {@code Idempotency-Key} header safe to retry. The first request
+ * with a key runs and its response (unless a 5xx) is stored for the user; a retry gets that
+ * response back with {@code Idempotent-Replayed: true} and never reaches the controller. A
+ * duplicate arriving while the first one runs waits for it.
+ *
+ * <p>Reusing a key for a different request (method, path or body) is rejected with 422. Multipart
+ * requests and bodies over the size limit are passed through without idempotency. Runs after {@code
+ * JwtAuthFilter}, as keys are scoped to the authenticated user.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+  public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+  private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyStore store;
+  private final ObjectMapper objectMapper;
+
+  @Value("${application.idempotency.enabled:true}")
+  private boolean enabled;
+
+  @Value("${application.idempotency.max-request-bytes:1048576}")
+  private int maxRequestBytes;
+
+  @Value("${application.idempotency.wait-timeout-millis:10000}")
+  private long waitTimeoutMillis;
+
+  @Override
+  protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+    String key = request.getHeader(IDEMPOTENCY_KEY);
+    String contentType = request.getContentType();
+    return !enabled
+        || key == null
+        || key.isBlank()
+        || key.length() > MAX_KEY_LENGTH
+        || !WRITE_METHODS.contains(request.getMethod())
+        || (contentType != null && contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NotNull HttpServletRequest request,
+      @NotNull HttpServletResponse response,
+      @NotNull FilterChain filterChain)
+      throws ServletException, IOException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+    HttpServletRequest bufferedRequest = new BufferedBodyRequest(request, body);
+    if (body.length > maxRequestBytes) {
+      filterChain.doFilter(bufferedRequest, response);
+      return;
+    }
+    String key = user.getId() + ":" + request.getHeader(IDEMPOTENCY_KEY);
+    String fingerprint = fingerprint(request, body);
+    long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+    while (true) {
+      StoredResponse stored = store.find(key);
+      if (stored != null) {
+        replay(stored, fingerprint, response);
+        return;
+      }
+      IdempotencyStore.Claim claim = store.claim(key, fingerprint);
+      if (claim != null) {
+        execute(claim, bufferedRequest, response, filterChain);
+        return;
+      }
+      if (!store.awaitRelease(key, deadline)) {
+        writeError(response, IDEMPOTENT_REQUEST_IN_PROGRESS);
+        return;
+      }
+    }
+  }
+
+  private void execute(
+      IdempotencyStore.Claim claim,
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain filterChain)
+      throws ServletException, IOException {
+    ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+    try {
+      filterChain.doFilter(request, cachingResponse);
+    } catch (ServletException | IOException | RuntimeException e) {
+      claim.release();
+      throw e;
+    }
+    int status = cachingResponse.getStatus();
+    if (status < 500) {
+      claim.complete(
+          status, cachingResponse.getContentType(), cachingResponse.getContentAsByteArray());
+    } else {
+      claim.release();
+    }
+    cachingResponse.copyBodyToResponse();
+  }
+
+  private void replay(StoredResponse stored, String fingerprint, HttpServletResponse response)
+      throws IOException {
+    if (!stored.fingerprint().equals(fingerprint)) {
+      writeError(response, IDEMPOTENCY_KEY_REUSED);
+      return;
+    }
+    response.setStatus(stored.status());
+    response.setHeader(IDEMPOTENT_REPLAYED, "true");
+    if (stored.contentType() != null) {
+      response.setContentType(stored.contentType());
+    }
+    response.setContentLength(stored.body().length);
+    response.getOutputStream().write(stored.body());
+  }
+
+  private void writeError(HttpServletResponse response, BusinessErrorCodes code)
+      throws IOException {
+    response.setStatus(code.getHttpStatus().value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        ExceptionResponse.builder()
+            .businessErrorCode(code.getCode())
+            .businessErrorDescription(code.getDescription())
+            .build());
+  }
+
+  private static String fingerprint(HttpServletRequest request, byte[] body) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) ' ');
+      digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+      if (request.getQueryString() != null) {
+        digest.update((byte) '?');
+        digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+      }
+      digest.update((byte) '\n');
+      return HexFormat.of().formatHex(digest.digest(body));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package com.ayed.booknetwork.idempotency;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The stored response of an {@code Idempotency-Key}, keyed by user and key. While the request runs
+ * {@code status} is null and the row is only a claim; it expires quickly so a crashed node does not
+ * hold the key for the whole TTL.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+  @Id private String idempotencyKey;
+
+  @Column(nullable = false)
+  private String fingerprint;
+
+  private Integer status;
+  private String contentType;
+  private byte[] body;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+}
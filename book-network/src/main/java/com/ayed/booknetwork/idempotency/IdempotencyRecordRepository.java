@@ -0,0 +1,60 @@
+package com.ayed.booknetwork.idempotency;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+  /**
+   * Reads the key from the primary. {@code findById} runs read-only and may be served by a replica
+   * that has not seen the claim or the response of another node yet.
+   */
+  @Transactional
+  @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+  Optional<IdempotencyRecord> findOnPrimary(String key);
+
+  /**
+   * Claims the key for the calling node, taking over an expired row. Returns 0 when another request
+   * holds or has completed it.
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      value =
+          """
+          INSERT INTO idempotency_keys (idempotency_key, fingerprint, expires_at)
+          VALUES (:key, :fingerprint, :expiresAt)
+          ON CONFLICT (idempotency_key) DO UPDATE
+          SET fingerprint = EXCLUDED.fingerprint, status = NULL, content_type = NULL, body = NULL,
+              expires_at = EXCLUDED.expires_at
+          WHERE idempotency_keys.expires_at <= :now
+          """,
+      nativeQuery = true)
+  int claim(String key, String fingerprint, LocalDateTime expiresAt, LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query(
+      """
+      UPDATE IdempotencyRecord r
+      SET r.status = :status, r.contentType = :contentType, r.body = :body, r.expiresAt = :expiresAt
+      WHERE r.idempotencyKey = :key
+      """)
+  int complete(String key, int status, String contentType, byte[] body, LocalDateTime expiresAt);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status IS NULL")
+  int release(String key);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+  int deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,194 @@
+package com.ayed.booknetwork.idempotency;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores the first response of each idempotency key. Responses live in the {@code idempotency_keys}
+ * table, shared by all nodes, and small ones are also kept in memory so most retries never reach
+ * the database.
+ *
+ * <p>A key is claimed before its request runs: in memory first, so duplicates on this node wait on
+ * a future, then with an insert, so duplicates on other nodes poll the table until the response is
+ * stored or the claim is released. Rows are always read from the primary, where claims are made.
+ */
+@Service
+@RequiredArgsConstructor
+public class IdempotencyStore {
+  private final IdempotencyRecordRepository repository;
+
+  @Value("${application.idempotency.ttl-millis:86400000}")
+  private long ttlMillis;
+
+  @Value("${application.idempotency.claim-timeout-millis:60000}")
+  private long claimTimeoutMillis;
+
+  @Value("${application.idempotency.poll-millis:50}")
+  private long pollMillis;
+
+  @Value("${application.idempotency.max-memory-entries:10000}")
+  private int maxMemoryEntries;
+
+  @Value("${application.idempotency.max-memory-body-bytes:16384}")
+  private int maxMemoryBodyBytes;
+
+  private final Map<String, StoredResponse> responses = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+  /** The stored response of the key, or null if it has none (yet). */
+  public StoredResponse find(String key) {
+    long now = System.currentTimeMillis();
+    StoredResponse response = responses.get(key);
+    if (response != null) {
+      if (response.expiresAtMillis() > now) {
+        return response;
+      }
+      responses.remove(key, response);
+    }
+    return repository
+        .findOnPrimary(key)
+        .filter(record -> record.getStatus() != null)
+        .map(this::toResponse)
+        .filter(stored -> stored.expiresAtMillis() > now)
+        .map(
+            stored -> {
+              remember(key, stored);
+              return stored;
+            })
+        .orElse(null);
+  }
+
+  /** Claims the key for the calling request, or returns null if another request holds it. */
+  public Claim claim(String key, String fingerprint) {
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    if (inFlight.putIfAbsent(key, done) != null) {
+      return null;
+    }
+    boolean claimed = false;
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      claimed =
+          repository.claim(key, fingerprint, now.plusNanos(claimTimeoutMillis * 1_000_000), now)
+              == 1;
+    } finally {
+      if (!claimed) {
+        inFlight.remove(key, done);
+        done.complete(null);
+      }
+    }
+    return claimed ? new Claim(key, fingerprint, done) : null;
+  }
+
+  /**
+   * Waits until the request holding the key completes or releases it. Returns false if it is still
+   * running at the deadline.
+   */
+  public boolean awaitRelease(String key, long deadlineMillis) {
+    CompletableFuture<Void> local = inFlight.get(key);
+    try {
+      if (local != null) {
+        local.get(Math.max(0, deadlineMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        return true;
+      }
+      while (System.currentTimeMillis() < deadlineMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<IdempotencyRecord> record = repository.findOnPrimary(key);
+        if (record.isEmpty()) {
+          // Released since the claim failed: wait a little, so that retrying the claim cannot turn
+          // into a busy loop against another node doing the same.
+          Thread.sleep(pollMillis);
+          return true;
+        }
+        boolean held = record.get().getStatus() == null && record.get().getExpiresAt().isAfter(now);
+        if (!held) {
+          return true;
+        }
+        Thread.sleep(pollMillis);
+      }
+      return false;
+    } catch (TimeoutException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      return true;
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${application.idempotency.purge-interval-millis:600000}")
+  public void purgeExpired() {
+    long now = System.currentTimeMillis();
+    responses.values().removeIf(response -> response.expiresAtMillis() <= now);
+    repository.deleteExpired(LocalDateTime.now());
+  }
+
+  private void remember(String key, StoredResponse response) {
+    if (response.body().length <= maxMemoryBodyBytes && responses.size() < maxMemoryEntries) {
+      responses.put(key, response);
+    }
+  }
+
+  private StoredResponse toResponse(IdempotencyRecord record) {
+    return new StoredResponse(
+        record.getFingerprint(),
+        record.getStatus(),
+        record.getContentType(),
+        record.getBody() != null ? record.getBody() : new byte[0],
+        record.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+  }
+
+  /** A key held by the calling request until it is completed or released. */
+  public final class Claim {
+    private final String key;
+    private final String fingerprint;
+    private final CompletableFuture<Void> done;
+
+    private Claim(String key, String fingerprint, CompletableFuture<Void> done) {
+      this.key = key;
+      this.fingerprint = fingerprint;
+      this.done = done;
+    }
+
+    public void complete(int status, String contentType, byte[] body) {
+      try {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        repository.complete(
+            key,
+            status,
+            contentType,
+            body,
+            LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAt), ZoneId.systemDefault()));
+        remember(key, new StoredResponse(fingerprint, status, contentType, body, expiresAt));
+      } finally {
+        finish();
+      }
+    }
+
+    /** Gives the key up without a response, so a retry runs the request again. */
+    public void release() {
+      try {
+        repository.release(key);
+      } finally {
+        finish();
+      }
+    }
+
+    private void finish() {
+      inFlight.remove(key, done);
+      done.complete(null);
+    }
+  }
+}
@@ -0,0 +1,5 @@
+package com.ayed.booknetwork.idempotency;
+
+/** The response replayed for an idempotency key, with the fingerprint of the request behind it. */
+public record StoredResponse(
+    String fingerprint, int status, String contentType, byte[] body, long expiresAtMillis) {}
@@ -0,0 +1,14 @@
+package com.ayed.booknetwork.leaderboard;
+
+/**
+ * Something happened to a book that may move it on a leaderboard.
+ *
+ * @param note the rating given, only set for {@link Type#RATED}
+ */
+public record BookActivityEvent(Type type, Long bookId, Double note) {
+  public enum Type {
+    RATED,
+    BORROWED,
+    UPDATED
+  }
+}
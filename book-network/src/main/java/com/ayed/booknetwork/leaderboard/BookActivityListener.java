@@ -0,0 +1,42 @@
+package com.ayed.booknetwork.leaderboard;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.feedback.Feedback;
+import com.ayed.booknetwork.history.BookTransactionHistory;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener turning feedback, borrow and book changes into {@link BookActivityEvent}s,
+ * whichever code path persists them. Hibernate obtains it from the Spring context.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookActivityListener {
+  private final ApplicationEventPublisher publisher;
+
+  @PostPersist
+  public void onPersist(Object entity) {
+    if (entity instanceof Feedback feedback && feedback.getNote() != null) {
+      publish(BookActivityEvent.Type.RATED, feedback.getBook(), feedback.getNote());
+    } else if (entity instanceof BookTransactionHistory history) {
+      publish(BookActivityEvent.Type.BORROWED, history.getBook(), null);
+    }
+  }
+
+  @PostUpdate
+  public void onUpdate(Object entity) {
+    if (entity instanceof Book book) {
+      publish(BookActivityEvent.Type.UPDATED, book, null);
+    }
+  }
+
+  private void publish(BookActivityEvent.Type type, Book book, Double note) {
+    if (book != null) {
+      publisher.publishEvent(new BookActivityEvent(type, book.getId(), note));
+    }
+  }
+}
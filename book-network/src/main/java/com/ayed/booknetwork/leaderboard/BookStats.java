@@ -0,0 +1,32 @@
+package com.ayed.booknetwork.leaderboard;
+
+import com.ayed.booknetwork.book.Book;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** Running rating and borrow counters of a book, maintained incrementally by the leaderboards. */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(
+    name = "book_stats",
+    indexes = @Index(name = "idx_book_stats_borrow_count", columnList = "borrow_count"))
+public class BookStats {
+  @Id private Long bookId;
+
+  @OneToOne(fetch = FetchType.LAZY)
+  @MapsId
+  @JoinColumn(name = "book_id")
+  private Book book;
+
+  private double ratingSum;
+  private long ratingCount;
+  private long borrowCount;
+}
@@ -0,0 +1,98 @@
+package com.ayed.booknetwork.leaderboard;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BookStatsRepository extends JpaRepository<BookStats, Long> {
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO book_stats (book_id, rating_sum, rating_count, borrow_count)
+          VALUES (:bookId, :note, 1, 0)
+          ON CONFLICT (book_id) DO UPDATE
+          SET rating_sum = book_stats.rating_sum + EXCLUDED.rating_sum,
+              rating_count = book_stats.rating_count + 1
+          """,
+      nativeQuery = true)
+  void addRating(Long bookId, double note);
+
+  /** Copies the average rating onto {@code book.average_rating}, which the catalog sorts on. */
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE book SET average_rating = s.rating_sum / s.rating_count
+          FROM book_stats s
+          WHERE s.book_id = book.id AND book.id = :bookId AND s.rating_count > 0
+          """,
+      nativeQuery = true)
+  void syncAverageRating(Long bookId);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE book SET average_rating = s.rating_sum / s.rating_count
+          FROM book_stats s
+          WHERE s.book_id = book.id AND s.rating_count > 0
+          """,
+      nativeQuery = true)
+  void syncAllAverageRatings();
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO book_stats (book_id, rating_sum, rating_count, borrow_count)
+          VALUES (:bookId, 0, 0, 1)
+          ON CONFLICT (book_id) DO UPDATE
+          SET borrow_count = book_stats.borrow_count + 1
+          """,
+      nativeQuery = true)
+  void addBorrow(Long bookId);
+
+  @Query(
+      """
+        SELECT new com.ayed.booknetwork.leaderboard.LeaderboardEntry(
+            book.id, book.title, book.authorName,
+            stats.ratingSum / stats.ratingCount, stats.ratingCount)
+        FROM BookStats stats JOIN stats.book book
+        WHERE book.archived = false AND book.shareable = true AND stats.ratingCount > 0
+        ORDER BY stats.ratingSum / stats.ratingCount DESC, stats.ratingCount DESC, book.id
+        """)
+  List<LeaderboardEntry> findTopRated(Pageable pageable);
+
+  @Query(
+      """
+        SELECT new com.ayed.booknetwork.leaderboard.LeaderboardEntry(
+            book.id, book.title, book.authorName, CAST(stats.borrowCount AS double),
+            stats.borrowCount)
+        FROM BookStats stats JOIN stats.book book
+        WHERE book.archived = false AND book.shareable = true AND stats.borrowCount > 0
+        ORDER BY stats.borrowCount DESC, book.id
+        """)
+  List<LeaderboardEntry> findMostBorrowed(Pageable pageable);
+
+  /** One-off backfill of the counters from the source tables, used when none are stored yet. */
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO book_stats (book_id, rating_sum, rating_count, borrow_count)
+          SELECT b.id,
+                 COALESCE((SELECT SUM(f.note) FROM feedback f WHERE f.book_id = b.id), 0),
+                 (SELECT COUNT(*) FROM feedback f WHERE f.book_id = b.id),
+                 (SELECT COUNT(*) FROM book_transaction_history h WHERE h.book_id = b.id)
+          FROM book b
+          ON CONFLICT (book_id) DO NOTHING
+          """,
+      nativeQuery = true)
+  int backfill();
+}
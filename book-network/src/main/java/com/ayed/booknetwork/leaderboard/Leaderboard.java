@@ -0,0 +1,84 @@
+package com.ayed.booknetwork.leaderboard;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded top-K ranking. Writers are serialized and republish an immutable snapshot, so {@link
+ * #top()} is a plain volatile read.
+ */
+class Leaderboard {
+  private static final Comparator<LeaderboardEntry> RANKING =
+      Comparator.comparingDouble(LeaderboardEntry::score)
+          .thenComparingLong(LeaderboardEntry::count)
+          .reversed()
+          .thenComparing(LeaderboardEntry::bookId);
+
+  private final int capacity;
+  private final TreeSet<LeaderboardEntry> ranked = new TreeSet<>(RANKING);
+  private final Map<Long, LeaderboardEntry> byBookId = new HashMap<>();
+  private volatile List<LeaderboardEntry> snapshot = List.of();
+
+  Leaderboard(int capacity) {
+    this.capacity = capacity;
+  }
+
+  List<LeaderboardEntry> top() {
+    return snapshot;
+  }
+
+  /**
+   * Inserts or re-ranks a book; it is kept only if it makes the top K.
+   *
+   * @return true if a book already on the board moved down, in which case a book outside the board
+   *     may now outrank it and a refill is needed
+   */
+  synchronized boolean offer(LeaderboardEntry entry) {
+    LeaderboardEntry previous = byBookId.remove(entry.bookId());
+    if (previous != null) {
+      ranked.remove(previous);
+    }
+    if (ranked.size() < capacity || RANKING.compare(entry, ranked.last()) < 0) {
+      ranked.add(entry);
+      byBookId.put(entry.bookId(), entry);
+      if (ranked.size() > capacity) {
+        byBookId.remove(ranked.pollLast().bookId());
+      }
+    }
+    publish();
+    return previous != null && RANKING.compare(entry, previous) > 0;
+  }
+
+  /**
+   * @return true if the book was on the board, meaning a refill is needed to get back to K.
+   */
+  synchronized boolean remove(Long bookId) {
+    LeaderboardEntry previous = byBookId.remove(bookId);
+    if (previous == null) {
+      return false;
+    }
+    ranked.remove(previous);
+    publish();
+    return true;
+  }
+
+  synchronized void replaceAll(List<LeaderboardEntry> entries) {
+    ranked.clear();
+    byBookId.clear();
+    for (LeaderboardEntry entry : entries) {
+      ranked.add(entry);
+      byBookId.put(entry.bookId(), entry);
+      if (ranked.size() > capacity) {
+        byBookId.remove(ranked.pollLast().bookId());
+      }
+    }
+    publish();
+  }
+
+  private void publish() {
+    snapshot = List.copyOf(ranked);
+  }
+}
@@ -0,0 +1,61 @@
+package com.ayed.booknetwork.leaderboard;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("books")
+@RequiredArgsConstructor
+@Tag(name = "Book")
+public class LeaderboardController {
+
+  private final LeaderboardService leaderboardService;
+
+  /**
+   * Retrieve the highest-rated shareable books.
+   *
+   * @return ResponseEntity with HTTP status 200 (OK) and the books ranked by average rating.
+   */
+  @Operation(summary = "Find the top rated books")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = LeaderboardEntry.class)))
+      })
+  @GetMapping("top-rated")
+  public ResponseEntity<List<LeaderboardEntry>> findTopRated() {
+    return ResponseEntity.ok(leaderboardService.findTopRated());
+  }
+
+  /**
+   * Retrieve the most borrowed shareable books.
+   *
+   * @return ResponseEntity with HTTP status 200 (OK) and the books ranked by borrow count.
+   */
+  @Operation(summary = "Find the most borrowed books")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Books found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(implementation = LeaderboardEntry.class)))
+      })
+  @GetMapping("most-borrowed")
+  public ResponseEntity<List<LeaderboardEntry>> findMostBorrowed() {
+    return ResponseEntity.ok(leaderboardService.findMostBorrowed());
+  }
+}
@@ -0,0 +1,8 @@
+package com.ayed.booknetwork.leaderboard;
+
+/**
+ * One ranked book. {@code score} is the average rating on the top-rated board and the borrow count
+ * on the most-borrowed board; {@code count} is the number of ratings or borrows behind it.
+ */
+public record LeaderboardEntry(
+    Long bookId, String title, String authorName, double score, long count) {}
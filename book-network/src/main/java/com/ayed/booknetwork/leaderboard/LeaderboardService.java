@@ -0,0 +1,145 @@
+package com.ayed.booknetwork.leaderboard;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.book.BookRepository;
+import com.ayed.booknetwork.book.BooksBulkUpdatedEvent;
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the "top rated" and "most borrowed" boards of shareable books in memory. The per-book
+ * counters behind them are persisted in {@code book_stats} and updated incrementally after each
+ * feedback or borrow commits; the boards are reloaded from those counters at startup.
+ */
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+  private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+  private final BookStatsRepository bookStatsRepository;
+  private final BookRepository bookRepository;
+  private final PlatformTransactionManager transactionManager;
+  private final ApplicationEventPublisher publisher;
+
+  @Value("${application.leaderboard.size:10}")
+  private int size;
+
+  private Leaderboard topRated;
+  private Leaderboard mostBorrowed;
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  void init() {
+    topRated = new Leaderboard(size);
+    mostBorrowed = new Leaderboard(size);
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    // Runs after the triggering transaction committed, so it needs a transaction of its own.
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public List<LeaderboardEntry> findTopRated() {
+    return topRated.top();
+  }
+
+  public List<LeaderboardEntry> findMostBorrowed() {
+    return mostBorrowed.top();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void load() {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          if (bookStatsRepository.count() == 0) {
+            logger.info(
+                "Backfilled leaderboard counters for {} books", bookStatsRepository.backfill());
+            bookStatsRepository.syncAllAverageRatings();
+          }
+          refillTopRated();
+          refillMostBorrowed();
+        });
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBookActivity(BookActivityEvent event) {
+    transactionTemplate.executeWithoutResult(status -> apply(event));
+  }
+
+  /** Bulk updates may add or remove any number of books, so both boards are reloaded. */
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onBooksBulkUpdated(BooksBulkUpdatedEvent event) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          refillTopRated();
+          refillMostBorrowed();
+        });
+  }
+
+  private void apply(BookActivityEvent event) {
+    switch (event.type()) {
+      case RATED -> {
+        bookStatsRepository.addRating(event.bookId(), event.note());
+        bookStatsRepository.syncAverageRating(event.bookId());
+        // A native update, so the entity listener does not see the new rating.
+        publisher.publishEvent(
+            new EntityChangedEvent(EntityChangedEvent.BOOK, String.valueOf(event.bookId())));
+      }
+      case BORROWED -> bookStatsRepository.addBorrow(event.bookId());
+      case UPDATED -> {}
+    }
+    Book book = bookRepository.findById(event.bookId()).orElse(null);
+    BookStats stats = bookStatsRepository.findById(event.bookId()).orElse(null);
+    if (book == null || book.isArchived() || !book.isShareable() || stats == null) {
+      if (topRated.remove(event.bookId())) {
+        refillTopRated();
+      }
+      if (mostBorrowed.remove(event.bookId())) {
+        refillMostBorrowed();
+      }
+      return;
+    }
+    if (stats.getRatingCount() > 0
+        && topRated.offer(
+            new LeaderboardEntry(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthorName(),
+                stats.getRatingSum() / stats.getRatingCount(),
+                stats.getRatingCount()))) {
+      refillTopRated();
+    }
+    if (stats.getBorrowCount() > 0) {
+      mostBorrowed.offer(
+          new LeaderboardEntry(
+              book.getId(),
+              book.getTitle(),
+              book.getAuthorName(),
+              stats.getBorrowCount(),
+              stats.getBorrowCount()));
+    }
+  }
+
+  private void refillTopRated() {
+    topRated.replaceAll(bookStatsRepository.findTopRated(PageRequest.of(0, size)));
+  }
+
+  private void refillMostBorrowed() {
+    mostBorrowed.replaceAll(bookStatsRepository.findMostBorrowed(PageRequest.of(0, size)));
+  }
+}
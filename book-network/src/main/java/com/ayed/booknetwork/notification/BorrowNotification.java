@@ -0,0 +1,21 @@
+package com.ayed.booknetwork.notification;
+
+import com.ayed.booknetwork.history.BorrowActivityEvent.Type;
+import java.time.LocalDateTime;
+
+/**
+ * A borrow activity pushed to one user: borrows and returns go to the owner, return approvals to
+ * the borrower.
+ *
+ * @param id increases with every notification sent by the node where the borrow happened; sent as
+ *     the SSE event id
+ * @param counterpart the full name of the other party: the borrower, or the owner for {@link
+ *     Type#RETURN_APPROVED}
+ */
+public record BorrowNotification(
+    long id,
+    Type type,
+    Long bookId,
+    String bookTitle,
+    String counterpart,
+    LocalDateTime createdAt) {}
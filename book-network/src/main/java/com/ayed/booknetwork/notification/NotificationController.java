@@ -0,0 +1,40 @@
+package com.ayed.booknetwork.notification;
+
+import com.ayed.booknetwork.user.User;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("notifications")
+@RequiredArgsConstructor
+@Tag(name = "Notification")
+public class NotificationController {
+
+  private final NotificationHub notificationHub;
+
+  /**
+   * Stream the borrow and return activity of the connected user as Server-Sent Events.
+   *
+   * @param lastEventId The id of the last event received before reconnecting, if any.
+   * @param connectedUser The authentication object representing the connected user.
+   * @return An SSE stream of {@link BorrowNotification}s, with a heartbeat comment while idle.
+   */
+  @Operation(summary = "Stream borrow and return notifications")
+  @ApiResponse(responseCode = "200", description = "Stream opened")
+  @GetMapping(path = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(
+      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+      Authentication connectedUser) {
+    User user = (User) connectedUser.getPrincipal();
+    return notificationHub.subscribe(user.getId(), lastEventId);
+  }
+}
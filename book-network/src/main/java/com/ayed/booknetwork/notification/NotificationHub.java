@@ -0,0 +1,278 @@
+package com.ayed.booknetwork.notification;
+
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.cache.InvalidationBus;
+import com.ayed.booknetwork.history.BorrowActivityEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes {@link BorrowNotification}s to the SSE connections of their recipient.
+ *
+ * <p>Connections are async servlet requests, so an idle one holds no thread, only its socket and a
+ * small queue. Writes happen on a small sender pool, one drain at a time per connection. A
+ * connection whose queue fills up is closed: the client reconnects with {@code Last-Event-ID} and
+ * catches up from the per-user retention log, which keeps the last few notifications for a short
+ * while.
+ *
+ * <p>A notification is published on the {@link InvalidationBus}, so every node delivers it to its
+ * own connections of the recipient and keeps it in its log: a client reconnecting to another node
+ * still catches up. Ids are assigned by the node where the borrow happened, from a clock-seeded
+ * sequence, so they only increase roughly across nodes.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationHub {
+  private static final Logger logger = LoggerFactory.getLogger(NotificationHub.class);
+  private static final Object HEARTBEAT = new Object();
+  private static final String REGION = "borrow-notification";
+
+  private final InvalidationBus invalidationBus;
+  private final ObjectMapper objectMapper;
+
+  @Value("${application.notifications.connection-timeout-millis:1800000}")
+  private long connectionTimeoutMillis;
+
+  @Value("${application.notifications.max-pending-per-connection:32}")
+  private int maxPendingPerConnection;
+
+  @Value("${application.notifications.replay-size:50}")
+  private int replaySize;
+
+  @Value("${application.notifications.replay-retention-millis:300000}")
+  private long replayRetentionMillis;
+
+  @Value("${application.notifications.sender-threads:4}")
+  private int senderThreads;
+
+  // Seeded from the clock so ids keep increasing across restarts of the node.
+  private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+  private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+  private ExecutorService sender;
+
+  @PostConstruct
+  void init() {
+    AtomicInteger threadNumber = new AtomicInteger();
+    sender =
+        Executors.newFixedThreadPool(
+            senderThreads,
+            runnable -> {
+              Thread thread = new Thread(runnable, "sse-sender-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    invalidationBus.addListener(REGION, this::onMessage);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    channels.values().forEach(channel -> channel.subscribers.forEach(Subscriber::close));
+    sender.shutdown();
+  }
+
+  /**
+   * Opens a stream for the user, first replaying the retained notifications newer than {@code
+   * lastEventId} when the client is reconnecting.
+   */
+  public SseEmitter subscribe(Long userId, Long lastEventId) {
+    SseEmitter emitter = new SseEmitter(connectionTimeoutMillis);
+    while (true) {
+      Channel channel = channels.computeIfAbsent(userId, id -> new Channel());
+      synchronized (channel) {
+        if (channel.removed) {
+          continue;
+        }
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        if (lastEventId != null) {
+          prune(channel);
+          channel.log.stream()
+              .filter(notification -> notification.id() > lastEventId)
+              .forEach(subscriber::offer);
+        }
+        channel.subscribers.add(subscriber);
+        return emitter;
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBorrowActivity(BorrowActivityEvent event) {
+    boolean toBorrower = event.type() == BorrowActivityEvent.Type.RETURN_APPROVED;
+    Long recipientId = toBorrower ? event.borrowerId() : event.ownerId();
+    BorrowNotification notification =
+        new BorrowNotification(
+            sequence.incrementAndGet(),
+            event.type(),
+            event.bookId(),
+            event.bookTitle(),
+            toBorrower ? event.ownerName() : event.borrowerName(),
+            LocalDateTime.now());
+    try {
+      invalidationBus.publish(
+          REGION, objectMapper.writeValueAsString(new Message(recipientId, notification)));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void onMessage(String payload) {
+    if (EntityChangedEvent.ALL.equals(payload)) {
+      // The bus reconnected; notifications missed meanwhile are lost.
+      return;
+    }
+    Message message;
+    try {
+      message = objectMapper.readValue(payload, Message.class);
+    } catch (JsonProcessingException e) {
+      logger.warn("Ignoring unreadable borrow notification: {}", e.getMessage());
+      return;
+    }
+    deliver(message.recipientId(), message.notification());
+  }
+
+  private void deliver(Long recipientId, BorrowNotification notification) {
+    while (true) {
+      Channel channel = channels.computeIfAbsent(recipientId, id -> new Channel());
+      synchronized (channel) {
+        if (channel.removed) {
+          continue;
+        }
+        channel.log.addLast(notification);
+        prune(channel);
+        channel.subscribers.forEach(subscriber -> subscriber.offer(notification));
+        return;
+      }
+    }
+  }
+
+  /** Keeps idle connections open through proxies and drops channels with nothing left in them. */
+  @Scheduled(fixedDelayString = "${application.notifications.heartbeat-interval-millis:15000}")
+  public void heartbeat() {
+    channels.forEach(
+        (userId, channel) -> {
+          synchronized (channel) {
+            prune(channel);
+            if (channel.subscribers.isEmpty() && channel.log.isEmpty()) {
+              channel.removed = true;
+              channels.remove(userId, channel);
+            }
+          }
+          channel.subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+        });
+  }
+
+  public int getConnectionCount() {
+    return channels.values().stream().mapToInt(channel -> channel.subscribers.size()).sum();
+  }
+
+  private void prune(Channel channel) {
+    LocalDateTime cutoff = LocalDateTime.now().minusNanos(replayRetentionMillis * 1_000_000);
+    while (!channel.log.isEmpty()
+        && (channel.log.size() > replaySize
+            || channel.log.peekFirst().createdAt().isBefore(cutoff))) {
+      channel.log.removeFirst();
+    }
+  }
+
+  private record Message(Long recipientId, BorrowNotification notification) {}
+
+  private static final class Channel {
+    final ArrayDeque<BorrowNotification> log = new ArrayDeque<>();
+    final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    boolean removed;
+  }
+
+  private final class Subscriber {
+    private final Channel channel;
+    private final SseEmitter emitter;
+    private final ArrayBlockingQueue<Object> pending;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private volatile boolean closed;
+
+    Subscriber(Channel channel, SseEmitter emitter) {
+      this.channel = channel;
+      this.emitter = emitter;
+      this.pending = new ArrayBlockingQueue<>(maxPendingPerConnection);
+    }
+
+    void offer(Object item) {
+      if (closed) {
+        return;
+      }
+      if (!pending.offer(item)) {
+        // Too slow to keep up: drop it, the client resumes from the log with Last-Event-ID.
+        close();
+        return;
+      }
+      scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+      if (!pending.isEmpty() && !closed && draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        Object item;
+        while (!closed && (item = pending.poll()) != null) {
+          send(item);
+        }
+      } catch (IOException | IllegalStateException e) {
+        close();
+      } finally {
+        draining.set(false);
+      }
+      scheduleDrain();
+    }
+
+    private void send(Object item) throws IOException {
+      if (item == HEARTBEAT) {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+        return;
+      }
+      BorrowNotification notification = (BorrowNotification) item;
+      emitter.send(
+          SseEmitter.event()
+              .id(String.valueOf(notification.id()))
+              .name(notification.type().name())
+              .data(notification));
+    }
+
+    void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      channel.subscribers.remove(this);
+      pending.clear();
+      emitter.complete();
+    }
+  }
+}
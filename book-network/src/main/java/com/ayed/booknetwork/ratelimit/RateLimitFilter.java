@@ -0,0 +1,106 @@
+package com.ayed.booknetwork.ratelimit;
+
+import static com.ayed.booknetwork.handler.BusinessErrorCodes.RATE_LIMITED;
+
+import com.ayed.booknetwork.handler.ExceptionResponse;
+import com.ayed.booknetwork.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Rejects requests with 429 once the caller's bucket for the route group is empty. Authenticated
+ * callers are keyed by the JWT subject, everyone else by client IP. Runs before {@code
+ * JwtAuthFilter} so throttled requests never reach the user lookup.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+  private static final int MAX_VERIFIED_TOKENS = 100_000;
+
+  private final RateLimiter rateLimiter;
+  private final RateLimitProperties properties;
+  private final JwtService jwtService;
+  private final ObjectMapper objectMapper;
+
+  // Keyed by the whole Authorization header: a token is verified once and later requests carrying
+  // exactly the same token are keyed without re-checking. Forged tokens never get in here and fall
+  // back to the IP bucket.
+  private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+  @Override
+  protected void doFilterInternal(
+      @NotNull HttpServletRequest request,
+      @NotNull HttpServletResponse response,
+      @NotNull FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!properties.enabled()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    long waitNanos = rateLimiter.tryAcquire(request.getServletPath(), clientKey(request));
+    if (waitNanos == 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+    response.setStatus(RATE_LIMITED.getHttpStatus().value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(
+        response.getOutputStream(),
+        ExceptionResponse.builder()
+            .businessErrorCode(RATE_LIMITED.getCode())
+            .businessErrorDescription(RATE_LIMITED.getDescription())
+            .build());
+  }
+
+  /** The JWT subject (an email) or the client IP; the two can never collide. */
+  private String clientKey(HttpServletRequest request) {
+    String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (authHeader != null && authHeader.startsWith("Bearer ")) {
+      String subject = verifiedSubject(authHeader);
+      if (subject != null) {
+        return subject;
+      }
+    }
+    return request.getRemoteAddr();
+  }
+
+  private String verifiedSubject(String authHeader) {
+    long now = System.currentTimeMillis();
+    VerifiedToken cached = verifiedTokens.get(authHeader);
+    if (cached != null && cached.expiresAtMillis > now) {
+      return cached.subject;
+    }
+    String jwt = authHeader.substring(7);
+    try {
+      String subject = jwtService.extractUsername(jwt);
+      long expiresAt = jwtService.extractExpiration(jwt).getTime();
+      if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+        verifiedTokens.values().removeIf(token -> token.expiresAtMillis <= now);
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+          verifiedTokens.clear();
+        }
+      }
+      verifiedTokens.put(authHeader, new VerifiedToken(subject, expiresAt));
+      return subject;
+    } catch (JwtException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private record VerifiedToken(String subject, long expiresAtMillis) {}
+}
@@ -0,0 +1,19 @@
+package com.ayed.booknetwork.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Rate limits per route group. A request belongs to the group with the longest matching {@code
+ * pathPrefix}; every group owns its own buckets.
+ */
+@ConfigurationProperties(prefix = "application.rate-limit")
+public record RateLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("10m") Duration idleEviction,
+    @DefaultValue Map<String, Group> groups) {
+
+  public record Group(String pathPrefix, long capacity, double refillPerSecond) {}
+}
@@ -0,0 +1,80 @@
+package com.ayed.booknetwork.ratelimit;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one {@link TokenBucket} per route group and client key. Buckets live in a {@link
+ * ConcurrentHashMap}, whose bins are locked independently, and are removed once idle.
+ */
+@Component
+public class RateLimiter {
+  private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final List<RouteGroup> groups;
+  private final long idleEvictionNanos;
+
+  public RateLimiter(RateLimitProperties properties) {
+    this.groups =
+        properties.groups().entrySet().stream()
+            .map(e -> new RouteGroup(e.getKey(), e.getValue()))
+            .sorted(Comparator.comparingInt((RouteGroup g) -> g.pathPrefix.length()).reversed())
+            .toList();
+    this.idleEvictionNanos = properties.idleEviction().toNanos();
+  }
+
+  /**
+   * Takes one token for {@code clientKey} in the group matching {@code path}.
+   *
+   * @return 0 when the request may proceed, otherwise the nanoseconds to wait before retrying
+   */
+  public long tryAcquire(String path, String clientKey) {
+    RouteGroup group = resolve(path);
+    if (group == null) {
+      return 0;
+    }
+    long now = System.nanoTime();
+    String key = group.keyPrefix + clientKey;
+    TokenBucket bucket = buckets.get(key);
+    if (bucket == null) {
+      bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(now));
+    }
+    return bucket.tryConsume(now, group.intervalNanos, group.capacity);
+  }
+
+  private RouteGroup resolve(String path) {
+    for (RouteGroup group : groups) {
+      if (path.startsWith(group.pathPrefix)) {
+        return group;
+      }
+    }
+    return null;
+  }
+
+  @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.MINUTES)
+  public void evictIdleBuckets() {
+    long threshold = System.nanoTime() - idleEvictionNanos;
+    buckets.values().removeIf(bucket -> bucket.isIdleSince(threshold));
+  }
+
+  int size() {
+    return buckets.size();
+  }
+
+  private static final class RouteGroup {
+    private final String keyPrefix;
+    private final String pathPrefix;
+    private final long capacity;
+    private final long intervalNanos;
+
+    private RouteGroup(String name, RateLimitProperties.Group group) {
+      this.keyPrefix = name + ':';
+      this.pathPrefix = group.pathPrefix();
+      this.capacity = group.capacity();
+      this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / group.refillPerSecond());
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.ayed.booknetwork.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket expressed as a generic cell rate algorithm: the whole state is the
+ * theoretical arrival time of the next request, updated with a single CAS.
+ */
+final class TokenBucket {
+  private final AtomicLong theoreticalArrivalNanos;
+
+  TokenBucket(long nowNanos) {
+    this.theoreticalArrivalNanos = new AtomicLong(nowNanos);
+  }
+
+  /**
+   * Takes one token.
+   *
+   * @param nowNanos current {@link System#nanoTime()}
+   * @param intervalNanos time needed to refill one token
+   * @param capacity maximum burst size
+   * @return 0 when the token was granted, otherwise the nanoseconds until one becomes available
+   */
+  long tryConsume(long nowNanos, long intervalNanos, long capacity) {
+    long burstNanos = intervalNanos * capacity;
+    while (true) {
+      long current = theoreticalArrivalNanos.get();
+      long next = Math.max(current, nowNanos) + intervalNanos;
+      long waitNanos = next - nowNanos - burstNanos;
+      if (waitNanos > 0) {
+        return waitNanos;
+      }
+      if (theoreticalArrivalNanos.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /** A bucket idle long enough is full again and equivalent to a fresh one. */
+  boolean isIdleSince(long thresholdNanos) {
+    return theoreticalArrivalNanos.get() - thresholdNanos < 0;
+  }
+}
@@ -0,0 +1,39 @@
+package com.ayed.booknetwork.reservation;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A user's place in the waitlist of a borrowed book. Waiting reservations are served in {@code id}
+ * order; {@code closedAt} is when the reservation was fulfilled or cancelled.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "book_reservations")
+public class BookReservation {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long bookId;
+
+  @Column(nullable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ReservationStatus status;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime closedAt;
+}
@@ -0,0 +1,95 @@
+package com.ayed.booknetwork.reservation;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Queue operations on {@code book_reservations}. They expect the caller to hold the book's
+ * reservation lock, see {@link ReservationService}.
+ */
+@Repository
+public interface BookReservationRepository extends JpaRepository<BookReservation, Long> {
+
+  /** Appends the user to the book's queue, or returns nothing if they are in it already. */
+  @Query(
+      value =
+          """
+          INSERT INTO book_reservations (book_id, user_id, status, created_at)
+          VALUES (:bookId, :userId, 'WAITING', :now)
+          ON CONFLICT (book_id, user_id) WHERE status = 'WAITING' DO NOTHING
+          RETURNING id
+          """,
+      nativeQuery = true)
+  Optional<Long> enqueue(Long bookId, Long userId, LocalDateTime now);
+
+  @Query(
+      """
+      SELECT r.id FROM BookReservation r
+      WHERE r.bookId = :bookId AND r.userId = :userId
+        AND r.status = com.ayed.booknetwork.reservation.ReservationStatus.WAITING
+      """)
+  Optional<Long> findWaitingId(Long bookId, Long userId);
+
+  @Query(
+      """
+      SELECT (COUNT(r) > 0) FROM BookReservation r
+      WHERE r.bookId = :bookId
+        AND r.status = com.ayed.booknetwork.reservation.ReservationStatus.WAITING
+      """)
+  boolean hasWaiting(Long bookId);
+
+  /** The number of waiting reservations ahead of {@code id}, read from the queue index. */
+  @Query(
+      """
+      SELECT COUNT(r) FROM BookReservation r
+      WHERE r.bookId = :bookId AND r.id < :id
+        AND r.status = com.ayed.booknetwork.reservation.ReservationStatus.WAITING
+      """)
+  long countAhead(Long bookId, Long id);
+
+  @Modifying
+  @Query(
+      """
+      UPDATE BookReservation r
+      SET r.status = com.ayed.booknetwork.reservation.ReservationStatus.CANCELLED,
+          r.closedAt = :now
+      WHERE r.bookId = :bookId AND r.userId = :userId
+        AND r.status = com.ayed.booknetwork.reservation.ReservationStatus.WAITING
+      """)
+  int cancel(Long bookId, Long userId, LocalDateTime now);
+
+  /**
+   * Fulfills the head of the book's queue, the first entry of its queue index, and returns the user
+   * it belongs to.
+   */
+  @Query(
+      value =
+          """
+          UPDATE book_reservations SET status = 'FULFILLED', closed_at = :now
+          WHERE id = (SELECT id FROM book_reservations
+                      WHERE book_id = :bookId AND status = 'WAITING'
+                      ORDER BY id LIMIT 1)
+          RETURNING user_id
+          """,
+      nativeQuery = true)
+  Optional<Long> pollHead(Long bookId, LocalDateTime now);
+
+  /** Lendable books with a queue but no open borrow, whose hand-off has not happened yet. */
+  @Query(
+      value =
+          """
+          SELECT DISTINCT r.book_id FROM book_reservations r
+          JOIN book b ON b.id = r.book_id AND b.shareable AND NOT b.archived
+          WHERE r.status = 'WAITING'
+            AND NOT EXISTS (SELECT 1 FROM book_transaction_history h
+                            WHERE h.book_id = r.book_id AND NOT h.return_approved
+                              AND h.created_date >= :activeSince)
+          """,
+      nativeQuery = true)
+  List<Long> findBooksAwaitingHandOff(LocalDateTime activeSince);
+}
@@ -0,0 +1,67 @@
+package com.ayed.booknetwork.reservation;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("books")
+@RequiredArgsConstructor
+@Tag(name = "Book")
+public class ReservationController {
+
+  private final ReservationService reservationService;
+
+  /**
+   * Join the waitlist of a borrowed book. The user borrows it automatically when their turn comes.
+   *
+   * @param bookId The ID of the book to reserve.
+   * @param connectedUser The authenticated user.
+   * @return ResponseEntity with HTTP status 201 (Created) and the reservation with its place in the
+   *     queue, or the existing reservation if the user is already waiting.
+   */
+  @Operation(summary = "Reserve a borrowed book")
+  @ApiResponse(
+      responseCode = "201",
+      description = "Reservation created",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = ReservationResponse.class))
+      })
+  @ApiResponse(
+      responseCode = "400",
+      description = "Own, available, archived or not shareable book, or already borrowed")
+  @PostMapping("{bookId}/reservations")
+  public ResponseEntity<ReservationResponse> reserve(
+      @PathVariable Long bookId, Authentication connectedUser) {
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(reservationService.reserve(bookId, connectedUser));
+  }
+
+  /**
+   * Leave the waitlist of a book.
+   *
+   * @param bookId The ID of the book.
+   * @param connectedUser The authenticated user.
+   * @return ResponseEntity with HTTP status 204 (No Content), whether or not the user was waiting.
+   */
+  @Operation(summary = "Cancel a book reservation")
+  @ApiResponse(responseCode = "204", description = "Reservation cancelled")
+  @DeleteMapping("{bookId}/reservations")
+  public ResponseEntity<Void> cancel(@PathVariable Long bookId, Authentication connectedUser) {
+    reservationService.cancel(bookId, connectedUser);
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.reservation;
+
+/**
+ * A waiting reservation; {@code position} is 1 for the next user to get the book. Reservations
+ * ahead that were still being made concurrently are not counted yet.
+ */
+public record ReservationResponse(Long id, Long bookId, long position) {}
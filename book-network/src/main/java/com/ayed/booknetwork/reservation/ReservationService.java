@@ -0,0 +1,170 @@
+package com.ayed.booknetwork.reservation;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.book.BookRepository;
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
+import com.ayed.booknetwork.history.BookTransactionHistory;
+import com.ayed.booknetwork.history.BookTransactionHistoryRepository;
+import com.ayed.booknetwork.history.BorrowActivityEvent;
+import com.ayed.booknetwork.history.HistoryPartitionService;
+import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Waitlists for borrowed books. Users join the queue of a book while it is borrowed; once its
+ * return is approved, the head of the queue is fulfilled and borrows the book in the same
+ * transaction, so it is never seen available in between.
+ *
+ * <p>Each book has a transaction-scoped advisory lock: joining and leaving a queue take it shared,
+ * so they never wait for one another, and the hand-off takes it exclusively. The hand-off thus sees
+ * every reservation whose user was told they are waiting, and reads the head from the first entry
+ * of the queue index without sorting anything. Hand-offs missed because a node stopped before
+ * running them are caught up by {@link #handOffPending()}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationService {
+  private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+  private static final int LOCK_NAMESPACE = "book_reservations".hashCode();
+
+  private final BookReservationRepository reservationRepository;
+  private final BookRepository bookRepository;
+  private final BookTransactionHistoryRepository historyRepository;
+  private final UserRepository userRepository;
+  private final HistoryPartitionService historyPartitionService;
+  private final JdbcTemplate jdbcTemplate;
+  private final PlatformTransactionManager transactionManager;
+
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    // Runs after the return approval committed, so it needs a transaction of its own.
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  /**
+   * Puts the user at the end of the book's queue, or returns their current place if they are in it
+   * already. Only a borrowed book, or one whose queue is still being served, can be reserved.
+   */
+  @Transactional
+  public ReservationResponse reserve(Long bookId, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    Book book =
+        bookRepository
+            .findById(bookId)
+            .orElseThrow(() -> new EntityNotFoundException("Book not found with id " + bookId));
+    if (Objects.equals(book.getOwner().getId(), user.getId())) {
+      throw new OperationNotPermittedException("You cannot reserve your own book");
+    }
+    if (book.isArchived() || !book.isShareable()) {
+      throw new OperationNotPermittedException(
+          "The requested book cannot be reserved since it is archived or not shareable");
+    }
+    lock(bookId, false);
+    List<Long> borrowerIds =
+        historyRepository.findActiveBorrowerIds(bookId, historyPartitionService.getActiveSince());
+    if (borrowerIds.contains(user.getId())) {
+      throw new OperationNotPermittedException("You already borrowed this book");
+    }
+    if (borrowerIds.isEmpty() && !reservationRepository.hasWaiting(bookId)) {
+      throw new OperationNotPermittedException(
+          "The requested book is available, borrow it instead");
+    }
+    Long reservationId =
+        reservationRepository
+            .enqueue(bookId, user.getId(), LocalDateTime.now())
+            .or(() -> reservationRepository.findWaitingId(bookId, user.getId()))
+            .orElseThrow(
+                () -> new OperationNotPermittedException("Your reservation was just cancelled"));
+    return new ReservationResponse(
+        reservationId, bookId, reservationRepository.countAhead(bookId, reservationId) + 1);
+  }
+
+  /**
+   * Removes the user from the book's queue.
+   *
+   * @return whether they were waiting for it
+   */
+  @Transactional
+  public boolean cancel(Long bookId, Authentication connectedUser) {
+    User user = ((User) connectedUser.getPrincipal());
+    lock(bookId, false);
+    return reservationRepository.cancel(bookId, user.getId(), LocalDateTime.now()) > 0;
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBorrowActivity(BorrowActivityEvent event) {
+    if (event.type() == BorrowActivityEvent.Type.RETURN_APPROVED) {
+      transactionTemplate.executeWithoutResult(status -> handOff(event.bookId()));
+    }
+  }
+
+  /** Hands off the lendable books whose queue was not served when their return was approved. */
+  @Scheduled(
+      fixedDelayString = "${application.reservations.hand-off-sweep-interval-millis:60000}",
+      initialDelayString = "${application.reservations.hand-off-sweep-interval-millis:60000}")
+  public void handOffPending() {
+    for (Long bookId :
+        reservationRepository.findBooksAwaitingHandOff(historyPartitionService.getActiveSince())) {
+      transactionTemplate.executeWithoutResult(status -> handOff(bookId));
+    }
+  }
+
+  // Checks again under the exclusive lock, so a hand-off that already happened is not repeated.
+  private void handOff(Long bookId) {
+    lock(bookId, true);
+    Optional<Book> book = bookRepository.findById(bookId);
+    if (book.isEmpty()
+        || book.get().isArchived()
+        || !book.get().isShareable()
+        || historyRepository.isBookBorrowed(bookId, historyPartitionService.getActiveSince())) {
+      return;
+    }
+    reservationRepository
+        .pollHead(bookId, LocalDateTime.now())
+        .ifPresent(
+            userId -> {
+              // The borrower is the audit author: the hand-off runs on behalf of no logged-in user.
+              historyRepository.save(
+                  BookTransactionHistory.builder()
+                      .user(userRepository.getReferenceById(userId))
+                      .book(book.get())
+                      .createdBy(userId)
+                      .build());
+              logger.debug("Handed off book {} to user {}", bookId, userId);
+            });
+  }
+
+  // Keyed by the low 32 bits of the book id; books sharing them merely serialize their hand-offs.
+  private void lock(Long bookId, boolean exclusive) {
+    jdbcTemplate.query(
+        exclusive
+            ? "SELECT pg_advisory_xact_lock(?, ?)"
+            : "SELECT pg_advisory_xact_lock_shared(?, ?)",
+        resultSet -> null,
+        LOCK_NAMESPACE,
+        bookId.intValue());
+  }
+}
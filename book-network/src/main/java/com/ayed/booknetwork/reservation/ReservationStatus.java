@@ -0,0 +1,7 @@
+package com.ayed.booknetwork.reservation;
+
+public enum ReservationStatus {
+  WAITING,
+  FULFILLED,
+  CANCELLED
+}
@@ -1,6 +1,7 @@
 package com.ayed.booknetwork.role;
 
 
+import com.ayed.booknetwork.cache.CacheInvalidationListener;
 import com.ayed.booknetwork.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -20,7 +21,7 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CacheInvalidationListener.class})
 public class Role {
 
     @Id
@@ -2,12 +2,19 @@ package com.ayed.booknetwork.security;
 
 import com.ayed.booknetwork.user.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.jackson.io.JacksonDeserializer;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,6 +34,23 @@ public class JwtService {
 
   private final UserRepository userRepository;
 
+  // jjwt looks its serializer and codecs up through ServiceLoader for every builder or parser it
+  // creates, which costs more than the signature itself; they are created once instead.
+  private Key signInKey;
+  private JwtParser jwtParser;
+  private Serializer<Map<String, ?>> serializer;
+
+  @PostConstruct
+  void init() {
+    signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+    jwtParser =
+        Jwts.parserBuilder()
+            .setSigningKey(signInKey)
+            .deserializeJsonWith(new JacksonDeserializer<>())
+            .build();
+    serializer = new JacksonSerializer<>();
+  }
+
   public String generateToken(UserDetails userDetails) {
     return generateToken(new HashMap<>(), userDetails);
   }
@@ -41,19 +65,16 @@ public class JwtService {
         userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
     return Jwts.builder()
         .setClaims(extraClaims)
+        .setId(UUID.randomUUID().toString())
         .setSubject(userDetails.getUsername())
         .setIssuedAt(new Date(System.currentTimeMillis()))
         .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
         .claim("authorities", authorities)
-        .signWith(getSignInkey())
+        .signWith(signInKey)
+        .serializeToJsonWith(serializer)
         .compact();
   }
 
-  private Key getSignInkey() {
-    byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-    return Keys.hmacShaKeyFor(keyBytes);
-  }
-
   public boolean isTokenValid(String token, UserDetails userDetails) {
     final String email = extractUsername(token);
     return (email.equals(userDetails.getUsername())) && !isTokenExpired(token);
@@ -63,7 +84,7 @@ public class JwtService {
     return extractExpiration(token).before(new Date());
   }
 
-  private Date extractExpiration(String token) {
+  public Date extractExpiration(String token) {
     return extractClaim(token, Claims::getExpiration);
   }
 
@@ -76,11 +97,7 @@ public class JwtService {
     return claimResolver.apply(claims);
   }
 
-  private Claims extractAllClaims(String token) {
-    return Jwts.parserBuilder()
-        .setSigningKey(getSignInkey())
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
+  public Claims extractAllClaims(String token) {
+    return jwtParser.parseClaimsJws(token).getBody();
   }
 }
@@ -0,0 +1,32 @@
+package com.ayed.booknetwork.security;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A revoked JWT ({@code tokenId} set) or a cut-off revoking every token of {@code subject} issued
+ * at or before {@code revokedBefore}. Rows are purged once {@code expiresAt} has passed, as the
+ * tokens they cover have expired by then.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+  @Id @GeneratedValue private Long id;
+  private String tokenId;
+
+  @Column(nullable = false)
+  private String subject;
+
+  private LocalDateTime revokedBefore;
+
+  @Column(nullable = false)
+  private LocalDateTime expiresAt;
+}
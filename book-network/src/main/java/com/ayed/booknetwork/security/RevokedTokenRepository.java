@@ -0,0 +1,36 @@
+package com.ayed.booknetwork.security;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+  boolean existsByTokenId(String tokenId);
+
+  @Query(
+      """
+      SELECT r.tokenId FROM RevokedToken r
+      WHERE r.tokenId IS NOT NULL AND r.expiresAt > :now
+      """)
+  List<String> findActiveTokenIds(LocalDateTime now);
+
+  /** The latest cut-off of each subject, as {@code [subject, revokedBefore]} pairs. */
+  @Query(
+      """
+      SELECT r.subject, MAX(r.revokedBefore) FROM RevokedToken r
+      WHERE r.revokedBefore IS NOT NULL AND r.expiresAt > :now
+      GROUP BY r.subject
+      """)
+  List<Object[]> findActiveCutoffs(LocalDateTime now);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM RevokedToken r WHERE r.expiresAt <= :now")
+  int deleteExpired(LocalDateTime now);
+}
@@ -2,7 +2,15 @@ package com.ayed.booknetwork.security;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
+import com.ayed.booknetwork.admission.AdmissionControlFilter;
+import com.ayed.booknetwork.admission.AdmissionProperties;
+import com.ayed.booknetwork.idempotency.IdempotencyFilter;
+import com.ayed.booknetwork.ratelimit.RateLimitFilter;
+import com.ayed.booknetwork.ratelimit.RateLimitProperties;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -18,11 +26,21 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 @RequiredArgsConstructor
 @EnableMethodSecurity(securedEnabled = true)
+@EnableConfigurationProperties({RateLimitProperties.class, AdmissionProperties.class})
 public class SecurityConfig {
 
   private final JwtAuthFilter jwtAuthFilter;
+  private final AdmissionControlFilter admissionControlFilter;
+  private final RateLimitFilter rateLimitFilter;
+  private final IdempotencyFilter idempotencyFilter;
   private final AuthenticationProvider authenticationProvider;
 
+  @Value("${server.port:8080}")
+  private int serverPort;
+
+  @Value("${management.server.port:-1}")
+  private int managementPort;
+
   @Bean
   public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
     httpSecurity
@@ -30,7 +48,20 @@ public class SecurityConfig {
         .csrf(AbstractHttpConfigurer::disable)
         .authorizeHttpRequests(
             req ->
-                req.requestMatchers(
+                // Async dispatches only complete a request that was authorized when it started,
+                // such as a notification stream; the JWT is not re-read for them.
+                req.dispatcherTypeMatchers(DispatcherType.ASYNC)
+                    .permitAll()
+                    // The management port is bound to the loopback interface, see
+                    // management.server in the application configuration.
+                    .requestMatchers(
+                        request ->
+                            managementPort != serverPort
+                                && request.getLocalPort() == managementPort)
+                    .permitAll()
+                    .requestMatchers("/auth/logout", "/auth/logout-all")
+                    .authenticated()
+                    .requestMatchers(
                         "/auth/**",
                         "/v2/api-docs",
                         "/v3/api-docs",
@@ -41,14 +72,19 @@ public class SecurityConfig {
                         "/configuration/security",
                         "/swagger-ui/**",
                         "/webjars/**",
-                        "/swagger-ui.html")
+                        "/swagger-ui.html",
+                        "/livez",
+                        "/readyz")
                     .permitAll()
                     .anyRequest()
                     .authenticated())
         .sessionManagement(
             session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authenticationProvider(authenticationProvider)
-        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+        .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+        .addFilterBefore(rateLimitFilter, JwtAuthFilter.class)
+        .addFilterBefore(admissionControlFilter, RateLimitFilter.class)
+        .addFilterAfter(idempotencyFilter, JwtAuthFilter.class);
     return httpSecurity.build();
   }
 }
@@ -0,0 +1,151 @@
+package com.ayed.booknetwork.security;
+
+import com.ayed.booknetwork.common.BloomFilter;
+import io.jsonwebtoken.Claims;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Answers "is this token revoked" without touching the database in the common case. Revoked token
+ * ids are kept in a Bloom filter, so a token that was never revoked is cleared with a few hash
+ * probes and only a filter hit is confirmed against {@code revoked_tokens}. Per-user cut-offs are
+ * few (one per user who logged out everywhere) and are held exactly in memory.
+ *
+ * <p>Both are rebuilt from the table at startup and periodically. The periodic rebuild also drops
+ * expired rows and picks up revocations made on other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService implements SmartLifecycle {
+  private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+  private static final int MIN_CAPACITY = 10_000;
+
+  private final RevokedTokenRepository revokedTokenRepository;
+
+  @Value("${application.security.jwt.expiration}")
+  private long jwtExpiration;
+
+  @Value("${application.security.revocation.false-positive-probability:0.01}")
+  private double falsePositiveProbability;
+
+  private volatile BloomFilter revokedTokenIds;
+  private volatile ConcurrentHashMap<String, Instant> cutoffs = new ConcurrentHashMap<>();
+
+  private volatile boolean running;
+
+  // A lifecycle start rather than @PostConstruct: it still runs before the web server accepts
+  // requests (the server starts in a later phase), but not during a CDS training run.
+  @Override
+  public void start() {
+    rebuild();
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return 0;
+  }
+
+  public boolean isRevoked(Claims claims) {
+    String tokenId = claims.getId();
+    if (tokenId != null
+        && revokedTokenIds.mightContain(tokenId)
+        && revokedTokenRepository.existsByTokenId(tokenId)) {
+      return true;
+    }
+    Instant cutoff = cutoffs.get(claims.getSubject());
+    return cutoff != null && !claims.getIssuedAt().toInstant().isAfter(cutoff);
+  }
+
+  /** Revokes a single token. Tokens issued before ids were added can only be revoked by user. */
+  public void revokeToken(Claims claims) {
+    if (claims.getId() == null) {
+      return;
+    }
+    revokedTokenRepository.save(
+        RevokedToken.builder()
+            .tokenId(claims.getId())
+            .subject(claims.getSubject())
+            .expiresAt(toLocalDateTime(claims.getExpiration().toInstant()))
+            .build());
+    synchronized (this) {
+      revokedTokenIds.add(claims.getId());
+      if (revokedTokenIds.isSaturated()) {
+        rebuild();
+      }
+    }
+  }
+
+  /**
+   * Revokes every token of the user issued at or before {@code before}. Token issue times have a
+   * one second resolution, so a token issued within the same second is revoked as well.
+   */
+  public void revokeAllBefore(String subject, Instant before) {
+    Instant cutoff = before.truncatedTo(ChronoUnit.SECONDS);
+    revokedTokenRepository.save(
+        RevokedToken.builder()
+            .subject(subject)
+            .revokedBefore(toLocalDateTime(cutoff))
+            .expiresAt(toLocalDateTime(cutoff.plusMillis(jwtExpiration)))
+            .build());
+    synchronized (this) {
+      cutoffs.merge(subject, cutoff, (a, b) -> a.isAfter(b) ? a : b);
+    }
+  }
+
+  @Scheduled(
+      fixedDelayString = "${application.security.revocation.rebuild-interval-millis:60000}",
+      initialDelayString = "${application.security.revocation.rebuild-interval-millis:60000}")
+  public void purgeAndRebuild() {
+    int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+    if (purged > 0) {
+      logger.debug("Purged {} expired token revocations", purged);
+    }
+    rebuild();
+  }
+
+  // Runs under the lock so a revocation saved concurrently is either read here or added to the
+  // new filter afterwards, never lost in between.
+  private synchronized void rebuild() {
+    LocalDateTime now = LocalDateTime.now();
+    List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(now);
+    BloomFilter filter =
+        new BloomFilter(Math.max(MIN_CAPACITY, tokenIds.size() * 2), falsePositiveProbability);
+    tokenIds.forEach(filter::add);
+    ConcurrentHashMap<String, Instant> activeCutoffs = new ConcurrentHashMap<>();
+    for (Object[] row : revokedTokenRepository.findActiveCutoffs(now)) {
+      activeCutoffs.put((String) row[0], toInstant((LocalDateTime) row[1]));
+    }
+    revokedTokenIds = filter;
+    cutoffs = activeCutoffs;
+  }
+
+  private static LocalDateTime toLocalDateTime(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+  }
+
+  private static Instant toInstant(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant();
+  }
+}
@@ -1,23 +1,56 @@
 package com.ayed.booknetwork.security;
 
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.cache.InvalidationBus;
+import com.ayed.booknetwork.cache.LocalCache;
+import com.ayed.booknetwork.user.User;
 import com.ayed.booknetwork.user.UserRepository;
-import jakarta.transaction.Transactional;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Loads users by email for every authenticated request. Users are cached per node and evicted
+ * through the {@link InvalidationBus} whenever a user or a role changes on any node. Misses are
+ * loaded from the primary: the eviction may arrive before a replica has replayed the change, and a
+ * row read there would stay cached for the whole TTL.
+ */
 @Service
 @RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
   private final UserRepository userRepository;
+  private final InvalidationBus invalidationBus;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.cache.user.max-size:10000}")
+  private int maxSize;
+
+  @Value("${application.cache.user.ttl-millis:600000}")
+  private long ttlMillis;
+
+  private LocalCache<User> users;
+  private TransactionTemplate primaryTransaction;
+
+  @PostConstruct
+  void init() {
+    users = invalidationBus.createCache(EntityChangedEvent.USER, maxSize, ttlMillis);
+    // Not read-only, so the routing data source picks the primary.
+    primaryTransaction = new TransactionTemplate(transactionManager);
+  }
 
   @Override
-  @Transactional
   public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-    return userRepository
-        .findByEmail(email)
-        .orElseThrow(() -> new UsernameNotFoundException("User not found!"));
+    return users.get(
+        email,
+        () ->
+            primaryTransaction
+                .execute(status -> userRepository.findByEmail(email))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found!")));
   }
 }
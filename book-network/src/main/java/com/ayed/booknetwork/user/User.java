@@ -1,6 +1,7 @@
 package com.ayed.booknetwork.user;
 
 import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.cache.CacheInvalidationListener;
 import com.ayed.booknetwork.history.BookTransactionHistory;
 import com.ayed.booknetwork.role.Role;
 import jakarta.persistence.*;
@@ -26,7 +27,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 @NoArgsConstructor
 @Entity
 @Table(name = "users")
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, CacheInvalidationListener.class})
 public class User implements UserDetails, Principal {
 
   @Id @GeneratedValue private Long id;
@@ -100,6 +101,11 @@ public class User implements UserDetails, Principal {
   }
 
   public String fullName() {
+    return fullName(firstname, lastname);
+  }
+
+  /** The display name, for code that reads the name columns without loading the user. */
+  public static String fullName(String firstname, String lastname) {
     return firstname + " " + lastname;
   }
 }
@@ -0,0 +1,43 @@
+package com.ayed.booknetwork.user;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("users")
+@RequiredArgsConstructor
+@Tag(name = "User")
+public class UserController {
+
+  private final UserStatsService userStatsService;
+
+  /**
+   * Retrieve the dashboard statistics of the connected user.
+   *
+   * @param connectedUser The authentication object representing the connected user.
+   * @return ResponseEntity with HTTP status 200 (OK) and the user's book, borrow and rating
+   *     counters.
+   */
+  @Operation(summary = "Find the statistics of the connected user")
+  @ApiResponse(
+      responseCode = "200",
+      description = "Statistics found",
+      content = {
+        @Content(
+            mediaType = "application/json",
+            schema = @Schema(implementation = UserStatsResponse.class))
+      })
+  @GetMapping("me/stats")
+  public ResponseEntity<UserStatsResponse> findMyStats(Authentication connectedUser) {
+    return ResponseEntity.ok(userStatsService.findStats(connectedUser));
+  }
+}
@@ -0,0 +1,35 @@
+package com.ayed.booknetwork.user;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Dashboard counters of a user, maintained incrementally by {@link UserStatsService}.
+ *
+ * <p>{@code ownedBooks} counts books that are not archived, {@code lentOutBooks} borrows of the
+ * user's books whose return is not approved yet, and the rating fields the feedback received on the
+ * user's books.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+  @Id private Long userId;
+
+  private long ownedBooks;
+  private long lentOutBooks;
+  private long borrowedBooks;
+  private long returnedBooks;
+  private double ratingSum;
+  private long ratingCount;
+}
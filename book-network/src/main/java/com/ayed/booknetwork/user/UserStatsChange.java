@@ -0,0 +1,32 @@
+package com.ayed.booknetwork.user;
+
+/** Amounts to add to the counters of a user's {@link UserStats}. */
+public record UserStatsChange(
+    Long userId,
+    long ownedBooks,
+    long lentOutBooks,
+    long borrowedBooks,
+    long returnedBooks,
+    double ratingSum,
+    long ratingCount) {
+
+  public static UserStatsChange ownedBooks(Long userId, long delta) {
+    return new UserStatsChange(userId, delta, 0, 0, 0, 0, 0);
+  }
+
+  public static UserStatsChange lentOutBooks(Long userId, long delta) {
+    return new UserStatsChange(userId, 0, delta, 0, 0, 0, 0);
+  }
+
+  public static UserStatsChange borrowedBook(Long userId) {
+    return new UserStatsChange(userId, 0, 0, 1, 0, 0, 0);
+  }
+
+  public static UserStatsChange returnedBook(Long userId) {
+    return new UserStatsChange(userId, 0, 0, 0, 1, 0, 0);
+  }
+
+  public static UserStatsChange rating(Long userId, double note) {
+    return new UserStatsChange(userId, 0, 0, 0, 0, note, 1);
+  }
+}
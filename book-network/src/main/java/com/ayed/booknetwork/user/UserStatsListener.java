@@ -0,0 +1,65 @@
+package com.ayed.booknetwork.user;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.feedback.Feedback;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener turning new, archived and restored books and new ratings into {@link
+ * UserStatsChange}s for the owner. Borrows and returns arrive as {@code BorrowActivityEvent}s.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatsListener {
+  private final ApplicationEventPublisher publisher;
+
+  @PostLoad
+  public void onLoad(Object entity) {
+    if (entity instanceof Book book) {
+      book.setLoadedArchived(book.isArchived());
+    }
+  }
+
+  @PostPersist
+  public void onPersist(Object entity) {
+    if (entity instanceof Book book) {
+      if (!book.isArchived()) {
+        publish(book, 1);
+      }
+      book.setLoadedArchived(book.isArchived());
+    } else if (entity instanceof Feedback feedback
+        && feedback.getNote() != null
+        && feedback.getBook() != null
+        && feedback.getBook().getOwner() != null) {
+      publisher.publishEvent(
+          UserStatsChange.rating(feedback.getBook().getOwner().getId(), feedback.getNote()));
+    }
+  }
+
+  @PostUpdate
+  public void onUpdate(Object entity) {
+    if (entity instanceof Book book && book.isArchived() != book.isLoadedArchived()) {
+      publish(book, book.isArchived() ? -1 : 1);
+      book.setLoadedArchived(book.isArchived());
+    }
+  }
+
+  @PostRemove
+  public void onRemove(Object entity) {
+    if (entity instanceof Book book && !book.isLoadedArchived()) {
+      publish(book, -1);
+    }
+  }
+
+  private void publish(Book book, long delta) {
+    if (book.getOwner() != null) {
+      publisher.publishEvent(UserStatsChange.ownedBooks(book.getOwner().getId(), delta));
+    }
+  }
+}
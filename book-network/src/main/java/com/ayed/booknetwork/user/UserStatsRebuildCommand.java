@@ -0,0 +1,30 @@
+package com.ayed.booknetwork.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs {@link UserStatsService#rebuild()} and exits when the application is started with {@code
+ * --rebuild-user-stats}, see {@code scripts/rebuild-user-stats.sh}.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserStatsRebuildCommand implements ApplicationRunner {
+  public static final String OPTION = "rebuild-user-stats";
+
+  private final UserStatsService userStatsService;
+  private final ApplicationContext applicationContext;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!args.containsOption(OPTION)) {
+      return;
+    }
+    userStatsService.rebuild();
+    System.exit(SpringApplication.exit(applicationContext, () -> 0));
+  }
+}
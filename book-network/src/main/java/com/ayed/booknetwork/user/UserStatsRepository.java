@@ -0,0 +1,101 @@
+package com.ayed.booknetwork.user;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO user_stats (user_id, owned_books, lent_out_books, borrowed_books,
+                                  returned_books, rating_sum, rating_count)
+          VALUES (:userId, :ownedBooks, :lentOutBooks, :borrowedBooks,
+                  :returnedBooks, :ratingSum, :ratingCount)
+          ON CONFLICT (user_id) DO UPDATE
+          SET owned_books = user_stats.owned_books + EXCLUDED.owned_books,
+              lent_out_books = user_stats.lent_out_books + EXCLUDED.lent_out_books,
+              borrowed_books = user_stats.borrowed_books + EXCLUDED.borrowed_books,
+              returned_books = user_stats.returned_books + EXCLUDED.returned_books,
+              rating_sum = user_stats.rating_sum + EXCLUDED.rating_sum,
+              rating_count = user_stats.rating_count + EXCLUDED.rating_count
+          """,
+      nativeQuery = true)
+  void add(
+      Long userId,
+      long ownedBooks,
+      long lentOutBooks,
+      long borrowedBooks,
+      long returnedBooks,
+      double ratingSum,
+      long ratingCount);
+
+  @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+  List<Long> findUserIdsAfter(Long afterId, Pageable pageable);
+
+  /**
+   * Recomputes the counters of the users with ids in {@code [fromId, toId]} from the source tables.
+   * Each source is aggregated once for the whole id range rather than once per user, and open
+   * borrows are only looked up from {@code activeSince} on, so old history partitions are pruned.
+   * Borrows of archived partitions are counted from {@code archived_borrow_counts}.
+   */
+  @Modifying
+  @Query(
+      value =
+          """
+          WITH owned AS (
+                   SELECT owner_id AS user_id, COUNT(*) AS books
+                   FROM book
+                   WHERE owner_id BETWEEN :fromId AND :toId AND NOT archived
+                   GROUP BY owner_id),
+               lent_out AS (
+                   SELECT b.owner_id AS user_id, COUNT(*) AS books
+                   FROM book_transaction_history h JOIN book b ON b.id = h.book_id
+                   WHERE b.owner_id BETWEEN :fromId AND :toId
+                     AND NOT h.return_approved AND h.created_date >= :activeSince
+                   GROUP BY b.owner_id),
+               borrowed AS (
+                   SELECT user_id, SUM(books) AS books, SUM(returned) AS returned
+                   FROM (SELECT user_id, COUNT(*) AS books,
+                                COUNT(*) FILTER (WHERE returned) AS returned
+                         FROM book_transaction_history
+                         WHERE user_id BETWEEN :fromId AND :toId
+                         GROUP BY user_id
+                         UNION ALL
+                         SELECT user_id, borrowed_books, returned_books
+                         FROM archived_borrow_counts
+                         WHERE user_id BETWEEN :fromId AND :toId) counts
+                   GROUP BY user_id),
+               ratings AS (
+                   SELECT b.owner_id AS user_id, SUM(f.note) AS note_sum, COUNT(f.note) AS notes
+                   FROM feedback f JOIN book b ON b.id = f.book_id
+                   WHERE b.owner_id BETWEEN :fromId AND :toId
+                   GROUP BY b.owner_id)
+          INSERT INTO user_stats (user_id, owned_books, lent_out_books, borrowed_books,
+                                  returned_books, rating_sum, rating_count)
+          SELECT u.id, COALESCE(o.books, 0), COALESCE(l.books, 0), COALESCE(br.books, 0),
+                 COALESCE(br.returned, 0), COALESCE(r.note_sum, 0), COALESCE(r.notes, 0)
+          FROM users u
+          LEFT JOIN owned o ON o.user_id = u.id
+          LEFT JOIN lent_out l ON l.user_id = u.id
+          LEFT JOIN borrowed br ON br.user_id = u.id
+          LEFT JOIN ratings r ON r.user_id = u.id
+          WHERE u.id BETWEEN :fromId AND :toId
+          ON CONFLICT (user_id) DO UPDATE
+          SET owned_books = EXCLUDED.owned_books,
+              lent_out_books = EXCLUDED.lent_out_books,
+              borrowed_books = EXCLUDED.borrowed_books,
+              returned_books = EXCLUDED.returned_books,
+              rating_sum = EXCLUDED.rating_sum,
+              rating_count = EXCLUDED.rating_count
+          """,
+      nativeQuery = true)
+  int rebuild(Long fromId, Long toId, LocalDateTime activeSince);
+}
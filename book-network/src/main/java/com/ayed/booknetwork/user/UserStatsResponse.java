@@ -0,0 +1,21 @@
+package com.ayed.booknetwork.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserStatsResponse {
+  private long ownedBooks;
+  private long lentOutBooks;
+  private long borrowedBooks;
+  private long returnedBooks;
+  private double averageRating;
+  private long ratingCount;
+}
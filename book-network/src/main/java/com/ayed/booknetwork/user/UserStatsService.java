@@ -0,0 +1,153 @@
+package com.ayed.booknetwork.user;
+
+import com.ayed.booknetwork.history.BorrowActivityEvent;
+import com.ayed.booknetwork.history.HistoryPartitionService;
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves the per-user dashboard counters of {@code user_stats} with a primary-key read. The
+ * counters are adjusted after each change to books, borrows or feedback commits, and can be
+ * recomputed from the source tables with {@link #rebuild()}.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsService {
+  private static final Logger logger = LoggerFactory.getLogger(UserStatsService.class);
+
+  private final UserStatsRepository userStatsRepository;
+  private final HistoryPartitionService historyPartitionService;
+  private final PlatformTransactionManager transactionManager;
+
+  @Value("${application.user-stats.rebuild-chunk-size:1000}")
+  private int rebuildChunkSize;
+
+  @Value("${application.user-stats.rebuild-threads:4}")
+  private int rebuildThreads;
+
+  private TransactionTemplate transactionTemplate;
+
+  @PostConstruct
+  void init() {
+    transactionTemplate = new TransactionTemplate(transactionManager);
+    // Runs after the triggering transaction committed, so it needs a transaction of its own.
+    transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public UserStatsResponse findStats(Authentication connectedUser) {
+    User user = (User) connectedUser.getPrincipal();
+    UserStats stats =
+        userStatsRepository
+            .findById(user.getId())
+            .orElseGet(() -> UserStats.builder().userId(user.getId()).build());
+    return UserStatsResponse.builder()
+        .ownedBooks(stats.getOwnedBooks())
+        .lentOutBooks(stats.getLentOutBooks())
+        .borrowedBooks(stats.getBorrowedBooks())
+        .returnedBooks(stats.getReturnedBooks())
+        .averageRating(
+            stats.getRatingCount() > 0
+                ? Math.round(stats.getRatingSum() / stats.getRatingCount() * 10.0) / 10.0
+                : 0)
+        .ratingCount(stats.getRatingCount())
+        .build();
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStatsChange(UserStatsChange change) {
+    transactionTemplate.executeWithoutResult(status -> apply(change));
+  }
+
+  @Async
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onBorrowActivity(BorrowActivityEvent event) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          switch (event.type()) {
+            case BORROWED -> {
+              apply(UserStatsChange.borrowedBook(event.borrowerId()));
+              apply(UserStatsChange.lentOutBooks(event.ownerId(), 1));
+            }
+            case RETURNED -> apply(UserStatsChange.returnedBook(event.borrowerId()));
+            case RETURN_APPROVED -> apply(UserStatsChange.lentOutBooks(event.ownerId(), -1));
+          }
+        });
+  }
+
+  /**
+   * Recomputes every user's counters from the source tables, in chunks of consecutive user ids run
+   * in parallel, each in its own transaction. Changes committed while a chunk runs may be counted
+   * twice, so run it while writes are quiet.
+   *
+   * @return the number of users rebuilt
+   */
+  public int rebuild() {
+    long start = System.currentTimeMillis();
+    LocalDateTime activeSince = historyPartitionService.getActiveSince();
+    ExecutorService executor = Executors.newFixedThreadPool(rebuildThreads);
+    try {
+      List<Future<Integer>> chunks = new ArrayList<>();
+      long afterId = Long.MIN_VALUE;
+      List<Long> ids;
+      while (!(ids =
+              userStatsRepository.findUserIdsAfter(afterId, PageRequest.of(0, rebuildChunkSize)))
+          .isEmpty()) {
+        Long fromId = ids.get(0);
+        Long toId = ids.get(ids.size() - 1);
+        chunks.add(
+            executor.submit(
+                () ->
+                    transactionTemplate.execute(
+                        status -> userStatsRepository.rebuild(fromId, toId, activeSince))));
+        afterId = toId;
+      }
+      int rebuilt = 0;
+      for (Future<Integer> chunk : chunks) {
+        rebuilt += chunk.get();
+      }
+      logger.info(
+          "Rebuilt the stats of {} users in {} chunks in {} ms",
+          rebuilt,
+          chunks.size(),
+          System.currentTimeMillis() - start);
+      return rebuilt;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("User stats rebuild interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("User stats rebuild failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void apply(UserStatsChange change) {
+    userStatsRepository.add(
+        change.userId(),
+        change.ownedBooks(),
+        change.lentOutBooks(),
+        change.borrowedBooks(),
+        change.returnedBooks(),
+        change.ratingSum(),
+        change.ratingCount());
+  }
+}
@@ -0,0 +1,143 @@
+package com.ayed.booknetwork.warmup;
+
+import com.ayed.booknetwork.auth.AuthenticationRequest;
+import com.ayed.booknetwork.book.BookService;
+import com.ayed.booknetwork.role.Role;
+import com.ayed.booknetwork.security.JwtService;
+import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserRepository;
+import com.ayed.booknetwork.user.UserStatsRebuildCommand;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the hot request paths before the node reports ready. Runners complete before the {@code
+ * ApplicationReadyEvent}, so the readiness probe stays down until warm-up is over. The catalog
+ * queries (every sort order) and the user lookup run a few dozen times: this prepares their
+ * Hibernate query plans, reads the first catalog pages into the database buffers, and runs the
+ * mapping of projected rows to book responses for the JIT. JWT signing and parsing and JSON
+ * (de)serialization run a few thousand times with synthetic data.
+ *
+ * <p>Books are not preloaded into the book cache: its entries only live for a couple of seconds.
+ *
+ * <p>Warm-up is bounded by {@code max-duration-millis} and never fails the startup; the time it
+ * took is logged and recorded as {@code warm-up.duration}.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmUpRunner implements ApplicationRunner {
+  private static final Logger logger = LoggerFactory.getLogger(WarmUpRunner.class);
+  private static final List<String> CATALOG_SORTS =
+      List.of("createdDate", "title", "author", "rating");
+  private static final int PASSWORD_ITERATIONS = 3;
+  // Every field but the cover, whose files are too big to read and serialize at every iteration.
+  private static final String FIELDS_WITHOUT_COVER =
+      "title,authorName,isbn,synopsis,owner,rate,archived,shareable";
+
+  private final BookService bookService;
+  private final UserRepository userRepository;
+  private final JwtService jwtService;
+  private final PasswordEncoder passwordEncoder;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${application.warm-up.enabled:true}")
+  private boolean enabled;
+
+  @Value("${application.warm-up.query-iterations:50}")
+  private int queryIterations;
+
+  @Value("${application.warm-up.iterations:2000}")
+  private int iterations;
+
+  @Value("${application.warm-up.max-duration-millis:20000}")
+  private long maxDurationMillis;
+
+  @Value("${application.warm-up.page-size:10}")
+  private int pageSize;
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (!enabled || args.containsOption(UserStatsRebuildCommand.OPTION)) {
+      return;
+    }
+    long start = System.nanoTime();
+    long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxDurationMillis);
+    int queries = 0;
+    int completed = 0;
+    try {
+      User user = syntheticUser();
+      Authentication reader = new UsernamePasswordAuthenticationToken(user, null, List.of());
+      while (queries < queryIterations && System.nanoTime() < deadline) {
+        exerciseQueries(queries, user, reader);
+        queries++;
+      }
+      String passwordHash = passwordEncoder.encode("warm-up");
+      while (completed < iterations && System.nanoTime() < deadline) {
+        exercise(completed, user, passwordHash);
+        completed++;
+      }
+    } catch (RuntimeException | IOException e) {
+      logger.warn("Warm-up stopped early: {}", e.toString());
+    }
+    long elapsed = System.nanoTime() - start;
+    Timer.builder("warm-up.duration")
+        .description("Time spent warming up before reporting ready")
+        .register(meterRegistry)
+        .record(elapsed, TimeUnit.NANOSECONDS);
+    logger.info(
+        "Warm-up finished in {} ms ({} query and {} in-memory iterations)",
+        TimeUnit.NANOSECONDS.toMillis(elapsed),
+        queries,
+        completed);
+  }
+
+  // One catalog page per sort order plus the user lookup behind every authenticated request. The
+  // first iteration selects every field, as clients do by default, so that query plan is prepared.
+  private void exerciseQueries(int iteration, User user, Authentication reader) throws IOException {
+    String fields = iteration == 0 ? null : FIELDS_WITHOUT_COVER;
+    for (String sort : CATALOG_SORTS) {
+      objectMapper.writeValueAsBytes(
+          bookService.findAllBooks(0, pageSize, sort, null, null, fields, reader));
+    }
+    userRepository.findByEmail(user.getEmail());
+  }
+
+  // Synthetic data and no database access, so it can run thousands of times.
+  private void exercise(int iteration, User user, String passwordHash) throws IOException {
+    String token = jwtService.generateToken(user);
+    jwtService.extractUsername(token);
+    objectMapper.readValue(
+        objectMapper.writeValueAsBytes(
+            AuthenticationRequest.builder().email(user.getEmail()).password("warm-up").build()),
+        AuthenticationRequest.class);
+    if (iteration < PASSWORD_ITERATIONS) {
+      passwordEncoder.matches("warm-up", passwordHash);
+    }
+  }
+
+  // An id no row has, so the catalog shows every displayable book and the lookups find nothing.
+  private static User syntheticUser() {
+    return User.builder()
+        .id(-1L)
+        .firstname("Warm")
+        .lastname("Up")
+        .email("warm-up@localhost")
+        .roles(List.of(Role.builder().name("USER").build()))
+        .build();
+  }
+}
@@ -0,0 +1,15 @@
+-- Waitlists for borrowed books. A book's queue is its WAITING rows in id order, so the head is the
+-- first entry of idx_book_reservations_queue. Fulfilled and cancelled rows are kept as history.
+create table book_reservations
+(
+    id         bigint generated always as identity primary key,
+    book_id    bigint       not null references book,
+    user_id    bigint       not null references users,
+    status     varchar(16)  not null,
+    created_at timestamp(6) not null,
+    closed_at  timestamp(6)
+);
+
+create index idx_book_reservations_queue on book_reservations (book_id, id) where status = 'WAITING';
+-- At most one place in a book's queue per user.
+create unique index uk_book_reservations_waiting on book_reservations (book_id, user_id) where status = 'WAITING';
@@ -0,0 +1,12 @@
+-- Follow edges between users. The primary key is the adjacency list of who a user follows and the
+-- reverse index the list of their followers, both readable with index-only scans.
+create table user_follows
+(
+    follower_id bigint       not null references users,
+    followee_id bigint       not null references users,
+    created_at  timestamp(6) not null,
+    primary key (follower_id, followee_id),
+    check (follower_id <> followee_id)
+);
+
+create index idx_user_follows_followee on user_follows (followee_id, follower_id);
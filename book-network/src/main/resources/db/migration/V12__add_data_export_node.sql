@@ -0,0 +1,3 @@
+-- The node whose disk holds the archive. Only that node fails its interrupted jobs and purges its
+-- archives; exports from before this column have no node and are handled by any node.
+alter table data_exports add column node_id varchar(255);
@@ -0,0 +1,4 @@
+-- Activation codes are random six-digit numbers without a collision check, so they may repeat; V2
+-- used to create this index unique, which made registration fail once a code came up twice.
+drop index if exists idx_tokens_token;
+create index idx_tokens_token on tokens (token);
@@ -0,0 +1,17 @@
+-- Rating and borrow counters came after the schema Flyway baselines at V1, so a database created by
+-- ddl-auto before Flyway lacks them while a newer one already has them: every statement is
+-- idempotent. The counters are backfilled by LeaderboardService on startup while book_stats is
+-- empty.
+alter table book add column if not exists average_rating double precision not null default 0;
+
+create table if not exists book_stats
+(
+    book_id      bigint           not null primary key references book,
+    rating_sum   double precision not null,
+    rating_count bigint           not null,
+    borrow_count bigint           not null
+);
+
+create index if not exists idx_book_catalog_rating on book (archived, shareable, average_rating, id);
+create index if not exists idx_book_catalog_author_rating on book (archived, shareable, author_name, average_rating, id);
+create index if not exists idx_book_stats_borrow_count on book_stats (borrow_count);
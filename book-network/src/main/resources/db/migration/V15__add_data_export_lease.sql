@@ -0,0 +1,9 @@
+-- Unfinished exports are leased instead of owned by a named node: the node running the job renews
+-- heartbeat_at, and any node fails the job once the lease has expired. Host names change with every
+-- container, so a node id could not tell which jobs died with their node.
+alter table data_exports add column heartbeat_at timestamp(6);
+update data_exports set heartbeat_at = created_at;
+alter table data_exports alter column heartbeat_at set not null;
+alter table data_exports drop column node_id;
+
+create index idx_data_exports_unfinished_heartbeat on data_exports (heartbeat_at) where status in ('PENDING', 'RUNNING');
@@ -0,0 +1,10 @@
+-- Borrow counts of the history partitions HistoryPartitionService has archived and dropped. The
+-- user stats rebuild adds them to the counts of the remaining partitions, so lifetime counters do
+-- not drop once old borrows are archived. Partitions archived before this table existed are only in
+-- their CSV archives; reload those into it to count them.
+create table archived_borrow_counts
+(
+    user_id        bigint not null primary key references users,
+    borrowed_books bigint not null,
+    returned_books bigint not null
+);
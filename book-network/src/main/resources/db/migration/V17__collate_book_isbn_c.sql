@@ -0,0 +1,4 @@
+-- Canonical ISBNs are digits and X, which sort the same in every collation. Under the C collation a
+-- B-tree index also serves LIKE 'prefix%' as a range, which the catalog's ISBN prefix filter uses.
+-- Changing the collation rebuilds the indexes on the column.
+alter table book alter column isbn type varchar(255) collate "C";
@@ -0,0 +1,87 @@
+create sequence role_seq start with 1 increment by 50;
+create sequence users_seq start with 1 increment by 50;
+create sequence tokens_seq start with 1 increment by 50;
+create sequence book_seq start with 1 increment by 50;
+create sequence feedback_seq start with 1 increment by 50;
+create sequence book_transaction_history_seq start with 1 increment by 50;
+
+create table role
+(
+    id                 bigint       not null primary key,
+    name               varchar(255) unique,
+    created_date       timestamp(6) not null,
+    last_modified_date timestamp(6)
+);
+
+create table users
+(
+    id                 bigint       not null primary key,
+    firstname          varchar(255),
+    lastname           varchar(255),
+    date_of_birth      date,
+    email              varchar(255) unique,
+    password           varchar(255),
+    account_locked     boolean      not null,
+    enabled            boolean      not null,
+    created_date       timestamp(6) not null,
+    last_modified_date timestamp(6)
+);
+
+create table users_roles
+(
+    users_id bigint not null references users,
+    roles_id bigint not null references role,
+    primary key (users_id, roles_id)
+);
+
+create table tokens
+(
+    id           bigint not null primary key,
+    token        varchar(255),
+    created_at   timestamp(6),
+    expired_at   timestamp(6),
+    validated_at timestamp(6),
+    user_id      bigint not null references users
+);
+
+create table book
+(
+    id                 bigint           not null primary key,
+    title              varchar(255),
+    author_name        varchar(255),
+    isbn               varchar(255),
+    synopsis           varchar(255),
+    book_cover         varchar(255),
+    archived           boolean          not null,
+    shareable          boolean          not null,
+    owner_id           bigint references users,
+    created_by         bigint           not null,
+    created_date       timestamp(6)     not null,
+    last_modified_by   bigint,
+    last_modified_date timestamp(6)
+);
+
+create table feedback
+(
+    id                 bigint       not null primary key,
+    note               double precision,
+    comment            varchar(255),
+    book_id            bigint references book,
+    created_by         bigint       not null,
+    created_date       timestamp(6) not null,
+    last_modified_by   bigint,
+    last_modified_date timestamp(6)
+);
+
+create table book_transaction_history
+(
+    id                 bigint       not null primary key,
+    user_id            bigint references users,
+    book_id            bigint references book,
+    returned           boolean      not null,
+    return_approved    boolean      not null,
+    created_by         bigint       not null,
+    created_date       timestamp(6) not null,
+    last_modified_by   bigint,
+    last_modified_date timestamp(6)
+);
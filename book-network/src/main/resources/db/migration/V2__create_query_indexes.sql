@@ -0,0 +1,18 @@
+-- Idempotent: databases created by ddl-auto before Flyway are baselined at V1 and already have the
+-- indexes declared on the entities.
+-- users.email is covered by its unique constraint. Activation codes are random and may repeat.
+create index if not exists idx_tokens_token on tokens (token);
+create index if not exists idx_tokens_user on tokens (user_id);
+
+create index if not exists idx_users_roles_role on users_roles (roles_id);
+
+create index if not exists idx_book_owner on book (owner_id, archived, shareable, created_date);
+create index if not exists idx_book_catalog_created on book (archived, shareable, created_date, id);
+create index if not exists idx_book_catalog_title on book (archived, shareable, title, id);
+create index if not exists idx_book_catalog_author_title on book (archived, shareable, author_name, title, id);
+create index if not exists idx_book_catalog_isbn on book (archived, shareable, isbn, id);
+
+create index if not exists idx_feedback_book on feedback (book_id);
+
+create index if not exists idx_book_transaction_history_book on book_transaction_history (book_id);
+create index if not exists idx_book_transaction_history_user on book_transaction_history (user_id);
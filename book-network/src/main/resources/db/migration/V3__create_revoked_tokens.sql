@@ -0,0 +1,13 @@
+create sequence revoked_tokens_seq start with 1 increment by 50;
+
+create table revoked_tokens
+(
+    id             bigint       not null primary key,
+    token_id       varchar(255),
+    subject        varchar(255) not null,
+    revoked_before timestamp(6),
+    expires_at     timestamp(6) not null
+);
+
+create index idx_revoked_tokens_token_id on revoked_tokens (token_id);
+create index idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
@@ -0,0 +1,48 @@
+-- Range-partition the borrow history by month of created_date. This creates the partitions needed
+-- for the existing rows and the next few months; HistoryPartitionService keeps creating them ahead
+-- of time and archives the old ones.
+create table book_transaction_history_partitioned
+(
+    id                 bigint       not null,
+    user_id            bigint references users,
+    book_id            bigint references book,
+    returned           boolean      not null,
+    return_approved    boolean      not null,
+    created_by         bigint       not null,
+    created_date       timestamp(6) not null,
+    last_modified_by   bigint,
+    last_modified_date timestamp(6),
+    primary key (id, created_date)
+) partition by range (created_date);
+
+do
+$$
+    declare
+        month date := date_trunc('month', coalesce((select min(created_date) from book_transaction_history), now()));
+    begin
+        while month < date_trunc('month', now()) + interval '4 months'
+            loop
+                execute format(
+                        'create table %I partition of book_transaction_history_partitioned for values from (%L) to (%L)',
+                        'book_transaction_history_p' || to_char(month, 'YYYYMM'),
+                        month,
+                        month + interval '1 month');
+                month := month + interval '1 month';
+            end loop;
+    end
+$$;
+
+insert into book_transaction_history_partitioned
+select id, user_id, book_id, returned, return_approved, created_by, created_date, last_modified_by, last_modified_date
+from book_transaction_history;
+
+drop table book_transaction_history;
+alter table book_transaction_history_partitioned rename to book_transaction_history;
+alter table book_transaction_history rename constraint book_transaction_history_partitioned_pkey to book_transaction_history_pkey;
+alter table book_transaction_history rename constraint book_transaction_history_partitioned_user_id_fkey to book_transaction_history_user_id_fkey;
+alter table book_transaction_history rename constraint book_transaction_history_partitioned_book_id_fkey to book_transaction_history_book_id_fkey;
+
+create index idx_book_transaction_history_book on book_transaction_history (book_id);
+create index idx_book_transaction_history_user on book_transaction_history (user_id);
+-- Open borrows only: finds the oldest partition that still holds one without touching the rest.
+create index idx_book_transaction_history_open on book_transaction_history (created_date) where not return_approved;
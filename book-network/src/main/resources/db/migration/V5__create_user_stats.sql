@@ -0,0 +1,39 @@
+-- Per-user dashboard counters, kept up to date by UserStatsService and backfilled here once.
+create table user_stats
+(
+    user_id        bigint           not null primary key references users,
+    owned_books    bigint           not null default 0,
+    lent_out_books bigint           not null default 0,
+    borrowed_books bigint           not null default 0,
+    returned_books bigint           not null default 0,
+    rating_sum     double precision not null default 0,
+    rating_count   bigint           not null default 0
+);
+
+with owned as (select owner_id as user_id, count(*) as books from book where not archived group by owner_id),
+     lent_out as (select b.owner_id as user_id, count(*) as books
+                  from book_transaction_history h
+                           join book b on b.id = h.book_id
+                  where not h.return_approved
+                  group by b.owner_id),
+     borrowed as (select user_id, count(*) as books, count(*) filter (where returned) as returned
+                  from book_transaction_history
+                  group by user_id),
+     ratings as (select b.owner_id as user_id, sum(f.note) as note_sum, count(f.note) as notes
+                 from feedback f
+                          join book b on b.id = f.book_id
+                 group by b.owner_id)
+insert
+into user_stats (user_id, owned_books, lent_out_books, borrowed_books, returned_books, rating_sum, rating_count)
+select u.id,
+       coalesce(o.books, 0),
+       coalesce(l.books, 0),
+       coalesce(br.books, 0),
+       coalesce(br.returned, 0),
+       coalesce(r.note_sum, 0),
+       coalesce(r.notes, 0)
+from users u
+         left join owned o on o.user_id = u.id
+         left join lent_out l on l.user_id = u.id
+         left join borrowed br on br.user_id = u.id
+         left join ratings r on r.user_id = u.id;
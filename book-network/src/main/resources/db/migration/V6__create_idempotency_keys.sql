@@ -0,0 +1,13 @@
+-- Responses stored for Idempotency-Key retries. A row without status is a claim held by the node
+-- running the request; its short expiry lets another node take over if that node dies.
+create table idempotency_keys
+(
+    idempotency_key varchar(320) not null primary key,
+    fingerprint     varchar(64)  not null,
+    status          integer,
+    content_type    varchar(255),
+    body            bytea,
+    expires_at      timestamp(6) not null
+);
+
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,31 @@
+-- Store ISBNs in the canonical form produced by Isbn.normalize: the ISBN-13 digits without
+-- separators, ISBN-10s converted. Values that are no valid ISBN are only stripped of separators.
+update book
+set isbn = nullif(upper(regexp_replace(isbn, '[\s-]', '', 'g')), '')
+where isbn is not null;
+
+update book
+set isbn = ten.digits || (10 - (select sum(substr(ten.digits, i, 1)::int * (case when i % 2 = 0 then 3 else 1 end))
+                                from generate_series(1, 12) i) % 10) % 10
+from (select id, '978' || left(isbn, 9) as digits from book where isbn ~ '^[0-9]{9}[0-9X]$') ten
+where book.id = ten.id;
+
+-- Later copies of an ISBN within one owner's books lose it; the values are kept here for review.
+create table book_isbn_conflicts
+(
+    book_id bigint       not null primary key references book,
+    isbn    varchar(255) not null
+);
+
+insert into book_isbn_conflicts (book_id, isbn)
+select id, isbn
+from (select id, isbn, row_number() over (partition by owner_id, isbn order by id) as copy
+      from book
+      where isbn is not null) copies
+where copy > 1;
+
+update book
+set isbn = null
+where id in (select book_id from book_isbn_conflicts);
+
+create unique index uk_book_owner_isbn on book (owner_id, isbn);
@@ -0,0 +1,19 @@
+-- Personal data export jobs. The archive itself is a file on the disk of the node that built it.
+create table data_exports
+(
+    id           varchar(36)  not null primary key,
+    user_id      bigint       not null references users,
+    status       varchar(16)  not null,
+    file_size    bigint,
+    error        varchar(255),
+    created_at   timestamp(6) not null,
+    completed_at timestamp(6),
+    expires_at   timestamp(6) not null
+);
+
+-- At most one unfinished export per user.
+create unique index uk_data_exports_user_active on data_exports (user_id) where status in ('PENDING', 'RUNNING');
+create index idx_data_exports_user on data_exports (user_id, created_at);
+create index idx_data_exports_expires_at on data_exports (expires_at);
+-- Exports read the feedback a user wrote.
+create index idx_feedback_created_by on feedback (created_by);
@@ -0,0 +1,18 @@
+-- Weekly digest email runs, one per ISO week. Recipients are processed in user id order, and
+-- checkpoint_user_id is the last one of the last finished page, where a resumed run starts again.
+-- The node running a campaign renews heartbeat_at; another node takes over once it is stale.
+create table digest_campaigns
+(
+    id                 varchar(16)  not null primary key,
+    status             varchar(16)  not null,
+    since              timestamp(6) not null,
+    checkpoint_user_id bigint       not null,
+    sent_count         bigint       not null,
+    failed_count       bigint       not null,
+    skipped_count      bigint       not null,
+    started_at         timestamp(6) not null,
+    completed_at       timestamp(6),
+    heartbeat_at       timestamp(6) not null
+);
+
+create index idx_digest_campaigns_running on digest_campaigns (heartbeat_at) where status = 'RUNNING';
@@ -0,0 +1,101 @@
+package com.ayed.booknetwork.autocomplete;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lookup cost of {@link SuggestionIndex} over 200,000 titles with the default scan limit and result
+ * count, for prefixes served from a precomputed list, prefixes whose range is scanned, and both
+ * with a full overlay of pending changes. Run with {@code mvn test-compile exec:java
+ * -Dexec.mainClass=com.ayed.booknetwork.autocomplete.SuggestionIndexBenchmark
+ * -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SuggestionIndexBenchmark {
+  private static final int TITLES = 200_000;
+  private static final int SCAN_LIMIT = 1024;
+  private static final int MAX_RESULTS = 20;
+  private static final int OVERLAY = 5_000;
+  private static final List<String> SYLLABLES =
+      List.of("ka", "lo", "mi", "ne", "ra", "su", "ti", "vo", "do", "be", "an", "el", "or");
+
+  @Param({"false", "true"})
+  public boolean overlay;
+
+  private SuggestionIndex index;
+  private String[] shortPrefixes;
+  private String[] longPrefixes;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(7);
+    String[] titles = new String[TITLES];
+    index = new SuggestionIndex(false, SCAN_LIMIT, MAX_RESULTS);
+    SuggestionIndex.Builder builder = index.new Builder();
+    for (int id = 0; id < TITLES; id++) {
+      titles[id] = title(random);
+      builder.add(id, titles[id], titles[id], random.nextDouble() * 5);
+    }
+    index.replace(builder, index.mark());
+    if (overlay) {
+      for (int i = 0; i < OVERLAY; i++) {
+        int id = random.nextInt(TITLES);
+        if (i % 4 == 0) {
+          index.remove(id);
+        } else {
+          index.put(id, titles[id], titles[id], random.nextDouble() * 5);
+        }
+      }
+    }
+    // Two characters match about 15,000 titles, always precomputed; four match about 650, scanned.
+    shortPrefixes = new String[1024];
+    longPrefixes = new String[1024];
+    for (int i = 0; i < shortPrefixes.length; i++) {
+      String title = titles[random.nextInt(TITLES)];
+      shortPrefixes[i] = title.substring(0, 2);
+      longPrefixes[i] = title.substring(0, Math.min(4, title.length()));
+    }
+  }
+
+  private static String title(Random random) {
+    StringBuilder title = new StringBuilder();
+    int words = 1 + random.nextInt(4);
+    for (int w = 0; w < words; w++) {
+      if (w > 0) {
+        title.append(' ');
+      }
+      int syllables = 1 + random.nextInt(3);
+      for (int s = 0; s < syllables; s++) {
+        title.append(SYLLABLES.get(random.nextInt(SYLLABLES.size())));
+      }
+    }
+    return title.toString();
+  }
+
+  @Benchmark
+  public List<SuggestionIndex.Suggestion> precomputed() {
+    return index.lookup(
+        shortPrefixes[ThreadLocalRandom.current().nextInt(shortPrefixes.length)], MAX_RESULTS);
+  }
+
+  @Benchmark
+  public List<SuggestionIndex.Suggestion> scanned() {
+    return index.lookup(
+        longPrefixes[ThreadLocalRandom.current().nextInt(longPrefixes.length)], MAX_RESULTS);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(SuggestionIndexBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
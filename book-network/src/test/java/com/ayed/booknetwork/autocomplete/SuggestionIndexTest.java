@@ -0,0 +1,176 @@
+package com.ayed.booknetwork.autocomplete;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks lookups against the snapshot ranges, both scanned and precomputed, and the overlay that
+ * holds the changes made since the snapshot was built.
+ */
+class SuggestionIndexTest {
+  private static final int MAX_RESULTS = 5;
+  // A scan limit of 1 precomputes every prefix shared by two entries; the maximum never does.
+  private static final int PRECOMPUTED = 1;
+  private static final int SCANNED = Integer.MAX_VALUE;
+
+  @ParameterizedTest
+  @ValueSource(ints = {PRECOMPUTED, SCANNED})
+  void prefixesAtTheEndOfTheRange(int scanLimit) {
+    SuggestionIndex index = new SuggestionIndex(false, scanLimit, MAX_RESULTS);
+    SuggestionIndex.Builder builder = index.new Builder();
+    builder.add(1, "alpha", "Alpha", 1);
+    builder.add(2, "zeta", "Zeta", 2);
+    builder.add(3, "zz", "ZZ", 3);
+    builder.add(4, "zzz", "ZZZ", 4);
+    index.replace(builder, index.mark());
+
+    assertThat(ids(index.lookup("zz", MAX_RESULTS))).containsExactly(4L, 3L);
+    assertThat(ids(index.lookup("zzz", MAX_RESULTS))).containsExactly(4L);
+    assertThat(ids(index.lookup("z", MAX_RESULTS))).containsExactly(4L, 3L, 2L);
+    assertThat(index.lookup("zzzz", MAX_RESULTS)).isEmpty();
+    assertThat(index.lookup("zzza", MAX_RESULTS)).isEmpty();
+    assertThat(index.lookup("￿", MAX_RESULTS)).isEmpty();
+    assertThat(ids(index.lookup("a", MAX_RESULTS))).containsExactly(1L);
+    assertThat(index.lookup("0", MAX_RESULTS)).isEmpty();
+  }
+
+  @Test
+  void emptyIndexFindsNothing() {
+    SuggestionIndex index = new SuggestionIndex(false, PRECOMPUTED, MAX_RESULTS);
+
+    assertThat(index.lookup("a", MAX_RESULTS)).isEmpty();
+    assertThat(index.size()).isZero();
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {false, true})
+  void precomputedRangesMatchScannedRanges(boolean distinctTerms) {
+    SuggestionIndex precomputed = new SuggestionIndex(distinctTerms, 8, MAX_RESULTS);
+    SuggestionIndex scanned = new SuggestionIndex(distinctTerms, SCANNED, MAX_RESULTS);
+    SuggestionIndex.Builder precomputedBuilder = precomputed.new Builder();
+    SuggestionIndex.Builder scannedBuilder = scanned.new Builder();
+    Random random = new Random(42);
+    for (long id = 0; id < 5_000; id++) {
+      String term = randomTerm(random);
+      // Distinct scores, so both indexes agree on the order of every result.
+      double score = id * 0.001 + random.nextInt(100);
+      precomputedBuilder.add(id, term, term.toUpperCase(), score);
+      scannedBuilder.add(id, term, term.toUpperCase(), score);
+    }
+    precomputed.replace(precomputedBuilder, precomputed.mark());
+    scanned.replace(scannedBuilder, scanned.mark());
+
+    for (String prefix : List.of("a", "b", "ab", "abc", "c a", "cab", "a c", "d", "bbbb")) {
+      for (int limit = 1; limit <= MAX_RESULTS; limit++) {
+        assertThat(precomputed.lookup(prefix, limit))
+            .as("%s, limit %d", prefix, limit)
+            .isEqualTo(scanned.lookup(prefix, limit));
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {PRECOMPUTED, SCANNED})
+  void overlayMasksSnapshotEntries(int scanLimit) {
+    SuggestionIndex index = new SuggestionIndex(false, scanLimit, MAX_RESULTS);
+    SuggestionIndex.Builder builder = index.new Builder();
+    builder.add(1, "dune", "Dune", 9);
+    builder.add(2, "dune messiah", "Dune Messiah", 8);
+    builder.add(3, "dracula", "Dracula", 7);
+    index.replace(builder, index.mark());
+
+    index.put(1, "emma", "Emma", 6);
+    index.remove(3);
+
+    assertThat(ids(index.lookup("d", MAX_RESULTS))).containsExactly(2L);
+    assertThat(ids(index.lookup("e", MAX_RESULTS))).containsExactly(1L);
+    assertThat(index.lookup("dr", MAX_RESULTS)).isEmpty();
+
+    // A second change to the same book replaces the first one in the overlay.
+    index.put(1, "dune", "Dune", 10);
+    assertThat(ids(index.lookup("d", MAX_RESULTS))).containsExactly(1L, 2L);
+    assertThat(index.lookup("e", MAX_RESULTS)).isEmpty();
+
+    index.remove(1);
+    assertThat(ids(index.lookup("d", MAX_RESULTS))).containsExactly(2L);
+  }
+
+  @Test
+  void replaceKeepsChangesMadeAfterTheMark() {
+    SuggestionIndex index = new SuggestionIndex(false, PRECOMPUTED, MAX_RESULTS);
+    SuggestionIndex.Builder initial = index.new Builder();
+    initial.add(1, "persuasion", "Persuasion", 5);
+    initial.add(2, "pride", "Pride", 4);
+    initial.add(3, "peril", "Peril", 3);
+    index.replace(initial, index.mark());
+
+    index.put(4, "paradise", "Paradise", 6);
+    long mark = index.mark();
+    // The rebuild reads the database here: it sees book 4, and none of the changes below.
+    SuggestionIndex.Builder rebuilt = index.new Builder();
+    rebuilt.add(1, "persuasion", "Persuasion", 5);
+    rebuilt.add(2, "pride", "Pride", 4);
+    rebuilt.add(3, "peril", "Peril", 3);
+    rebuilt.add(4, "paradise", "Paradise", 6);
+    index.put(5, "pnin", "Pnin", 7);
+    index.remove(2);
+    index.put(3, "peril at end house", "Peril at End House", 8);
+
+    index.replace(rebuilt, mark);
+
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.overlaySize()).isEqualTo(2 + 3);
+    assertThat(texts(index.lookup("p", MAX_RESULTS)))
+        .containsExactly("Peril at End House", "Pnin", "Paradise", "Persuasion");
+    assertThat(index.lookup("pr", MAX_RESULTS)).isEmpty();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {PRECOMPUTED, SCANNED})
+  void authorsAreListedOnce(int scanLimit) {
+    SuggestionIndex index = new SuggestionIndex(true, scanLimit, MAX_RESULTS);
+    SuggestionIndex.Builder builder = index.new Builder();
+    builder.add(1, "terry pratchett", "Terry Pratchett", 3);
+    builder.add(2, "terry pratchett", "Terry Pratchett", 9);
+    builder.add(3, "terry pratchett", "Terry Pratchett", 1);
+    builder.add(4, "terry goodkind", "Terry Goodkind", 5);
+    builder.add(5, "tolkien", "Tolkien", 4);
+    index.replace(builder, index.mark());
+
+    assertThat(index.lookup("t", MAX_RESULTS))
+        .extracting(SuggestionIndex.Suggestion::term)
+        .containsExactly("terry pratchett", "terry goodkind", "tolkien");
+    assertThat(ids(index.lookup("terry p", MAX_RESULTS))).containsExactly(2L);
+
+    // The best book of an author is removed: the author is still listed, through another book.
+    index.remove(2);
+    assertThat(ids(index.lookup("terry", MAX_RESULTS))).containsExactly(4L, 1L);
+
+    // An overlay entry for an author already in the snapshot does not list them twice.
+    index.put(6, "tolkien", "Tolkien", 2);
+    assertThat(index.lookup("to", MAX_RESULTS)).hasSize(1);
+  }
+
+  // Words over a small alphabet, so prefixes share long ranges.
+  private static String randomTerm(Random random) {
+    StringBuilder term = new StringBuilder();
+    int length = 1 + random.nextInt(8);
+    for (int i = 0; i < length; i++) {
+      term.append(i > 0 && random.nextInt(5) == 0 ? ' ' : (char) ('a' + random.nextInt(4)));
+    }
+    return term.toString().strip();
+  }
+
+  private static List<Long> ids(List<SuggestionIndex.Suggestion> suggestions) {
+    return suggestions.stream().map(SuggestionIndex.Suggestion::bookId).toList();
+  }
+
+  private static List<String> texts(List<SuggestionIndex.Suggestion> suggestions) {
+    return suggestions.stream().map(SuggestionIndex.Suggestion::text).toList();
+  }
+}
@@ -0,0 +1,142 @@
+package com.ayed.booknetwork.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ayed.booknetwork.exceptions.OperationNotPermittedException;
+import com.ayed.booknetwork.user.User;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Checks with EXPLAIN that every supported catalog sort/filter combination is served in order by
+ * its index. Sequential scans and explicit sorts are disabled for the EXPLAIN, so a plan without a
+ * Sort node proves an index can deliver the requested order whatever the table size.
+ */
+@SpringBootTest(
+    properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+            + "com.ayed.booknetwork.book.BookCatalogIndexTest$CapturingInspector")
+class BookCatalogIndexTest {
+
+  @Autowired private BookService bookService;
+
+  @Value("${spring.datasource.url}")
+  private String url;
+
+  @Value("${spring.datasource.username}")
+  private String username;
+
+  @Value("${spring.datasource.password}")
+  private String password;
+
+  private final Authentication connectedUser =
+      new UsernamePasswordAuthenticationToken(User.builder().id(-1L).build(), null, List.of());
+
+  @BeforeEach
+  void clearCapturedStatements() {
+    CapturingInspector.STATEMENTS.clear();
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    ",,,idx_book_catalog_created",
+    "createdDate,,,idx_book_catalog_created",
+    "title,,,idx_book_catalog_title",
+    "author,,,idx_book_catalog_author_title",
+    "rating,,,idx_book_catalog_rating",
+    ",Tolkien,,idx_book_catalog_author_title",
+    "title,Tolkien,,idx_book_catalog_author_title",
+    "rating,Tolkien,,idx_book_catalog_author_rating",
+    ",,978,idx_book_catalog_isbn",
+    "isbn,,978,idx_book_catalog_isbn",
+    "isbn,,978-0-30,idx_book_catalog_isbn"
+  })
+  void supportedCombinationsUseTheirIndex(
+      String sort, String author, String isbnPrefix, String expectedIndex) throws SQLException {
+    bookService.findAllBooks(0, 10, sort, author, isbnPrefix, null, connectedUser);
+
+    String plan = explain(pageQuery());
+
+    assertThat(plan).contains(expectedIndex).doesNotContain("Sort").doesNotContain("Seq Scan");
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    "createdDate,Tolkien,",
+    "author,Tolkien,",
+    "title,,978",
+    "rating,,978",
+    "isbn,,",
+    ",Tolkien,978",
+    "price,,"
+  })
+  void unsupportedCombinationsAreRejected(String sort, String author, String isbnPrefix) {
+    assertThatThrownBy(
+            () -> bookService.findAllBooks(0, 10, sort, author, isbnPrefix, null, connectedUser))
+        .isInstanceOf(OperationNotPermittedException.class);
+  }
+
+  private String pageQuery() {
+    return CapturingInspector.STATEMENTS.stream()
+        .filter(sql -> sql.contains(" from book ") && sql.contains(" order by "))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private String explain(String sql) throws SQLException {
+    StringBuilder numbered = new StringBuilder();
+    int parameter = 0;
+    for (char c : sql.toCharArray()) {
+      if (c == '?') {
+        numbered.append('$').append(++parameter);
+      } else {
+        numbered.append(c);
+      }
+    }
+    // The simple protocol sends the $n placeholders to the server untouched, as GENERIC_PLAN needs.
+    Properties properties = new Properties();
+    properties.setProperty("user", username);
+    properties.setProperty("password", password);
+    properties.setProperty("preferQueryMode", "simple");
+    try (Connection connection = DriverManager.getConnection(url, properties);
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET enable_seqscan = off");
+      statement.execute("SET enable_bitmapscan = off");
+      statement.execute("SET enable_sort = off");
+      statement.execute("SET enable_incremental_sort = off");
+      StringBuilder plan = new StringBuilder();
+      try (ResultSet resultSet = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numbered)) {
+        while (resultSet.next()) {
+          plan.append(resultSet.getString(1)).append('\n');
+        }
+      }
+      return plan.toString();
+    }
+  }
+
+  public static class CapturingInspector implements StatementInspector {
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql.replaceAll("\\s+", " "));
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package com.ayed.booknetwork.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ayed.booknetwork.exceptions.DuplicateIsbnException;
+import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserRepository;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Checks that saving a book again with its id updates it, even though its ISBN is then already on
+ * the owner's shelf, while a second book with that ISBN is still rejected.
+ */
+@SpringBootTest
+class BookIsbnUpdateTest {
+  private static final String ISBN = "9780306406157";
+
+  @Autowired private BookService bookService;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private User owner;
+  private Authentication authentication;
+
+  @BeforeEach
+  void createOwner() {
+    owner =
+        userRepository.save(
+            User.builder()
+                .firstname("Isbn")
+                .lastname("Owner")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password")
+                .enabled(true)
+                .roles(List.of())
+                .build());
+    authentication = new UsernamePasswordAuthenticationToken(owner, null, List.of());
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+  }
+
+  @AfterEach
+  void deleteOwner() {
+    SecurityContextHolder.clearContext();
+    jdbcTemplate.update("DELETE FROM book WHERE owner_id = ?", owner.getId());
+    jdbcTemplate.update("DELETE FROM user_stats WHERE user_id = ?", owner.getId());
+    jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+  }
+
+  @Test
+  void resavingBookKeepsItsIsbn() {
+    Long bookId =
+        bookService.addBook(
+            new BookRequest(null, "Title", "Author", ISBN, "Synopsis", true), authentication);
+
+    Long updatedId =
+        bookService.addBook(
+            new BookRequest(bookId, "New title", "Author", "0-306-40615-2", "Synopsis", true),
+            authentication);
+
+    assertThat(updatedId).isEqualTo(bookId);
+    Book book = bookRepository.findById(bookId).orElseThrow();
+    assertThat(book.getTitle()).isEqualTo("New title");
+    assertThat(book.getIsbn()).isEqualTo(ISBN);
+    assertThatThrownBy(
+            () ->
+                bookService.addBook(
+                    new BookRequest(null, "Copy", "Author", ISBN, "Synopsis", true),
+                    authentication))
+        .isInstanceOf(DuplicateIsbnException.class);
+  }
+}
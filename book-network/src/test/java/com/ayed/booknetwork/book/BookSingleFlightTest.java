@@ -0,0 +1,119 @@
+package com.ayed.booknetwork.book;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayed.booknetwork.cache.EntityChangedEvent;
+import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that concurrent misses for the same book share one database load: 1,000 simultaneous
+ * {@code findBookById} calls for an uncached book run a single query and get the same response.
+ */
+@SpringBootTest(
+    properties = {
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "com.ayed.booknetwork.book.BookSingleFlightTest$CountingInspector",
+      "application.cache.book.ttl-millis=60000"
+    })
+class BookSingleFlightTest {
+  private static final int REQUESTS = 1_000;
+
+  @Autowired private BookService bookService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private ApplicationEventPublisher publisher;
+  @Autowired private UserRepository userRepository;
+
+  private User owner;
+  private Long bookId;
+
+  @BeforeEach
+  void createBook() {
+    owner =
+        userRepository.save(
+            User.builder()
+                .firstname("Single")
+                .lastname("Flight")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password")
+                .enabled(true)
+                .roles(List.of())
+                .build());
+    bookId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO book (id, title, author_name, archived, shareable, owner_id, created_by,
+                              created_date)
+            VALUES (nextval('book_seq'), 'Single flight', 'Author', false, true, ?, ?, now())
+            RETURNING id
+            """,
+            Long.class,
+            owner.getId(),
+            owner.getId());
+  }
+
+  @AfterEach
+  void deleteBook() {
+    jdbcTemplate.update("DELETE FROM book WHERE id = ?", bookId);
+    jdbcTemplate.update("DELETE FROM user_stats WHERE user_id = ?", owner.getId());
+    jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+  }
+
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    publisher.publishEvent(new EntityChangedEvent(EntityChangedEvent.BOOK, String.valueOf(bookId)));
+    CountingInspector.BOOK_LOADS.set(0);
+
+    ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<BookResponse>> responses = new ArrayList<>();
+    try {
+      for (int i = 0; i < REQUESTS; i++) {
+        responses.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return bookService.findBookById(bookId, null);
+                }));
+      }
+      start.countDown();
+      BookResponse first = responses.get(0).get();
+      for (Future<BookResponse> response : responses) {
+        assertThat(response.get()).isSameAs(first);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(CountingInspector.BOOK_LOADS.get()).isEqualTo(1);
+  }
+
+  public static class CountingInspector implements StatementInspector {
+    static final AtomicInteger BOOK_LOADS = new AtomicInteger();
+
+    @Override
+    public String inspect(String sql) {
+      String normalized = sql.replaceAll("\\s+", " ");
+      if (normalized.contains(" from book ") && normalized.contains(".id in ")) {
+        BOOK_LOADS.incrementAndGet();
+      }
+      return sql;
+    }
+  }
+}
@@ -0,0 +1,147 @@
+package com.ayed.booknetwork.follow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the sorted adjacency lists under updates, their intersection, and the ranking of
+ * suggestions, including ties and the cap on counted edges.
+ */
+class FollowGraphTest {
+  private static final int ALL_CANDIDATES = Integer.MAX_VALUE;
+
+  @Test
+  void intersectFindsCommonIds() {
+    long[] none = {};
+    long[] odd = {1, 3, 5, 7, 9};
+
+    assertThat(FollowGraph.intersect(none, none)).isEmpty();
+    assertThat(FollowGraph.intersect(none, odd)).isEmpty();
+    assertThat(FollowGraph.intersect(odd, none)).isEmpty();
+    assertThat(FollowGraph.intersect(odd, odd)).containsExactly(1, 3, 5, 7, 9);
+    assertThat(FollowGraph.intersect(odd, new long[] {2, 4, 6, 8})).isEmpty();
+    // Only the last id of the larger array matches.
+    assertThat(FollowGraph.intersect(new long[] {0, 9}, odd)).containsExactly(9);
+    assertThat(FollowGraph.intersect(odd, new long[] {0, 9})).containsExactly(9);
+    // The smaller array goes past the end of the larger one.
+    assertThat(FollowGraph.intersect(new long[] {3, 10, 11, 12}, odd)).containsExactly(3);
+    assertThat(FollowGraph.intersect(new long[] {2, 3, 4, 7, 8}, odd)).containsExactly(3, 7);
+  }
+
+  @Test
+  void setKeepsListsSortedAndDropsEmptyOnes() {
+    FollowGraph graph = new FollowGraph();
+    graph.set(1, 30, true);
+    graph.set(1, 10, true);
+    graph.set(1, 20, true);
+    graph.set(1, 20, true);
+
+    assertThat(graph.following(1)).containsExactly(10, 20, 30);
+    assertThat(graph.follows(1, 20)).isTrue();
+    assertThat(graph.follows(20, 1)).isFalse();
+    assertThat(graph.edgeCount()).isEqualTo(3);
+
+    graph.set(1, 20, false);
+    graph.set(1, 40, false);
+    assertThat(graph.following(1)).containsExactly(10, 30);
+
+    graph.set(1, 10, false);
+    graph.set(1, 30, false);
+    assertThat(graph.following(1)).isEmpty();
+    assertThat(graph.edgeCount()).isZero();
+
+    graph.set(1, 50, true);
+    assertThat(graph.following(1)).containsExactly(50);
+  }
+
+  @Test
+  void setReplacesListsInsteadOfWritingIntoThem() {
+    FollowGraph graph = new FollowGraph();
+    graph.set(1, 10, true);
+    long[] before = graph.following(1);
+
+    graph.set(1, 5, true);
+
+    assertThat(before).containsExactly(10);
+    assertThat(graph.following(1)).containsExactly(5, 10);
+  }
+
+  @Test
+  void listBuilderGroupsEdgesByUser() {
+    FollowGraph.ListBuilder builder = new FollowGraph.ListBuilder();
+    for (long id = 1; id <= 20; id++) {
+      builder.add(1, id);
+    }
+    builder.add(2, 1);
+    builder.add(3, 1);
+    builder.add(3, 2);
+    FollowGraph graph = new FollowGraph(builder.build());
+
+    assertThat(graph.following(1)).hasSize(20).startsWith(1, 2).endsWith(20);
+    assertThat(graph.following(2)).containsExactly(1);
+    assertThat(graph.following(3)).containsExactly(1, 2);
+    assertThat(graph.edgeCount()).isEqualTo(23);
+  }
+
+  @Test
+  void suggestRanksByCountThenId() {
+    FollowGraph graph = sampleGraph();
+
+    assertThat(graph.suggest(1, 5, ALL_CANDIDATES))
+        .containsExactly(
+            new FollowGraph.Suggestion(40, 2),
+            new FollowGraph.Suggestion(50, 2),
+            new FollowGraph.Suggestion(60, 2),
+            new FollowGraph.Suggestion(70, 1));
+    // The top two of three users tied on count are the two lowest ids.
+    assertThat(ids(graph.suggest(1, 2, ALL_CANDIDATES))).containsExactly(40L, 50L);
+    assertThat(ids(graph.suggest(1, 1, ALL_CANDIDATES))).containsExactly(40L);
+  }
+
+  @Test
+  void suggestMovesHigherCountsAheadOfLowerIds() {
+    FollowGraph graph = sampleGraph();
+    graph.set(10, 70, true);
+    graph.set(20, 70, true);
+
+    assertThat(graph.suggest(1, 2, ALL_CANDIDATES))
+        .containsExactly(new FollowGraph.Suggestion(70, 3), new FollowGraph.Suggestion(40, 2));
+  }
+
+  @Test
+  void suggestSkipsTheViewerAndUsersAlreadyFollowed() {
+    FollowGraph graph = sampleGraph();
+
+    assertThat(ids(graph.suggest(1, 10, ALL_CANDIDATES))).doesNotContain(1L, 10L, 20L, 30L);
+    assertThat(graph.suggest(99, 10, ALL_CANDIDATES)).isEmpty();
+  }
+
+  @Test
+  void suggestCountsAtMostMaxCandidatesEdges() {
+    FollowGraph graph = sampleGraph();
+
+    // Followees are read in id order: 10 gives 40 and 50, then 20 gives 40 and the cap is reached.
+    assertThat(graph.suggest(1, 5, 3))
+        .containsExactly(new FollowGraph.Suggestion(40, 2), new FollowGraph.Suggestion(50, 1));
+    assertThat(graph.suggest(1, 5, 0)).isEmpty();
+  }
+
+  // User 1 follows 10, 20 and 30, who between them follow 40, 50 and 60 twice each and 70 once.
+  private static FollowGraph sampleGraph() {
+    FollowGraph graph = new FollowGraph();
+    for (long[] edge :
+        new long[][] {
+          {1, 10}, {1, 20}, {1, 30}, {10, 1}, {10, 20}, {10, 40}, {10, 50}, {20, 40}, {20, 60},
+          {30, 50}, {30, 60}, {30, 70}
+        }) {
+      graph.set(edge[0], edge[1], true);
+    }
+    return graph;
+  }
+
+  private static List<Long> ids(List<FollowGraph.Suggestion> suggestions) {
+    return suggestions.stream().map(FollowGraph.Suggestion::userId).toList();
+  }
+}
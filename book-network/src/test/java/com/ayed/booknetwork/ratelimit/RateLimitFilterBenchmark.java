@@ -0,0 +1,140 @@
+package com.ayed.booknetwork.ratelimit;
+
+import com.ayed.booknetwork.role.Role;
+import com.ayed.booknetwork.security.JwtService;
+import com.ayed.booknetwork.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Per-request cost of {@link RateLimitFilter} with 16 concurrent callers spread over many client
+ * keys. The scores are a per-request cost only on a machine with at least 16 CPUs; with fewer, the
+ * threads take turns and each score includes the time spent waiting for a CPU. Run with {@code mvn
+ * test-compile exec:java -Dexec.mainClass=com.ayed.booknetwork.ratelimit.RateLimitFilterBenchmark
+ * -Dexec.classpathScope=test}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class RateLimitFilterBenchmark {
+  private static final int CLIENTS = 4096;
+  private static final FilterChain NO_OP_CHAIN = (request, response) -> {};
+  private static final OncePerRequestFilter PASS_THROUGH =
+      new OncePerRequestFilter() {
+        @Override
+        protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+          request.getHeader("Authorization");
+          chain.doFilter(request, response);
+        }
+      };
+
+  private RateLimitFilter filter;
+  private String[] addresses;
+  private String[] tokens;
+
+  @Setup
+  public void setUp() throws Exception {
+    // Limits high enough that every request is admitted: the benchmark measures the bookkeeping.
+    var properties =
+        new RateLimitProperties(
+            true,
+            Duration.ofMinutes(10),
+            Map.of("books", new RateLimitProperties.Group("/books", 1_000_000, 1_000_000_000d)));
+    JwtService jwtService = new JwtService(null);
+    ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+    ReflectionTestUtils.setField(
+        jwtService,
+        "secretKey",
+        "8e360cf9ffc5465b92d9fb04a40e1c87b6eb191c2151602854f37f381c67d98bb3223b193a49d3a2d4c871e054b5a39eb60e96acb2607bbda0f67a7be477de24");
+    ReflectionTestUtils.invokeMethod(jwtService, "init");
+    filter =
+        new RateLimitFilter(
+            new RateLimiter(properties), properties, jwtService, new ObjectMapper());
+
+    addresses = new String[CLIENTS];
+    tokens = new String[CLIENTS];
+    for (int i = 0; i < CLIENTS; i++) {
+      addresses[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+      User user =
+          User.builder()
+              .email("user" + i + "@mail.com")
+              .roles(List.of(Role.builder().name("USER").build()))
+              .build();
+      tokens[i] = jwtService.generateToken(user);
+      // Verifies the token signature once, as the first real request carrying it would.
+      MockHttpServletRequest request = request();
+      request.addHeader("Authorization", "Bearer " + tokens[i]);
+      filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+    }
+  }
+
+  private static MockHttpServletRequest request() {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/books");
+    request.setServletPath("/books");
+    return request;
+  }
+
+  /** Servlet requests are not thread-safe, so every thread gets its own over the shared keys. */
+  @State(Scope.Thread)
+  public static class ThreadState {
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+    final MockHttpServletRequest[] anonymousRequests = new MockHttpServletRequest[CLIENTS];
+    final MockHttpServletRequest[] authenticatedRequests = new MockHttpServletRequest[CLIENTS];
+
+    @Setup
+    public void setUp(RateLimitFilterBenchmark benchmark) {
+      for (int i = 0; i < CLIENTS; i++) {
+        anonymousRequests[i] = request();
+        anonymousRequests[i].setRemoteAddr(benchmark.addresses[i]);
+        authenticatedRequests[i] = request();
+        authenticatedRequests[i].addHeader("Authorization", "Bearer " + benchmark.tokens[i]);
+      }
+    }
+  }
+
+  /** Same servlet plumbing without any limiting, to subtract from the other scores. */
+  @Benchmark
+  public void baseline(ThreadState state) throws Exception {
+    int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+    PASS_THROUGH.doFilter(state.authenticatedRequests[i], state.response, NO_OP_CHAIN);
+  }
+
+  @Benchmark
+  public void ipKeyed(ThreadState state) throws Exception {
+    int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+    filter.doFilter(state.anonymousRequests[i], state.response, NO_OP_CHAIN);
+  }
+
+  @Benchmark
+  public void jwtKeyed(ThreadState state) throws Exception {
+    int i = ThreadLocalRandom.current().nextInt(CLIENTS);
+    filter.doFilter(state.authenticatedRequests[i], state.response, NO_OP_CHAIN);
+  }
+
+  public static void main(String[] args) throws Exception {
+    new Runner(new OptionsBuilder().include(RateLimitFilterBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,285 @@
+package com.ayed.booknetwork.reservation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ayed.booknetwork.book.Book;
+import com.ayed.booknetwork.book.BookRepository;
+import com.ayed.booknetwork.history.BookTransactionHistory;
+import com.ayed.booknetwork.history.BookTransactionHistoryRepository;
+import com.ayed.booknetwork.user.User;
+import com.ayed.booknetwork.user.UserRepository;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Queues 500 users for one borrowed book at once, then approves returns one after the other while a
+ * third of the users cancel concurrently. The book must go to every user who did not cancel exactly
+ * once, in the order of their reservations, and the head of the queue must be read from its index
+ * without sorting the waiting reservations. The users and the book are created for the test and
+ * deleted afterwards.
+ */
+@SpringBootTest
+class ReservationQueueStressTest {
+  private static final Logger logger = LoggerFactory.getLogger(ReservationQueueStressTest.class);
+  private static final int RESERVERS = 500;
+  private static final long MAX_RESERVE_MILLIS = 30_000;
+  private static final long MAX_HAND_OFF_MILLIS = 5_000;
+
+  @Autowired private ReservationService reservationService;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private BookTransactionHistoryRepository historyRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private final String emailDomain = "@" + UUID.randomUUID() + ".example.com";
+  private List<User> users;
+  private Long bookId;
+
+  // The owner, the first borrower and the reservers, in one insert each for users and the book.
+  @BeforeEach
+  void createUsersAndBook() {
+    List<Long> userIds =
+        jdbcTemplate.queryForList(
+            """
+            INSERT INTO users (id, firstname, lastname, email, password, account_locked, enabled,
+                               created_date)
+            SELECT nextval('users_seq'), 'Reserver', i::text, 'reserver-' || i || ?, 'password',
+                   false, true, now()
+            FROM generate_series(0, ?) i
+            RETURNING id
+            """,
+            Long.class,
+            emailDomain,
+            RESERVERS + 1);
+    users =
+        userRepository.findAllById(userIds).stream()
+            .sorted(Comparator.comparing(User::getId))
+            .toList();
+    User owner = users.get(0);
+    users = users.subList(1, users.size());
+    bookId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO book (id, title, author_name, archived, shareable, owner_id, created_by,
+                              created_date)
+            VALUES (nextval('book_seq'), 'Reserved', 'Author', false, true, ?, ?, now())
+            RETURNING id
+            """,
+            Long.class,
+            owner.getId(),
+            owner.getId());
+  }
+
+  // Locks the rows first, so counters still being updated after the hand-offs wait and then fail
+  // instead of recreating rows that reference them.
+  @AfterEach
+  void deleteUsersAndBook() {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          String testUsers = "SELECT id FROM users WHERE email LIKE ?";
+          String emails = "%" + emailDomain;
+          jdbcTemplate.queryForList(testUsers + " FOR UPDATE", Long.class, emails);
+          jdbcTemplate.queryForList(
+              "SELECT id FROM book WHERE id = ? FOR UPDATE", Long.class, bookId);
+          jdbcTemplate.update("DELETE FROM book_reservations WHERE book_id = ?", bookId);
+          jdbcTemplate.update("DELETE FROM book_transaction_history WHERE book_id = ?", bookId);
+          jdbcTemplate.update("DELETE FROM book_stats WHERE book_id = ?", bookId);
+          jdbcTemplate.update("DELETE FROM book WHERE id = ?", bookId);
+          jdbcTemplate.update(
+              "DELETE FROM user_stats WHERE user_id IN (" + testUsers + ")", emails);
+          jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", emails);
+        });
+  }
+
+  @Test
+  void concurrentReserversAreServedInOrder() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(RESERVERS);
+    try {
+      borrow(bookId, users.get(0));
+
+      // All reserve at once.
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<ReservationResponse>> futures = new ArrayList<>();
+      for (User user : users.subList(1, users.size())) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return reservationService.reserve(bookId, authentication(user));
+                }));
+      }
+      long reserveStart = System.nanoTime();
+      start.countDown();
+      Map<Long, Long> userByReservation = new HashMap<>();
+      List<ReservationResponse> reservations = new ArrayList<>();
+      for (int i = 0; i < futures.size(); i++) {
+        ReservationResponse reservation = futures.get(i).get();
+        reservations.add(reservation);
+        userByReservation.put(reservation.id(), users.get(i + 1).getId());
+      }
+      long reserveMillis = (System.nanoTime() - reserveStart) / 1_000_000;
+      logger.info(
+          "{} concurrent reservations in {} ms ({} per second)",
+          RESERVERS,
+          reserveMillis,
+          RESERVERS * 1000L / Math.max(reserveMillis, 1));
+      assertThat(reserveMillis).isLessThan(MAX_RESERVE_MILLIS);
+
+      // Places only count the reservations ahead that committed, so they never overstate it.
+      reservations.sort(Comparator.comparing(ReservationResponse::id));
+      for (int i = 0; i < reservations.size(); i++) {
+        assertThat(reservations.get(i).position()).isBetween(1L, i + 1L);
+      }
+
+      // When the table holds only this book's queue, the primary key is as good as the queue index.
+      assertThat(explainHead(bookId))
+          .containsPattern(
+              "Index (Only )?Scan using (idx_book_reservations_queue|book_reservations_pkey)")
+          .doesNotContain("Sort");
+
+      // Cancel every third user while the book is handed down the queue.
+      List<Future<Long>> cancellations = new ArrayList<>();
+      for (int i = 0; i < reservations.size(); i += 3) {
+        Long userId = userByReservation.get(reservations.get(i).id());
+        User user = users.stream().filter(u -> u.getId().equals(userId)).findFirst().orElseThrow();
+        cancellations.add(
+            executor.submit(
+                () -> reservationService.cancel(bookId, authentication(user)) ? userId : null));
+      }
+
+      List<Long> borrowers = new ArrayList<>();
+      long handOffNanos = 0;
+      while (true) {
+        long handOffStart = System.nanoTime();
+        approveReturn(bookId);
+        Long borrower = awaitHandOff(bookId);
+        if (borrower == null) {
+          break;
+        }
+        handOffNanos += System.nanoTime() - handOffStart;
+        borrowers.add(borrower);
+      }
+      Set<Long> cancelled = new HashSet<>();
+      for (Future<Long> cancellation : cancellations) {
+        Long userId = cancellation.get();
+        if (userId != null) {
+          cancelled.add(userId);
+        }
+      }
+      logger.info(
+          "{} hand-offs, {} cancellations, {} ms per hand-off",
+          borrowers.size(),
+          cancelled.size(),
+          handOffNanos / 1_000_000 / Math.max(borrowers.size(), 1));
+
+      // Everybody either cancelled or borrowed the book, once, in the order they reserved it.
+      List<Long> expected =
+          reservations.stream()
+              .map(reservation -> userByReservation.get(reservation.id()))
+              .filter(userId -> !cancelled.contains(userId))
+              .toList();
+      assertThat(borrowers).containsExactlyElementsOf(expected);
+      assertThat(cancelled).doesNotContainAnyElementsOf(borrowers);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void borrow(Long bookId, User user) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          Book book = bookRepository.findById(bookId).orElseThrow();
+          historyRepository.save(
+              BookTransactionHistory.builder()
+                  .user(user)
+                  .book(book)
+                  .createdBy(user.getId())
+                  .build());
+        });
+  }
+
+  private void approveReturn(Long bookId) {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          Long historyId =
+              jdbcTemplate.queryForObject(
+                  "SELECT id FROM book_transaction_history WHERE book_id = ? AND NOT"
+                      + " return_approved",
+                  Long.class,
+                  bookId);
+          BookTransactionHistory history = historyRepository.findById(historyId).orElseThrow();
+          history.setReturned(true);
+          history.setReturnApproved(true);
+        });
+  }
+
+  // The next borrower, or null once the queue is empty and the book stays available.
+  private Long awaitHandOff(Long bookId) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + MAX_HAND_OFF_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+      boolean queueEmpty =
+          jdbcTemplate.queryForObject(
+              "SELECT count(*) = 0 FROM book_reservations WHERE book_id = ? AND status = 'WAITING'",
+              Boolean.class,
+              bookId);
+      List<Long> borrower =
+          jdbcTemplate.queryForList(
+              "SELECT user_id FROM book_transaction_history WHERE book_id = ? AND NOT"
+                  + " return_approved",
+              Long.class,
+              bookId);
+      if (!borrower.isEmpty()) {
+        return borrower.get(0);
+      }
+      if (queueEmpty) {
+        return null;
+      }
+      Thread.sleep(1);
+    }
+    throw new AssertionError("Book " + bookId + " was not handed off in time");
+  }
+
+  // The plan of the hand-off's head lookup, with sequential scans and explicit sorts disabled.
+  private String explainHead(Long bookId) {
+    return transactionTemplate.execute(
+        status -> {
+          jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+          jdbcTemplate.execute("SET LOCAL enable_sort = off");
+          return String.join(
+              "\n",
+              jdbcTemplate.queryForList(
+                  """
+                  EXPLAIN SELECT id FROM book_reservations
+                  WHERE book_id = ? AND status = 'WAITING' ORDER BY id LIMIT 1
+                  """,
+                  String.class,
+                  bookId));
+        });
+  }
+
+  private static Authentication authentication(User user) {
+    return new UsernamePasswordAuthenticationToken(user, null, List.of());
+  }
+}